@@ -0,0 +1,77 @@
+-- product_search_benchmark.sql
+-- Compara la búsqueda LIKE (ProductoSpecification.nameContains) con la búsqueda de texto completo
+-- (ProductoFullTextRepository) sobre un catálogo de 1M de productos.
+--
+-- Uso (base de datos con las migraciones aplicadas hasta V8):
+--   psql -h localhost -U ecommerce_user -d ecommerce_dev -f scripts/benchmark/product_search_benchmark.sql
+--
+-- Todo se ejecuta en una transacción que termina en ROLLBACK: no deja datos en la base.
+
+\timing on
+BEGIN;
+
+-- ------------------------------------------------------------------------------
+-- Catálogo sintético: 1.000.000 de productos con nombre, marca y descripción variados
+-- ------------------------------------------------------------------------------
+INSERT INTO products (name, description, price, sku, stock_quantity, category_id, image_url, brand, created_by)
+SELECT
+    (ARRAY['Smartphone', 'Laptop', 'Audífonos', 'Camiseta', 'Zapatillas', 'Lámpara', 'Silla', 'Mochila', 'Reloj', 'Cafetera'])[1 + i % 10]
+        || ' ' || (ARRAY['Pro', 'Ultra', 'Lite', 'Max', 'Plus', 'Mini', 'Sport', 'Classic'])[1 + (i / 10) % 8]
+        || ' ' || (ARRAY['negro', 'blanco', 'azul', 'rojo', 'gris', 'verde'])[1 + (i / 80) % 6]
+        || ' ' || i,
+    'Producto de prueba número ' || i || ' con garantía de '
+        || (1 + i % 3) || ' años, ideal para uso diario y envío inmediato',
+    round((5 + random() * 2000)::numeric, 2),
+    'BENCH-' || i,
+    (i % 50),
+    (SELECT id FROM categories ORDER BY id LIMIT 1),
+    'https://example.com/bench/' || i || '.jpg',
+    (ARRAY['Samsung', 'Apple', 'Sony', 'Nike', 'Adidas', 'Philips', 'Lenovo', 'Xiaomi'])[1 + (i / 3) % 8],
+    'BENCHMARK'
+FROM generate_series(1, 1000000) AS i;
+
+ANALYZE products;
+
+-- ------------------------------------------------------------------------------
+-- 1. Ruta actual: LIKE sin índice utilizable (Seq Scan)
+-- ------------------------------------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.is_active = true AND lower(p.name) LIKE '%cafetera ultra%'
+ORDER BY p.name ASC
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM products p
+WHERE p.is_active = true AND lower(p.name) LIKE '%cafetera ultra%';
+
+-- ------------------------------------------------------------------------------
+-- 2. Texto completo: Bitmap Index Scan sobre idx_products_search_vector, orden por ts_rank
+-- ------------------------------------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.is_active = true AND p.search_vector @@ plainto_tsquery('spanish', 'cafetera ultra')
+ORDER BY ts_rank(p.search_vector, plainto_tsquery('spanish', 'cafetera ultra')) DESC, p.id
+LIMIT 20;
+
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT COUNT(*) FROM products p
+WHERE p.is_active = true AND p.search_vector @@ plainto_tsquery('spanish', 'cafetera ultra');
+
+-- Término que también aparece en marca y descripción
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.is_active = true AND p.search_vector @@ plainto_tsquery('spanish', 'sony garantía')
+ORDER BY ts_rank(p.search_vector, plainto_tsquery('spanish', 'sony garantía')) DESC, p.id
+LIMIT 20;
+
+-- ------------------------------------------------------------------------------
+-- 3. Respaldo por trigramas ante un error de tipeo: idx_products_name_trgm
+-- ------------------------------------------------------------------------------
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT p.* FROM products p
+WHERE p.is_active = true AND p.name % 'cafetra ultar'
+ORDER BY similarity(p.name, 'cafetra ultar') DESC, p.id
+LIMIT 20;
+
+ROLLBACK;
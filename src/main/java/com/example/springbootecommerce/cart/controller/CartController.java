@@ -1,6 +1,8 @@
 package com.example.springbootecommerce.cart.controller;
 
 import com.example.springbootecommerce.cart.dto.AddItemDTO;
+import com.example.springbootecommerce.cart.dto.CartArchiveStatsDTO;
+import com.example.springbootecommerce.cart.dto.CartBatchDTO;
 import com.example.springbootecommerce.cart.dto.CartDTO;
 import com.example.springbootecommerce.cart.dto.UpdateItemDTO;
 import com.example.springbootecommerce.cart.service.CartService;
@@ -94,6 +96,18 @@ public class CartController {
         return ResponseEntity.ok(ApiResponse.success(null, "Item eliminado exitosamente del carrito"));
     }
 
+    @PostMapping("/items/batch")
+    public ResponseEntity<ApiResponse<CartDTO>> applyBatch(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody CartBatchDTO batchDTO
+    ) {
+        log.info("Aplicando lote de operaciones al carrito - Usuario: {}, Operaciones: {}",
+                currentUser.getId(), batchDTO.getOperations().size());
+
+        CartDTO updateCart = cartService.applyBatch(currentUser.getId(), batchDTO);
+        return ResponseEntity.ok(ApiResponse.success(updateCart, "Operaciones aplicadas exitosamente al carrito"));
+    }
+
     @DeleteMapping("/clear")
     public ResponseEntity<ApiResponse<CartDTO>> clearCart(@AuthenticationPrincipal User currentUser) {
         log.info("Limpiando carrito - Usuario: {}", currentUser.getId());
@@ -101,4 +115,11 @@ public class CartController {
         cartService.clearCart(currentUser.getId());
         return ResponseEntity.ok(ApiResponse.success(null, "Carrito limpiado exitosamente"));
     }
+
+    @GetMapping("/admin/archivo/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CartArchiveStatsDTO>> getEstadisticasArchivo() {
+        CartArchiveStatsDTO stats = cartService.getArchiveStats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Estadísticas de archivado obtenidas exitosamente"));
+    }
 }
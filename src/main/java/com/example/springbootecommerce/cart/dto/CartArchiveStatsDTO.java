@@ -0,0 +1,24 @@
+package com.example.springbootecommerce.cart.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class CartArchiveStatsDTO {
+    private Long runs;
+
+    private Long archivedCarts;
+
+    private Long archivedItems;
+
+    private Long lastRunCarts;
+
+    private Long lastRunItems;
+
+    private Long lastRunDurationMs;
+
+    private LocalDateTime lastRunAt;
+}
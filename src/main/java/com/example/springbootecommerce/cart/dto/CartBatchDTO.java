@@ -0,0 +1,15 @@
+package com.example.springbootecommerce.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchDTO {
+    @NotEmpty(message = "La lista de operaciones no puede estar vacía")
+    @Size(max = 200, message = "No se pueden enviar más de 200 operaciones por lote")
+    private List<@Valid CartOperationDTO> operations;
+}
@@ -0,0 +1,27 @@
+package com.example.springbootecommerce.cart.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Operación de un lote sobre el carrito. ADD requiere productId; UPDATE y REMOVE aceptan
+ * itemId o productId (los clientes sin conexión no conocen el ID de las líneas nuevas).
+ */
+@Data
+public class CartOperationDTO {
+
+    public enum Type {
+        ADD, UPDATE, REMOVE
+    }
+
+    @NotNull(message = "El tipo de operación es obligatorio")
+    private Type type;
+
+    private Long productId;
+
+    private Long itemId;
+
+    @Min(value = 1, message = "La cantidad debe ser mayor a 0")
+    private Integer quantity;
+}
@@ -8,7 +8,9 @@ import lombok.experimental.SuperBuilder;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
@@ -27,23 +29,47 @@ public class Cart extends Auditable {
     @JoinColumn(name = "user_id",nullable = false,unique = true)
     private User user;
 
+    // Modificar solo con los métodos del carrito para mantener el índice y los totales
     @OneToMany(mappedBy = "cart",cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @Builder.Default
     private List<CartItem> items = new ArrayList<>();
 
+    // Índice por producto y totales acumulados: se construyen al primer uso a partir de items
+    // y se actualizan en cada mutación, en lugar de recorrer la lista en cada llamada
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private Map<Long, CartItem> itemsByProductId;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private BigDecimal totalAmount;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private int totalQuantity;
+
     // ========================================================================
     // MÉTODOS DE NEGOCIO
     // ========================================================================
+    public void setItems(List<CartItem> items){
+        this.items = items;
+        this.itemsByProductId = null;
+    }
+
     public BigDecimal getTotalMount(){
-        return items.stream()
-                .map(CartItem::getSubtotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        index();
+        return totalAmount;
     }
 
     public int getTotalItems(){
-        return items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        index();
+        return totalQuantity;
     }
 
     public int getTotalUniqueItems(){
@@ -55,29 +81,31 @@ public class Cart extends Auditable {
     }
 
     public boolean hasItems(Long productId){
-        return items.stream()
-                .anyMatch(item -> item.getProducto().getId().equals(productId));
+        return index().containsKey(productId);
     }
 
     public CartItem findItemByProductId(Long productId){
-        return items.stream()
-                .filter(item -> item.getProducto().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
+        return index().get(productId);
     }
 
     public void addItem(CartItem item){
         CartItem existingItem = findItemByProductId(item.getProducto().getId());
         if (existingItem != null){
-            existingItem.setQuantity(existingItem.getQuantity() + item.getQuantity());
+            changeQuantity(existingItem, existingItem.getQuantity() + item.getQuantity());
         }else{
             items.add(item);
             item.setCart(this);
+            index().put(item.getProducto().getId(), item);
+            track(item, 1);
         }
     }
 
     public void removeItem(CartItem item){
-        items.remove(item);
+        Map<Long, CartItem> index = index();
+        if (items.remove(item)){
+            index.remove(item.getProducto().getId(), item);
+            track(item, -1);
+        }
         item.setCart(null);
     }
 
@@ -91,6 +119,9 @@ public class Cart extends Auditable {
     public void clear(){
         items.forEach(item -> item.setCart(null));
         items.clear();
+        itemsByProductId = new HashMap<>();
+        totalAmount = BigDecimal.ZERO;
+        totalQuantity = 0;
     }
 
     public void updateItemQuantity(Long productoid, int quantity){
@@ -99,7 +130,7 @@ public class Cart extends Auditable {
             if (quantity <= 0){
                 removeItem(item);
             }else {
-                item.setQuantity(quantity);
+                changeQuantity(item, quantity);
             }
         }
     }
@@ -114,4 +145,31 @@ public class Cart extends Auditable {
                 .filter(item -> !item.getProducto().hasStock(item.getQuantity()))
                 .toList();
     }
+
+    private Map<Long, CartItem> index(){
+        if (itemsByProductId == null){
+            Map<Long, CartItem> index = new HashMap<>(Math.max(16, items.size() * 2));
+            totalAmount = BigDecimal.ZERO;
+            totalQuantity = 0;
+            itemsByProductId = index;
+            for (CartItem item : items){
+                index.putIfAbsent(item.getProducto().getId(), item);
+                track(item, 1);
+            }
+        }
+        return itemsByProductId;
+    }
+
+    private void changeQuantity(CartItem item, int quantity){
+        track(item, -1);
+        item.setQuantity(quantity);
+        track(item, 1);
+    }
+
+    // Suma (sign = 1) o descuenta (sign = -1) la línea de los totales acumulados
+    private void track(CartItem item, int sign){
+        BigDecimal subtotal = item.getSubtotal();
+        totalAmount = sign > 0 ? totalAmount.add(subtotal) : totalAmount.subtract(subtotal);
+        totalQuantity += sign * item.getQuantity();
+    }
 }
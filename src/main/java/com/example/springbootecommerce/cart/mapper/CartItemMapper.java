@@ -2,6 +2,8 @@ package com.example.springbootecommerce.cart.mapper;
 
 import com.example.springbootecommerce.cart.dto.CartItemDTO;
 import com.example.springbootecommerce.cart.entity.CartItem;
+import com.example.springbootecommerce.cart.service.CartStore;
+import com.example.springbootecommerce.product.dto.ProductoDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -19,4 +21,27 @@ public interface CartItemMapper {
     @Mapping(source = "producto.stockQuantity", target = "availableStock")
     @Mapping(source = "addedAt", target = "addedAt")
     CartItemDTO toItemDTO(CartItem cartItem);
-}
\ No newline at end of file
+
+    /**
+     * Línea del carrito en memoria con los datos vigentes del producto (precio y stock de la caché de productos).
+     * Subtotal con el mismo criterio que CartItem.getSubtotal().
+     */
+    @Mapping(source = "line.itemId", target = "id")
+    @Mapping(source = "line.productId", target = "productoId")
+    @Mapping(source = "producto.name", target = "productoNombre")
+    @Mapping(source = "producto.sku", target = "productoSku")
+    @Mapping(source = "producto.price", target = "unitPrice")
+    @Mapping(source = "line.quantity", target = "quantity")
+    @Mapping(source = "producto.price", target = "subtotal")
+    @Mapping(source = "producto.imageUrl", target = "productoImageUrl")
+    @Mapping(expression = "java(isAvailable(line, producto) ? \"SI\" : \"NO\")", target = "isAvailable")
+    @Mapping(source = "producto.stockQuantity", target = "availableStock")
+    @Mapping(source = "line.addedAt", target = "addedAt")
+    CartItemDTO toItemDTO(CartStore.Line line, ProductoDTO producto);
+
+    default boolean isAvailable(CartStore.Line line, ProductoDTO producto) {
+        return Boolean.TRUE.equals(producto.getIsActive())
+                && producto.getStockQuantity() != null
+                && producto.getStockQuantity() >= line.quantity();
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.springbootecommerce.cart.mapper;
 
 import com.example.springbootecommerce.cart.dto.CartDTO;
+import com.example.springbootecommerce.cart.dto.CartItemDTO;
 import com.example.springbootecommerce.cart.entity.Cart;
+import com.example.springbootecommerce.cart.service.CartStore;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @Mapper(componentModel = "spring", uses = {CartItemMapper.class})
 public interface CartMapper {
 
@@ -18,6 +23,24 @@ public interface CartMapper {
     @Mapping(source = "items", target = "items")
     CartDTO toCartDTO(Cart cart);
 
+    /**
+     * Convierte el carrito en memoria a partir de sus líneas ya resueltas contra la caché de productos
+     */
+    @Mapping(source = "cart.cartId", target = "id")
+    @Mapping(source = "cart.userEmail", target = "userEmail")
+    @Mapping(source = "cart.updatedAt", target = "updatedAt")
+    @Mapping(source = "items", target = "items")
+    @Mapping(expression = "java(totalAmount(items))", target = "totalAmount")
+    @Mapping(expression = "java(items.stream().mapToInt(CartItemDTO::getQuantity).sum())", target = "totalItems")
+    @Mapping(expression = "java(items.size())", target = "totalUniqueItems")
+    CartDTO toCartDTO(CartStore.CartState cart, List<CartItemDTO> items);
+
+    default BigDecimal totalAmount(List<CartItemDTO> items) {
+        return items.stream()
+                .map(CartItemDTO::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     // =========================================================================
     // CONVERSIONES BÁSICAS DTO -> ENTIDAD
     // =========================================================================
@@ -28,6 +51,9 @@ public interface CartMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "items", ignore = true)
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "itemsByProductId", ignore = true)
+    @Mapping(target = "totalAmount", ignore = true)
+    @Mapping(target = "totalQuantity", ignore = true)
     Cart toCart(CartDTO cartDTO);
 
 }
@@ -2,10 +2,12 @@ package com.example.springbootecommerce.cart.repository;
 
 import com.example.springbootecommerce.cart.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +26,41 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     void deleteByCartId(Long cartId);
 
+    // Reserva el ID de una línea nueva del carrito en memoria antes de persistirla
+    @Query(value = "SELECT nextval(pg_get_serial_sequence('cart_items', 'id'))", nativeQuery = true)
+    Long nextId();
+
+    // Reserva count IDs de líneas nuevas en una sola consulta (operaciones por lote)
+    @Query(value = "SELECT nextval(pg_get_serial_sequence('cart_items', 'id')) FROM generate_series(1, :count)",
+            nativeQuery = true)
+    List<Long> nextIds(@Param("count") int count);
+
+    // Borra las líneas de los carritos del lote que ya no están en memoria (se ejecuta antes del upsert)
+    @Modifying
+    @Query(value = """
+        DELETE FROM cart_items ci
+        WHERE ci.cart_id = ANY(CAST(:cartIds AS bigint[]))
+          AND NOT (ci.id = ANY(CAST(:itemIds AS bigint[])))
+        """, nativeQuery = true)
+    int deleteLinesNotIn(@Param("cartIds") Long[] cartIds, @Param("itemIds") Long[] itemIds);
+
+    // Inserta o actualiza las líneas de un lote de carritos en una sola sentencia; added_at es el de la
+    // línea en memoria, de modo que volver a persistirla no altera el orden ni la antigüedad del item
+    @Modifying
+    @Query(value = """
+        INSERT INTO cart_items (id, cart_id, product_id, quantity, added_at)
+        SELECT r.id, r.cart_id, r.product_id, r.quantity, r.added_at
+        FROM unnest(CAST(:itemIds AS bigint[]), CAST(:cartIds AS bigint[]),
+                    CAST(:productIds AS bigint[]), CAST(:quantities AS int[]),
+                    CAST(:addedAts AS timestamp[]))
+            AS r(id, cart_id, product_id, quantity, added_at)
+        ON CONFLICT (id) DO UPDATE
+        SET quantity = EXCLUDED.quantity
+        """, nativeQuery = true)
+    int upsertLines(@Param("itemIds") Long[] itemIds,
+                    @Param("cartIds") Long[] cartIds,
+                    @Param("productIds") Long[] productIds,
+                    @Param("quantities") Integer[] quantities,
+                    @Param("addedAts") LocalDateTime[] addedAts);
+
 }
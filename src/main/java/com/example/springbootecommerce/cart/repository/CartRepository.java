@@ -2,11 +2,14 @@ package com.example.springbootecommerce.cart.repository;
 
 import com.example.springbootecommerce.cart.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.swing.text.html.Option;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,17 +17,67 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUserEmail(String email);
     /**
-     * Busca el carrito de un usuario por su ID, trayendo también todos los items del carrito
+     * Busca el carrito de un usuario por su ID, trayendo también el usuario, todos los items del carrito
      * y los productos asociados a cada item en una sola consulta (fetch join).
-     * Esto evita múltiples consultas adicionales al acceder a los items y productos del carrito.
+     * Esto evita múltiples consultas adicionales al acceder a los items y productos del carrito, y permite
+     * usar el resultado fuera de una transacción (CartStore lo carga sin sesión abierta).
      *
      * @param userId ID del usuario dueño del carrito
-     * @return Optional con el carrito y sus items/productos cargados, o vacío si no existe
+     * @return Optional con el carrito, su usuario y sus items/productos cargados, o vacío si no existe
      */
-    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items ci LEFT JOIN FETCH ci.producto WHERE c.user.id = :userId")
+    @Query("""
+        SELECT c FROM Cart c
+        JOIN FETCH c.user
+        LEFT JOIN FETCH c.items ci
+        LEFT JOIN FETCH ci.producto
+        WHERE c.user.id = :userId
+        """)
     Optional<Cart> findByUserIdWithItems(@Param("userId") Long userId);
 
     boolean existsByUserEmail(String email);
 
     void deleteByUserId(Long userId);
+
+    // Bloquea el carrito del usuario durante el checkout: un volcado de CartStore sobre él espera a que termine
+    @Query(value = "SELECT id FROM carts WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockByUserId(@Param("userId") Long userId);
+
+    // Bloquea en orden de ID los carritos de un lote antes de volcarlo (espera a un checkout en curso)
+    @Query(value = "SELECT id FROM carts WHERE id = ANY(CAST(:cartIds AS bigint[])) ORDER BY id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByIds(@Param("cartIds") Long[] cartIds);
+
+    // Marca como modificados los carritos de un lote persistido desde memoria
+    @Modifying
+    @Query(value = "UPDATE carts SET updated_at = CURRENT_TIMESTAMP WHERE id = ANY(CAST(:cartIds AS bigint[]))",
+            nativeQuery = true)
+    int touch(@Param("cartIds") Long[] cartIds);
+
+    // Carritos sin actividad desde cutoff, los más antiguos primero. SKIP LOCKED: nunca espera a un
+    // carrito que está usando un checkout o un volcado de CartStore
+    @Query(value = """
+        SELECT c.id AS id, c.user_id AS userId
+        FROM carts c
+        WHERE COALESCE(c.updated_at, c.created_at) < :cutoff
+        ORDER BY COALESCE(c.updated_at, c.created_at)
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<IdleCartRow> lockIdleCarts(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // Copia las líneas de los carritos al archivo compacto
+    @Modifying
+    @Query(value = """
+        INSERT INTO cart_items_archive (cart_id, user_id, product_id, quantity, added_at)
+        SELECT ci.cart_id, c.user_id, ci.product_id, ci.quantity, ci.added_at
+        FROM cart_items ci
+        JOIN carts c ON c.id = ci.cart_id
+        WHERE ci.cart_id = ANY(CAST(:cartIds AS bigint[]))
+        """, nativeQuery = true)
+    int archiveItems(@Param("cartIds") Long[] cartIds);
+
+    // Elimina los carritos (sus líneas se borran en cascada)
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE id = ANY(CAST(:cartIds AS bigint[]))", nativeQuery = true)
+    int deleteByIds(@Param("cartIds") Long[] cartIds);
 }
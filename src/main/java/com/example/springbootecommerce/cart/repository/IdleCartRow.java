@@ -0,0 +1,9 @@
+package com.example.springbootecommerce.cart.repository;
+
+/**
+ * Carrito inactivo seleccionado para archivar
+ */
+public interface IdleCartRow {
+    Long getId();
+    Long getUserId();
+}
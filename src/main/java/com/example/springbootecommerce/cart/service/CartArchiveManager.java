@@ -0,0 +1,82 @@
+package com.example.springbootecommerce.cart.service;
+
+import com.example.springbootecommerce.cart.dto.CartArchiveStatsDTO;
+import com.example.springbootecommerce.cart.repository.CartRepository;
+import com.example.springbootecommerce.cart.repository.IdleCartRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Archiva los carritos abandonados: copia sus líneas a cart_items_archive y elimina el carrito,
+ * por lotes cortos para que carts / cart_items no crezcan indefinidamente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartArchiveManager {
+
+    private final CartRepository cartRepository;
+    private final CartStore cartStore;
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder archivedCarts = new LongAdder();
+    private final LongAdder archivedItems = new LongAdder();
+    private volatile long lastRunCarts;
+    private volatile long lastRunItems;
+    private volatile long lastRunDurationMs;
+    private volatile LocalDateTime lastRunAt;
+
+    /**
+     * Carritos y líneas archivados en un lote
+     */
+    public record BatchResult(int carts, int items) {
+    }
+
+    /**
+     * Archiva y elimina un lote de carritos sin actividad desde cutoff. Los carritos bloqueados por otra
+     * transacción se omiten (quedan para la siguiente ejecución).
+     */
+    @Transactional
+    public BatchResult archiveIdleBatch(LocalDateTime cutoff, int batchSize) {
+        List<IdleCartRow> idle = cartRepository.lockIdleCarts(cutoff, batchSize);
+        if (idle.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+        Long[] cartIds = idle.stream().map(IdleCartRow::getId).toArray(Long[]::new);
+        int items = cartRepository.archiveItems(cartIds);
+        cartRepository.deleteByIds(cartIds);
+        cartStore.onCartsArchived(idle.stream().map(IdleCartRow::getUserId).toList());
+        return new BatchResult(idle.size(), items);
+    }
+
+    /**
+     * Registra el resultado de una ejecución completa del job
+     */
+    public void recordRun(long carts, long items, long durationMs) {
+        runs.increment();
+        archivedCarts.add(carts);
+        archivedItems.add(items);
+        lastRunCarts = carts;
+        lastRunItems = items;
+        lastRunDurationMs = durationMs;
+        lastRunAt = LocalDateTime.now();
+    }
+
+    public CartArchiveStatsDTO getStats() {
+        return CartArchiveStatsDTO.builder()
+                .runs(runs.sum())
+                .archivedCarts(archivedCarts.sum())
+                .archivedItems(archivedItems.sum())
+                .lastRunCarts(lastRunCarts)
+                .lastRunItems(lastRunItems)
+                .lastRunDurationMs(lastRunDurationMs)
+                .lastRunAt(lastRunAt)
+                .build();
+    }
+}
@@ -16,13 +16,18 @@ import java.util.stream.Collectors;
 public class CartManager {
 
     private final CartRepository cartRepository;
+    private final CartStore cartStore;
 
     /**
      * Obtiene la ENTIDAD Cart para un usuario.
      * Diseñado para ser usado por otros servicios (capa interna).
      * Lanza excepciones si el carrito no es válido para un checkout.
+     * Antes de leerlo bloquea su fila en carts hasta el fin de la transacción y persiste los cambios
+     * pendientes del carrito en memoria.
      */
     public Cart getActiveUserCart(User user) {
+        cartRepository.lockByUserId(user.getId());
+        cartStore.flush(user.getId());
         Cart cart = cartRepository.findByUserEmail(user.getEmail())
                 .orElseThrow(()-> new BusinessException("El usuario no tiene un carrito activo"));
 
@@ -45,7 +50,8 @@ public class CartManager {
      */
     public void clearUserCart(User user){
         Cart cart = getActiveUserCart(user);
-        cart.getItems().clear();
+        cart.clear();
         cartRepository.save(cart);
+        cartStore.invalidateAfterCommit(user.getId());
     }
 }
@@ -1,6 +1,8 @@
 package com.example.springbootecommerce.cart.service;
 
 import com.example.springbootecommerce.cart.dto.AddItemDTO;
+import com.example.springbootecommerce.cart.dto.CartArchiveStatsDTO;
+import com.example.springbootecommerce.cart.dto.CartBatchDTO;
 import com.example.springbootecommerce.cart.dto.CartDTO;
 import com.example.springbootecommerce.user.entity.User;
 
@@ -68,6 +70,15 @@ public interface CartService {
      */
     void clearCart(User user);
 
+    /**
+     * Aplica un lote de operaciones (agregar, actualizar, eliminar) de forma atómica:
+     * si alguna no es válida no se aplica ninguna.
+     * @param userId ID del usuario
+     * @param batchDTO Operaciones en el orden en que se aplican
+     * @return Carrito actualizado en formato DTO
+     */
+    CartDTO applyBatch(Long userId, CartBatchDTO batchDTO);
+
     // ========================================================================
     // MÉTODOS DE VALIDACIÓN
     // ========================================================================
@@ -86,4 +97,10 @@ public interface CartService {
      */
     CartDTO getCartWithStockValidation(Long userId);
 
+    /**
+     * Métricas del job de archivado de carritos abandonados.
+     * @return Carritos y líneas archivados en total y en la última ejecución
+     */
+    CartArchiveStatsDTO getArchiveStats();
+
 }
@@ -0,0 +1,492 @@
+package com.example.springbootecommerce.cart.service;
+
+import com.example.springbootecommerce.cart.entity.Cart;
+import com.example.springbootecommerce.cart.repository.CartItemRepository;
+import com.example.springbootecommerce.cart.repository.CartRepository;
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Carritos en memoria por usuario con escritura diferida. Las lecturas y mutaciones del carrito se
+ * sirven desde aquí; los carritos modificados se persisten por lotes en carts / cart_items (ver
+ * CartStoreFlushTask), y antes del checkout se fuerza la escritura del carrito del usuario.
+ * Las mutaciones pasan por update, que las ejecuta con el carrito fijado en la caché: así un carrito
+ * nunca se modifica después de expulsado. Los carritos inactivos se expulsan; si tenían cambios
+ * pendientes quedan en cola hasta el siguiente volcado. Supone que las peticiones de un usuario llegan
+ * a la misma instancia (afinidad de sesión).
+ */
+@Slf4j
+@Component
+public class CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate flushTransaction;
+    private final Cache<Long, CartState> carts;
+    // Carritos expulsados con cambios sin persistir; se recuperan si el usuario vuelve antes del volcado
+    private final Map<Long, CartState> pendingFlush = new ConcurrentHashMap<>();
+
+    @Value("${app.cart.store.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    public CartStore(CartRepository cartRepository,
+                     CartItemRepository cartItemRepository,
+                     UserRepository userRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${app.cart.store.max-size:50000}") long maxSize,
+                     @Value("${app.cart.store.idle-minutes:30}") long idleMinutes) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.userRepository = userRepository;
+        // REQUIRED: el volcado forzado del checkout se une a la transacción de la orden (misma conexión),
+        // y la lectura posterior del carrito en esa transacción ya ve las filas escritas
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.carts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleMinutes))
+                .<Long, CartState>evictionListener((userId, cart, cause) -> {
+                    if (userId != null && cart != null && cart.isDirty()) {
+                        pendingFlush.put(userId, cart);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Línea del carrito. El ID se reserva de la secuencia de cart_items al agregar el producto,
+     * de modo que es estable antes y después de persistirse.
+     */
+    public record Line(Long itemId, Long productId, int quantity, LocalDateTime addedAt) {
+    }
+
+    /**
+     * Estado en memoria del carrito de un usuario; version cuenta las mutaciones y flushedVersion
+     * la última persistida
+     */
+    public static final class CartState {
+        private final Long userId;
+        private final String userEmail;
+        private Long cartId;
+        private final Map<Long, Line> linesByProductId = new LinkedHashMap<>();
+        private LocalDateTime updatedAt;
+        private long version;
+        private long flushedVersion;
+        private boolean closed;
+
+        CartState(Long userId, String userEmail, Long cartId, LocalDateTime updatedAt) {
+            this.userId = userId;
+            this.userEmail = userEmail;
+            this.cartId = cartId;
+            this.updatedAt = updatedAt;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getUserEmail() {
+            return userEmail;
+        }
+
+        public synchronized Long getCartId() {
+            return cartId;
+        }
+
+        public synchronized LocalDateTime getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public synchronized List<Line> getLines() {
+            return List.copyOf(linesByProductId.values());
+        }
+
+        public synchronized Line findByProductId(Long productId) {
+            return linesByProductId.get(productId);
+        }
+
+        public synchronized Line findByItemId(Long itemId) {
+            return linesByProductId.values().stream()
+                    .filter(line -> line.itemId().equals(itemId))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * Suma quantity al producto; si no estaba en el carrito crea la línea con un ID nuevo
+         */
+        public synchronized Line addQuantity(Long productId, int quantity, LongSupplier newItemId) {
+            Line current = linesByProductId.get(productId);
+            Line line = current != null
+                    ? new Line(current.itemId(), productId, current.quantity() + quantity, current.addedAt())
+                    : new Line(newItemId.getAsLong(), productId, quantity, LocalDateTime.now());
+            linesByProductId.put(productId, line);
+            touch();
+            return line;
+        }
+
+        public synchronized boolean setQuantity(Long itemId, int quantity) {
+            Line line = findByItemId(itemId);
+            if (line == null) {
+                return false;
+            }
+            linesByProductId.put(line.productId(), new Line(line.itemId(), line.productId(), quantity, line.addedAt()));
+            touch();
+            return true;
+        }
+
+        public synchronized boolean removeItem(Long itemId) {
+            Line line = findByItemId(itemId);
+            if (line == null) {
+                return false;
+            }
+            linesByProductId.remove(line.productId());
+            touch();
+            return true;
+        }
+
+        public synchronized void removeProduct(Long productId) {
+            if (linesByProductId.remove(productId) != null) {
+                touch();
+            }
+        }
+
+        /**
+         * Reemplaza el contenido del carrito por quantitiesByProductId en una sola mutación: conserva el ID
+         * de las líneas existentes, crea las nuevas y quita los productos que no aparecen
+         */
+        public synchronized void replaceLines(Map<Long, Integer> quantitiesByProductId, LongSupplier newItemId) {
+            Map<Long, Line> lines = new LinkedHashMap<>();
+            quantitiesByProductId.forEach((productId, quantity) -> {
+                Line current = linesByProductId.get(productId);
+                lines.put(productId, current != null
+                        ? new Line(current.itemId(), productId, quantity, current.addedAt())
+                        : new Line(newItemId.getAsLong(), productId, quantity, LocalDateTime.now()));
+            });
+            linesByProductId.clear();
+            linesByProductId.putAll(lines);
+            touch();
+        }
+
+        public synchronized void clear() {
+            if (!linesByProductId.isEmpty()) {
+                linesByProductId.clear();
+                touch();
+            }
+        }
+
+        /**
+         * El carrito se eliminó de la base de datos (archivado): se marca como modificado y sin registro en
+         * carts para que el siguiente volcado lo vuelva a crear con las líneas en memoria
+         */
+        synchronized void detach() {
+            cartId = null;
+            touch();
+        }
+
+        synchronized boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        /**
+         * Un checkout vació el carrito en la base de datos: sus líneas en memoria ya no deben persistirse
+         */
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        synchronized void setClosed(boolean closed) {
+            this.closed = closed;
+        }
+
+        synchronized Snapshot snapshot() {
+            return new Snapshot(this, cartId, version, List.copyOf(linesByProductId.values()));
+        }
+
+        synchronized void markFlushed(Long persistedCartId, long persistedVersion) {
+            cartId = persistedCartId;
+            flushedVersion = Math.max(flushedVersion, persistedVersion);
+        }
+
+        private void touch() {
+            version++;
+            updatedAt = LocalDateTime.now();
+        }
+    }
+
+    private record Snapshot(CartState state, Long cartId, long version, List<Line> lines) {
+    }
+
+    /**
+     * Carrito del usuario para lectura; lo carga de la base de datos (una consulta con items) si no está
+     * en memoria. Para modificarlo se usa update.
+     */
+    public CartState get(Long userId) {
+        return carts.get(userId, this::load);
+    }
+
+    /**
+     * Ejecuta mutation sobre el carrito del usuario de forma atómica con su expulsión de la caché (mismo
+     * lock que usa Caffeine al expulsar): si el carrito sale después, ya está modificado y queda en cola
+     * para el volcado. Si mutation lanza una excepción el carrito no cambia de lugar.
+     *
+     * @return Resultado de mutation
+     */
+    public <T> T update(Long userId, Function<CartState, T> mutation) {
+        List<T> result = new ArrayList<>(1);
+        carts.asMap().compute(userId, (id, current) -> {
+            CartState target = current != null ? current : load(id);
+            try {
+                result.add(mutation.apply(target));
+            } catch (RuntimeException e) {
+                // El carrito recién recuperado no entra en la caché: si tenía cambios vuelve a la cola
+                if (current == null && target.isDirty()) {
+                    pendingFlush.put(id, target);
+                }
+                throw e;
+            }
+            return target;
+        });
+        return result.get(0);
+    }
+
+    /**
+     * Persiste ya el carrito del usuario si tiene cambios pendientes (antes del checkout)
+     */
+    public void flush(Long userId) {
+        CartState state = carts.getIfPresent(userId);
+        if (state == null) {
+            state = pendingFlush.get(userId);
+        }
+        if (state != null && state.isDirty()) {
+            flushBatch(List.of(state));
+        }
+    }
+
+    /**
+     * Persiste por lotes todos los carritos con cambios
+     *
+     * @return Número de carritos persistidos
+     */
+    public int flushDirty() {
+        List<CartState> dirty = Stream.concat(carts.asMap().values().stream(), pendingFlush.values().stream())
+                .distinct()
+                .filter(CartState::isDirty)
+                .toList();
+        int flushed = 0;
+        for (int from = 0; from < dirty.size(); from += flushBatchSize) {
+            List<CartState> batch = dirty.subList(from, Math.min(from + flushBatchSize, dirty.size()));
+            try {
+                flushBatch(batch);
+                flushed += batch.size();
+            } catch (RuntimeException e) {
+                // Siguen marcados como modificados: se reintentan en el siguiente volcado
+                log.error("Error persistiendo {} carritos: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+        pendingFlush.values().removeIf(state -> !state.isDirty());
+        return flushed;
+    }
+
+    /**
+     * Descarta el carrito en memoria al confirmar la transacción (el checkout lo vació en la base de datos).
+     * Hasta entonces queda cerrado: un volcado que espera el bloqueo del checkout sobre carts no vuelve a
+     * insertar las líneas compradas. Si la transacción se revierte el carrito se reabre.
+     */
+    public void invalidateAfterCommit(Long userId) {
+        CartState cached = carts.getIfPresent(userId);
+        CartState state = cached != null ? cached : pendingFlush.get(userId);
+        if (state != null) {
+            state.setClosed(true);
+        }
+        Runnable invalidation = () -> {
+            carts.invalidate(userId);
+            pendingFlush.remove(userId);
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    invalidation.run();
+                } else if (state != null) {
+                    state.setClosed(false);
+                }
+            }
+        });
+    }
+
+    /**
+     * Carritos archivados: los que siguen en memoria (usuario activo) se vuelven a persistir tras el commit
+     */
+    public void onCartsArchived(Collection<Long> userIds) {
+        List<Long> archived = List.copyOf(userIds);
+        Runnable detach = () -> archived.forEach(userId -> {
+            CartState cached = carts.asMap().computeIfPresent(userId, (id, state) -> {
+                state.detach();
+                return state;
+            });
+            if (cached == null) {
+                CartState pending = pendingFlush.get(userId);
+                if (pending != null) {
+                    pending.detach();
+                }
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            detach.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                detach.run();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flushDirty();
+        if (flushed > 0) {
+            log.info("Carritos persistidos al detener la aplicación: {}", flushed);
+        }
+    }
+
+    private CartState load(Long userId) {
+        CartState pending = pendingFlush.remove(userId);
+        if (pending != null) {
+            return pending;
+        }
+        return cartRepository.findByUserIdWithItems(userId)
+                .map(this::toState)
+                .orElseGet(() -> {
+                    User user = userRepository.findById(userId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
+                    // El registro en carts se crea en el primer volcado
+                    return new CartState(userId, user.getEmail(), null, null);
+                });
+    }
+
+    private CartState toState(Cart cart) {
+        CartState state = new CartState(cart.getUser().getId(), cart.getUser().getEmail(),
+                cart.getId(), cart.getUpdatedAt());
+        cart.getItems().forEach(item -> state.linesByProductId.put(item.getProducto().getId(),
+                new Line(item.getId(), item.getProducto().getId(), item.getQuantity(), item.getAddedAt())));
+        return state;
+    }
+
+    /**
+     * Persiste un lote de carritos en una transacción: crea los carritos nuevos, borra las líneas que ya no
+     * están en memoria e inserta o actualiza el resto, con una sentencia por operación para todo el lote
+     */
+    private void flushBatch(List<CartState> batch) {
+        List<Snapshot> snapshots = batch.stream().map(CartState::snapshot).toList();
+        List<Long> cartIds = flushTransaction.execute(status -> persist(snapshots));
+        Runnable markFlushed = () -> {
+            for (int i = 0; i < snapshots.size(); i++) {
+                Snapshot snapshot = snapshots.get(i);
+                if (cartIds.get(i) != null) {
+                    snapshot.state().markFlushed(cartIds.get(i), snapshot.version());
+                }
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markFlushed.run();
+            return;
+        }
+        // Dentro de la transacción del llamador: los carritos solo quedan persistidos si esta confirma;
+        // si se revierte siguen marcados como modificados y los recoge el siguiente volcado
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markFlushed.run();
+            }
+        });
+    }
+
+    /**
+     * Bloquea los carritos existentes del lote y descarta los que un checkout cerró mientras tanto: su
+     * snapshot puede ser anterior al checkout, que ya borró las líneas compradas.
+     *
+     * @return ID del carrito de cada snapshot, o null si se descartó
+     */
+    private List<Long> persist(List<Snapshot> snapshots) {
+        Long[] existingCartIds = snapshots.stream()
+                .map(Snapshot::cartId)
+                .filter(Objects::nonNull)
+                .toArray(Long[]::new);
+        if (existingCartIds.length > 0) {
+            cartRepository.lockByIds(existingCartIds);
+        }
+
+        List<Long> cartIds = new ArrayList<>(snapshots.size());
+        List<Long> persistedCartIds = new ArrayList<>();
+        List<Long> itemIds = new ArrayList<>();
+        List<Long> itemCartIds = new ArrayList<>();
+        List<Long> productIds = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        List<LocalDateTime> addedAts = new ArrayList<>();
+
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.state().isClosed()) {
+                cartIds.add(null);
+                continue;
+            }
+            Long cartId = snapshot.cartId();
+            if (cartId == null) {
+                Cart cart = Cart.builder().user(userRepository.getReferenceById(snapshot.state().getUserId())).build();
+                cartId = cartRepository.save(cart).getId();
+            }
+            cartIds.add(cartId);
+            persistedCartIds.add(cartId);
+            for (Line line : snapshot.lines()) {
+                itemIds.add(line.itemId());
+                itemCartIds.add(cartId);
+                productIds.add(line.productId());
+                quantities.add(line.quantity());
+                addedAts.add(line.addedAt());
+            }
+        }
+
+        if (persistedCartIds.isEmpty()) {
+            return cartIds;
+        }
+        Long[] batchCartIds = persistedCartIds.toArray(Long[]::new);
+        cartItemRepository.deleteLinesNotIn(batchCartIds, itemIds.toArray(Long[]::new));
+        if (!itemIds.isEmpty()) {
+            cartItemRepository.upsertLines(itemIds.toArray(Long[]::new), itemCartIds.toArray(Long[]::new),
+                    productIds.toArray(Long[]::new), quantities.toArray(Integer[]::new),
+                    addedAts.toArray(LocalDateTime[]::new));
+        }
+        cartRepository.touch(batchCartIds);
+        return cartIds;
+    }
+}
@@ -1,35 +1,56 @@
 package com.example.springbootecommerce.cart.service.impl;
 
 import com.example.springbootecommerce.cart.dto.AddItemDTO;
+import com.example.springbootecommerce.cart.dto.CartArchiveStatsDTO;
+import com.example.springbootecommerce.cart.dto.CartBatchDTO;
 import com.example.springbootecommerce.cart.dto.CartDTO;
-import com.example.springbootecommerce.cart.entity.Cart;
-import com.example.springbootecommerce.cart.entity.CartItem;
+import com.example.springbootecommerce.cart.dto.CartItemDTO;
+import com.example.springbootecommerce.cart.dto.CartOperationDTO;
+import com.example.springbootecommerce.cart.mapper.CartItemMapper;
 import com.example.springbootecommerce.cart.mapper.CartMapper;
 import com.example.springbootecommerce.cart.repository.CartItemRepository;
-import com.example.springbootecommerce.cart.repository.CartRepository;
+import com.example.springbootecommerce.cart.service.CartArchiveManager;
 import com.example.springbootecommerce.cart.service.CartService;
+import com.example.springbootecommerce.cart.service.CartStore;
+import com.example.springbootecommerce.product.dto.ProductoDTO;
 import com.example.springbootecommerce.product.entity.Producto;
 import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.service.ProductoService;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
 import com.example.springbootecommerce.user.entity.User;
-import com.example.springbootecommerce.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Operaciones del carrito sobre CartStore: se leen y modifican en memoria y se persisten por lotes.
+ * Cada modificación (con su validación) se ejecuta dentro de CartStore.update, que la serializa con las
+ * demás del mismo carrito.
+ * Precio, stock y disponibilidad se revalidan en cada lectura contra la caché de productos.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
 public class CartServiceImpl implements CartService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
+    private final CartArchiveManager cartArchiveManager;
     private final CartItemRepository cartItemRepository;
+    private final ProductoService productoService;
     private final ProductoRepository productoRepository;
-    private final UserRepository userRepository;
     private final CartMapper cartMapper;
+    private final CartItemMapper cartItemMapper;
 
     // ========================================================================
     // OPERACIONES DE CONSULTA
@@ -38,9 +59,7 @@ public class CartServiceImpl implements CartService {
     @Override
     public CartDTO getCartForUser(Long userId) {
         log.debug("Obteniendo carrito de usuario con ID: {}", userId);
-
-        Cart cart =findOrCreateCart(userId);
-        return cartMapper.toCartDTO(cart);
+        return toCartDTO(cartStore.get(userId));
     }
 
     @Override
@@ -54,135 +73,249 @@ public class CartServiceImpl implements CartService {
     // ========================================================================
 
     @Override
-    @Transactional
     public CartDTO addItem(Long userId, AddItemDTO addItemDTO) {
         log.info("Agregando item al carrito - Usuario: {}, Producto:{}, Cantidad:{}", userId, addItemDTO.getProductId(), addItemDTO.getQuantity());
 
-        Producto producto = productoRepository.findById(addItemDTO.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + addItemDTO.getProductId()));
-
+        ProductoDTO producto = productoService.getProductById(addItemDTO.getProductId());
         if (!Boolean.TRUE.equals(producto.getIsActive())) {
             throw new BusinessException("El producto no está disponible");
         }
 
-        Cart cart = findOrCreateCart(userId);
-
-        // Unificar la lógica de validación de stock
-        int quantityToAdd = addItemDTO.getQuantity();
-        // Busca en el carrito si existe el producto
-        CartItem existingItem = cart.findItemByProductId(addItemDTO.getProductId());
-        int currentQuantity = (existingItem != null) ? existingItem.getQuantity() : 0;
-        int newTotalQuantity = currentQuantity + quantityToAdd;
-
-        if (!producto.hasStock(newTotalQuantity)) {
-            throw new BusinessException("Stock insuficiente. Disponible: " + producto.getStockQuantity() + ", solicitado: " + newTotalQuantity);
-        }
-
-        // Usar la función de la entidad Cart para agregar o actualizar
-        CartItem itemToAdd = new CartItem(cart, producto, quantityToAdd);
-        cart.addItem(itemToAdd);
+        CartStore.CartState cart = cartStore.update(userId, state -> {
+            CartStore.Line existingItem = state.findByProductId(producto.getId());
+            int currentQuantity = (existingItem != null) ? existingItem.quantity() : 0;
+            int newTotalQuantity = currentQuantity + addItemDTO.getQuantity();
 
-        // Guardar el carrito (los items se guardarán por cascada)
-        cartRepository.save(cart);
+            if (!hasStock(producto, newTotalQuantity)) {
+                throw new BusinessException("Stock insuficiente. Disponible: " + producto.getStockQuantity() + ", solicitado: " + newTotalQuantity);
+            }
+            state.addQuantity(producto.getId(), addItemDTO.getQuantity(), cartItemRepository::nextId);
+            return state;
+        });
 
         log.info("Item agregado/actualizado exitosamente en el carrito del usuario {}", userId);
-        return cartMapper.toCartDTO(cart);
+        return toCartDTO(cart);
     }
 
     @Override
-    @Transactional
     public CartDTO updateItemQuantity(Long userId, Long itemId, Integer quantity) {
         log.info("Actualizando cantidad de item - Usuario: {}, Item: {}, Nueva cantidad: {}", userId, itemId, quantity);
 
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(()-> new ResourceNotFoundException("Item no encontrado"));
-
-        if (!item.getCart().getUser().getId().equals(userId)){
-            throw new BusinessException("El item no pertenece al usuario con ID: " + userId);
-        }
-
-        Producto producto = item.getProducto();
-        if (!producto.hasStock(quantity)){
-            throw new BusinessException("Stock insuficiente. Disponible: " + producto.getStockQuantity());
-        }
+        // Búsqueda, validación y escritura en la misma actualización atómica que addItem y applyBatch
+        CartStore.CartState cart = cartStore.update(userId, state -> {
+            CartStore.Line item = state.findByItemId(itemId);
+            if (item == null) {
+                throw new ResourceNotFoundException("Item no encontrado");
+            }
+
+            ProductoDTO producto = productoService.getProductById(item.productId());
+            if (!hasStock(producto, quantity)) {
+                throw new BusinessException("Stock insuficiente. Disponible: " + producto.getStockQuantity());
+            }
+
+            if (quantity <= 0) {
+                state.removeItem(itemId);
+            } else {
+                state.setQuantity(itemId, quantity);
+            }
+            return state;
+        });
 
-        item.setQuantity(quantity);
-        cartItemRepository.save(item);
-
-        Cart cart = item.getCart();
         log.info("Cantidad actualizada exitosamente del carrito");
-        return cartMapper.toCartDTO(cart);
+        return toCartDTO(cart);
     }
 
     @Override
-    @Transactional
     public CartDTO removeItem(Long userId, Long itemId) {
         log.info("Eliminando item del carrito - Usuario: {}, Item: {}", userId, itemId);
 
-        CartItem item = cartItemRepository.findById(itemId)
-                .orElseThrow(()-> new ResourceNotFoundException("Item no encontrado"));
-
-        if (!item.getCart().getUser().getId().equals(userId)){
-            throw new BusinessException("El item no pertenece al usuario con ID: " + userId);
-        }
-
-        Cart cart = item.getCart();
-        cart.removeItem(item);
-        cartItemRepository.delete(item);
+        CartStore.CartState cart = cartStore.update(userId, state -> {
+            if (!state.removeItem(itemId)) {
+                throw new ResourceNotFoundException("Item no encontrado");
+            }
+            return state;
+        });
 
         log.info("Item eliminado exitosamente del carrito");
-        return cartMapper.toCartDTO(cart);
+        return toCartDTO(cart);
     }
 
     @Override
     public void clearCart(Long userId) {
         log.info("Limpiando carrito - Usuario: {}", userId);
 
-        Cart cart = cartRepository.findByUserIdWithItems(userId)
-                .orElseThrow(()-> new ResourceNotFoundException("Carrito no encontrado"));
-
-        cart.clear();
-        cartItemRepository.deleteByCartId(cart.getId());
-        cartRepository.save(cart);
+        cartStore.update(userId, state -> {
+            state.clear();
+            return state;
+        });
 
         log.info("Carrito limpiado exitosamente");
     }
 
     @Override
-    @Transactional
     public void clearCart(User user) {
         clearCart(user.getId());
     }
 
+    @Override
+    public CartDTO applyBatch(Long userId, CartBatchDTO batchDTO) {
+        List<CartOperationDTO> operations = batchDTO.getOperations();
+        log.info("Aplicando lote de operaciones al carrito - Usuario: {}, Operaciones: {}", userId, operations.size());
+
+        CartStore.CartState cart = cartStore.update(userId, state -> {
+            // Cantidades finales por producto: se calculan y validan completas antes de tocar el carrito
+            Map<Long, Integer> current = new LinkedHashMap<>();
+            state.getLines().forEach(line -> current.put(line.productId(), line.quantity()));
+            Map<Long, Integer> quantities = new LinkedHashMap<>(current);
+            Set<Long> added = new HashSet<>();
+
+            for (int i = 0; i < operations.size(); i++) {
+                CartOperationDTO operation = operations.get(i);
+                Long productId = resolveProductId(state, operation, i + 1);
+                switch (operation.getType()) {
+                    case ADD -> {
+                        quantities.merge(productId, requireQuantity(operation, i + 1), Integer::sum);
+                        added.add(productId);
+                    }
+                    case UPDATE -> {
+                        if (!quantities.containsKey(productId)) {
+                            throw new ResourceNotFoundException("Operación " + (i + 1) + ": item no encontrado");
+                        }
+                        quantities.put(productId, requireQuantity(operation, i + 1));
+                    }
+                    case REMOVE -> {
+                        if (quantities.remove(productId) == null) {
+                            throw new ResourceNotFoundException("Operación " + (i + 1) + ": item no encontrado");
+                        }
+                    }
+                }
+            }
+
+            validateBatch(quantities, current, added);
+
+            int newLines = (int) quantities.keySet().stream().filter(id -> !current.containsKey(id)).count();
+            Iterator<Long> newItemIds = newLines > 0 ? cartItemRepository.nextIds(newLines).iterator() : null;
+            state.replaceLines(quantities, () -> newItemIds.next());
+            return state;
+        });
+
+        log.info("Lote de operaciones aplicado exitosamente en el carrito del usuario {}", userId);
+        return toCartDTO(cart);
+    }
+
     @Override
     public boolean validateCartStock(Long userId) {
-        Cart cart = cartRepository.findByUserIdWithItems(userId).orElse(null);
-        if (cart == null || cart.isEmpty()){
-            return true;
+        CartStore.CartState cart = cartStore.get(userId);
+        for (CartStore.Line line : cart.getLines()) {
+            ProductoDTO producto = findProducto(cart, line);
+            if (producto != null && !hasStock(producto, line.quantity())) {
+                return false;
+            }
         }
-        return cart.validateStock();
+        return true;
     }
 
     @Override
     public CartDTO getCartWithStockValidation(Long userId) {
-        Cart cart = findOrCreateCart(userId);
-        return cartMapper.toCartDTO(cart);
+        return getCartForUser(userId);
+    }
+
+    @Override
+    public CartArchiveStatsDTO getArchiveStats() {
+        return cartArchiveManager.getStats();
     }
 
     // ========================================================================
     // MÉTODOS PRIVADOS
     // ========================================================================
-    private Cart findOrCreateCart(Long userId){
-        return cartRepository.findByUserIdWithItems(userId)
-                .orElseGet(()-> createCartForUser(userId));
+
+    /**
+     * Arma el DTO con precio y stock vigentes de cada producto
+     */
+    private CartDTO toCartDTO(CartStore.CartState cart) {
+        List<CartItemDTO> items = new ArrayList<>();
+        for (CartStore.Line line : cart.getLines()) {
+            ProductoDTO producto = findProducto(cart, line);
+            if (producto != null) {
+                items.add(cartItemMapper.toItemDTO(line, producto));
+            }
+        }
+        return cartMapper.toCartDTO(cart, items);
+    }
+
+    /**
+     * Producto de la línea desde la caché; si ya no existe, la línea se quita del carrito
+     */
+    private ProductoDTO findProducto(CartStore.CartState cart, CartStore.Line line) {
+        try {
+            return productoService.getProductById(line.productId());
+        } catch (ResourceNotFoundException e) {
+            log.warn("Producto {} eliminado; se quita del carrito del usuario {}", line.productId(), cart.getUserId());
+            cartStore.update(cart.getUserId(), state -> {
+                state.removeProduct(line.productId());
+                return state;
+            });
+            return null;
+        }
+    }
+
+    /**
+     * Producto al que apunta la operación: ADD usa productId; UPDATE y REMOVE, itemId o productId
+     */
+    private Long resolveProductId(CartStore.CartState cart, CartOperationDTO operation, int position) {
+        if (operation.getType() != CartOperationDTO.Type.ADD && operation.getItemId() != null) {
+            CartStore.Line line = cart.findByItemId(operation.getItemId());
+            if (line == null) {
+                throw new ResourceNotFoundException("Operación " + position + ": item no encontrado");
+            }
+            return line.productId();
+        }
+        if (operation.getProductId() == null) {
+            throw new BusinessException("Operación " + position + ": el producto es obligatorio");
+        }
+        return operation.getProductId();
+    }
+
+    private int requireQuantity(CartOperationDTO operation, int position) {
+        if (operation.getQuantity() == null) {
+            throw new BusinessException("Operación " + position + ": la cantidad es obligatoria");
+        }
+        return operation.getQuantity();
     }
 
-    private Cart createCartForUser(Long userId){
-        log.debug("Creando carrito para usuario con ID: {}", userId);
+    /**
+     * Valida en una sola consulta los productos cuya cantidad cambia: que existan, que los agregados
+     * estén activos y que haya stock para la cantidad final
+     */
+    private void validateBatch(Map<Long, Integer> quantities, Map<Long, Integer> current, Set<Long> added) {
+        Set<Long> changed = quantities.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(current.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        changed.addAll(added);
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Producto> productos = productoRepository.findAllById(changed).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        for (Long productId : changed) {
+            Producto producto = productos.get(productId);
+            if (producto == null) {
+                throw new ResourceNotFoundException("Producto no encontrado con ID: " + productId);
+            }
+            if (added.contains(productId) && !Boolean.TRUE.equals(producto.getIsActive())) {
+                throw new BusinessException("El producto no está disponible: " + producto.getName());
+            }
+            Integer quantity = quantities.get(productId);
+            if (quantity != null && !producto.hasStock(quantity)) {
+                throw new BusinessException("Stock insuficiente para " + producto.getName()
+                        + ". Disponible: " + producto.getStockQuantity() + ", solicitado: " + quantity);
+            }
+        }
+    }
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(()-> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
-        Cart cart = Cart.builder().user(user).build();
-        return cartRepository.save(cart);
+    private boolean hasStock(ProductoDTO producto, int quantity) {
+        return producto.getStockQuantity() != null && producto.getStockQuantity() >= quantity;
     }
 }
@@ -0,0 +1,63 @@
+package com.example.springbootecommerce.cart.task;
+
+import com.example.springbootecommerce.cart.service.CartArchiveManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AbandonedCartArchiveTask {
+
+    private final CartArchiveManager cartArchiveManager;
+
+    @Value("${app.cart.archive.idle-days:30}")
+    private long idleDays;
+
+    @Value("${app.cart.archive.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.cart.archive.max-batches-per-run:50}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.cart.archive.pause-ms:200}")
+    private long pauseMs;
+
+    /**
+     * Archiva los carritos sin cambios durante idle-days. Lotes cortos con pausa entre ellos y un máximo
+     * por ejecución, para no competir con los checkouts por conexiones ni por E/S
+     */
+    @Scheduled(fixedDelayString = "${app.cart.archive.interval-ms:3600000}",
+            initialDelayString = "${app.cart.archive.initial-delay-ms:300000}")
+    public void archiveIdleCarts() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(idleDays);
+        long start = System.nanoTime();
+        long carts = 0;
+        long items = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                CartArchiveManager.BatchResult result = cartArchiveManager.archiveIdleBatch(cutoff, batchSize);
+                carts += result.carts();
+                items += result.items();
+                if (result.carts() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.error("Error archivando carritos abandonados: {}", e.getMessage(), e);
+        }
+        cartArchiveManager.recordRun(carts, items, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (carts > 0) {
+            log.info("Archivado de carritos abandonados finalizado. Carritos: {}, líneas: {}", carts, items);
+        }
+    }
+}
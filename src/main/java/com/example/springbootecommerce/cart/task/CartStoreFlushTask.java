@@ -0,0 +1,26 @@
+package com.example.springbootecommerce.cart.task;
+
+import com.example.springbootecommerce.cart.service.CartStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartStoreFlushTask {
+
+    private final CartStore cartStore;
+
+    /**
+     * Persiste por lotes los carritos modificados en memoria
+     */
+    @Scheduled(fixedDelayString = "${app.cart.store.flush-interval-ms:2000}")
+    public void flush() {
+        int flushed = cartStore.flushDirty();
+        if (flushed > 0) {
+            log.debug("Carritos persistidos desde memoria: {}", flushed);
+        }
+    }
+}
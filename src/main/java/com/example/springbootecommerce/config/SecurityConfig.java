@@ -123,12 +123,14 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/products").permitAll() // Listar productos
                         .requestMatchers("/api/v1/products/{id}").permitAll() // Ver producto específico
                         .requestMatchers("/api/v1/products/search").permitAll() // Buscar productos
+                        .requestMatchers("/api/v1/products/scroll").permitAll() // Listar productos por cursor
                         .requestMatchers("/api/v1/products/categoria/**").permitAll() // Por categoría
                         .requestMatchers("/api/v1/products/admin/**").hasRole("ADMIN") // Gestión de productos
 
                         // Endpoints de categorías - acceso mixto
                         .requestMatchers("/api/v1/categories").permitAll() // Listar categorías
                         .requestMatchers("/api/v1/categories/{id}").permitAll() // Ver categoría
+                        .requestMatchers("/api/v1/categories/{id}/breadcrumb").permitAll() // Ruta de la categoría
                         .requestMatchers("/api/v1/categories/admin/**").hasRole("ADMIN") // Gestión
 
                         // Endpoints de carrito de compras - requieren autenticación
@@ -298,8 +300,10 @@ public class SecurityConfig {
             "/api/v1/products",
             "/api/v1/products/{id}",
             "/api/v1/products/search",
+            "/api/v1/products/scroll",
             "/api/v1/categories",
             "/api/v1/categories/{id}",
+            "/api/v1/categories/{id}/breadcrumb",
             "/api/v1/reviews/product/**"
     };
 
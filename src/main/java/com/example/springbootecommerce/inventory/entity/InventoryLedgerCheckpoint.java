@@ -0,0 +1,29 @@
+package com.example.springbootecommerce.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "inventory_ledger_checkpoint")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryLedgerCheckpoint {
+
+    public static final short SINGLETON_ID = 1;
+
+    @Id
+    private Short id;
+
+    @Column(name = "last_segment", nullable = false)
+    private Long lastSegment;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
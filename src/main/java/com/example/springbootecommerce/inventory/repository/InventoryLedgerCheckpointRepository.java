@@ -0,0 +1,21 @@
+package com.example.springbootecommerce.inventory.repository;
+
+import com.example.springbootecommerce.inventory.entity.InventoryLedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryLedgerCheckpointRepository extends JpaRepository<InventoryLedgerCheckpoint, Short> {
+
+    // Avanza el checkpoint en la misma transacción que aplica los deltas a products
+    @Modifying
+    @Query("""
+        UPDATE InventoryLedgerCheckpoint c
+        SET c.lastSegment = :segment, c.updatedAt = CURRENT_TIMESTAMP
+        WHERE c.id = 1 AND c.lastSegment < :segment
+        """)
+    int advanceTo(@Param("segment") long segment);
+}
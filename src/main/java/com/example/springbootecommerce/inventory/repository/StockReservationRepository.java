@@ -0,0 +1,35 @@
+package com.example.springbootecommerce.inventory.repository;
+
+import com.example.springbootecommerce.inventory.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Lote de reservas expiradas recorriendo idx_stock_reservations_expires_at.
+    // SKIP LOCKED permite varias instancias barriendo en paralelo sin procesar la misma fila
+    @Query(value = """
+        SELECT * FROM stock_reservations
+        WHERE expires_at < :now
+        ORDER BY expires_at
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<StockReservation> lockExpired(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,235 @@
+package com.example.springbootecommerce.inventory.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Journal en disco de los movimientos del ledger de inventario.
+ * Cada movimiento se registra como una línea "productId,delta" en el segmento activo;
+ * al hacer flush se rota el segmento y los segmentos ya aplicados en la base de datos se eliminan.
+ * Permite recuperar las reservas que no alcanzaron a escribirse en products tras una caída.
+ * Las escrituras solo se serializan entre sí; el fsync se agrupa (group commit): un único force
+ * cubre todo lo escrito hasta ese momento, y los hilos que esperaban por él no repiten el suyo.
+ */
+@Slf4j
+@Component
+public class InventoryJournal {
+
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    @Value("${app.inventory.ledger.journal-dir:./data/inventory-journal}")
+    private String journalDir;
+
+    @Value("${app.inventory.ledger.journal-sync:true}")
+    private boolean syncOnWrite;
+
+    private FileChannel channel;
+    private long currentSegment;
+
+    // Lotes escritos en el canal y lotes ya persistidos con force
+    private long written;
+    private volatile long synced;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final LongAdder forces = new LongAdder();
+
+    /**
+     * Abre (o crea) el segmento indicado como segmento activo
+     */
+    public synchronized void open(long segment) {
+        try {
+            Files.createDirectories(directory());
+            channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            currentSegment = segment;
+            log.info("Journal de inventario abierto en el segmento {}", segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el journal de inventario", e);
+        }
+    }
+
+    /**
+     * Registra un movimiento de stock en el segmento activo
+     */
+    public void append(long productId, int delta) {
+        append(Map.of(productId, delta));
+    }
+
+    /**
+     * Registra los movimientos de una operación con una sola escritura y, si journal-sync está activo,
+     * espera a que estén en disco
+     */
+    public void append(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        deltas.forEach((productId, delta) -> lines.append(productId).append(',').append(delta).append('\n'));
+        long batch = write(lines.toString().getBytes(StandardCharsets.US_ASCII));
+        if (syncOnWrite) {
+            awaitSync(batch);
+        }
+    }
+
+    /**
+     * Número de fsync realizados (menor que el de escrituras cuando hay concurrencia)
+     */
+    public long getForceCount() {
+        return forces.sum();
+    }
+
+    private synchronized long write(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return ++written;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el journal de inventario", e);
+        }
+    }
+
+    /**
+     * Espera a que el lote esté en disco. Un solo hilo hace force a la vez y ese force cubre todos los
+     * lotes escritos antes de empezar; los que esperaban en el lock y ya quedaron cubiertos no lo repiten.
+     */
+    private void awaitSync(long batch) {
+        if (synced >= batch) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced >= batch) {
+                return;
+            }
+            FileChannel target;
+            long covered;
+            synchronized (this) {
+                target = channel;
+                covered = written;
+            }
+            target.force(false);
+            forces.increment();
+            synced = covered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo sincronizar el journal de inventario", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el segmento activo y abre el siguiente.
+     *
+     * @return ID del segmento cerrado
+     */
+    public synchronized long rotate() {
+        long closed = currentSegment;
+        close();
+        open(closed + 1);
+        return closed;
+    }
+
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.force(true);
+            synced = written;
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error cerrando el segmento {} del journal de inventario", currentSegment, e);
+        } finally {
+            channel = null;
+        }
+    }
+
+    /**
+     * Lista los segmentos presentes en disco ordenados de forma ascendente
+     */
+    public List<Long> listSegments() {
+        Path dir = directory();
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo listar el journal de inventario", e);
+        }
+    }
+
+    /**
+     * Lee un segmento y devuelve el delta neto por producto.
+     * Una última línea incompleta (escritura interrumpida por la caída) se descarta.
+     */
+    public Map<Long, Integer> readSegment(long segment) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        try {
+            String content = Files.readString(segmentPath(segment), StandardCharsets.US_ASCII);
+            int lastNewLine = content.lastIndexOf('\n');
+            if (lastNewLine < 0) {
+                return deltas;
+            }
+            for (String line : content.substring(0, lastNewLine).split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int separator = line.indexOf(',');
+                deltas.merge(Long.parseLong(line.substring(0, separator)),
+                        Integer.parseInt(line.substring(separator + 1)), Integer::sum);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + segment + " del journal", e);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    /**
+     * Elimina los segmentos cuyo contenido ya está aplicado en la base de datos
+     */
+    public void deleteSegmentsUpTo(long segment) {
+        for (Long existing : listSegments()) {
+            if (existing <= segment && existing != currentSegment) {
+                try {
+                    Files.deleteIfExists(segmentPath(existing));
+                } catch (IOException e) {
+                    log.warn("No se pudo eliminar el segmento {} del journal de inventario", existing, e);
+                }
+            }
+        }
+    }
+
+    private Path directory() {
+        return Paths.get(journalDir);
+    }
+
+    private Path segmentPath(long segment) {
+        return directory().resolve(SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+    }
+}
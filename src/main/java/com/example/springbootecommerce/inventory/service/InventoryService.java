@@ -1,4 +1,64 @@
 package com.example.springbootecommerce.inventory.service;
 
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+
+import java.util.Map;
+
+/**
+ * Motor de inventario en memoria (modo LEDGER).
+ * Mantiene el stock disponible por producto sin bloqueos, registra cada movimiento en un journal
+ * y escribe los deltas netos en products.stock_quantity por lotes periódicos.
+ */
 public interface InventoryService {
+
+    /**
+     * Indica si el ledger está activo (app.inventory.stock-lock-mode = LEDGER) e inicializado.
+     */
+    boolean isEnabled();
+
+    /**
+     * Reserva stock para varios productos de forma todo-o-nada.
+     * El stock queda retenido en memoria de inmediato, pero el movimiento solo se registra en el journal
+     * al confirmar la transacción actual; si hace rollback, la reserva se libera automáticamente.
+     *
+     * @param quantities Cantidad solicitada por ID de producto
+     * @return Stock disponible de los productos sin stock suficiente (vacío si la reserva se realizó)
+     * @throws ResourceNotFoundException si algún producto no existe
+     */
+    Map<Long, Integer> reserve(Map<Long, Integer> quantities);
+
+    /**
+     * Devuelve stock al inventario (cancelaciones, reposiciones).
+     * Se aplica y se registra al confirmar la transacción actual.
+     *
+     * @param productId ID del producto
+     * @param quantity  Cantidad a devolver (mayor a 0)
+     * @throws ResourceNotFoundException si el producto no existe
+     */
+    void release(Long productId, int quantity);
+
+    /**
+     * Obtiene el stock disponible en memoria de un producto.
+     *
+     * @param productId ID del producto
+     * @return Stock disponible
+     * @throws ResourceNotFoundException si el producto no existe
+     */
+    int getAvailableStock(Long productId);
+
+    /**
+     * Sincroniza el ledger tras una escritura absoluta de stock en la base de datos
+     * (por ejemplo, la edición de un producto). Se aplica al confirmar la transacción actual.
+     *
+     * @param productId     ID del producto
+     * @param stockQuantity Stock escrito en products.stock_quantity
+     */
+    void resync(Long productId, int stockQuantity);
+
+    /**
+     * Escribe en la base de datos los deltas netos pendientes en un único lote.
+     *
+     * @return Número de productos actualizados
+     */
+    int flushPendingDeltas();
 }
@@ -0,0 +1,24 @@
+package com.example.springbootecommerce.inventory.service;
+
+/**
+ * Estrategia de concurrencia usada para modificar el stock de los productos.
+ * Se configura con la propiedad app.inventory.stock-lock-mode.
+ */
+public enum StockLockMode {
+
+    /**
+     * Bloqueo pesimista (SELECT ... FOR UPDATE) antes de modificar el stock.
+     */
+    PESSIMISTIC,
+
+    /**
+     * Sin bloqueo previo: UPDATE condicional atómico (stock_quantity >= cantidad solicitada).
+     * Los compradores de un mismo producto no esperan en cola por el bloqueo de la fila.
+     */
+    CONDITIONAL,
+
+    /**
+     * Reserva en memoria mediante InventoryService con escritura diferida en la tabla products.
+     */
+    LEDGER
+}
@@ -6,44 +6,142 @@ import com.example.springbootecommerce.order.entity.Order;
 import com.example.springbootecommerce.order.entity.OrderItem;
 import com.example.springbootecommerce.product.entity.Producto;
 import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoStockProjection;
+import com.example.springbootecommerce.product.service.ProductoCache;
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class StockManager {
 
     private final ProductoRepository productoRepository;
+    private final InventoryService inventoryService;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final AuditorAware<String> auditorAware;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.inventory.stock-lock-mode:PESSIMISTIC}")
+    private StockLockMode stockLockMode;
+
+    /**
+     * Carga los productos que se van a reservar en una sola consulta, para validarlos y pasarlos luego a
+     * reserveStock(items, productos). En modo PESSIMISTIC quedan bloqueados desde esta lectura.
+     */
+    public Map<Long, Producto> loadForReservation(Collection<Long> productIds){
+        if (productIds.isEmpty()){
+            return Map.of();
+        }
+        List<Producto> productos = !inventoryService.isEnabled() && stockLockMode == StockLockMode.PESSIMISTIC
+                ? productoRepository.lockAllByIds(productIds)
+                : productoRepository.findAllById(productIds);
+        return productos.stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity(), (first, second) -> first, TreeMap::new));
+    }
 
     /**
      * Reserva el stock para todos los items del carrito
-     * Usa el bloqueo pesimista para evitar condiciones de carrera en concurrencia alta
+     * En modo PESSIMISTIC bloquea todas las filas de productos en una sola consulta ordenada por ID
+     * (evita deadlocks); en modo CONDITIONAL valida sin bloqueo y confía en el UPDATE condicional.
+     * En ambos casos el stock se descuenta con una única sentencia UPDATE para todas las líneas
      */
     public void reserveStock(Cart cart){
-        for (CartItem item : cart.getItems()){
-            Producto producto = productoRepository.findByIdWithLock(item.getProducto().getId())
-                    .orElseThrow(()-> new ResourceNotFoundException("Producto no encontrado: " +
-                            item.getProducto().getId()));
-            if (!producto.hasStock(item.getQuantity())){
-                throw new BusinessException(
-                        String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
-                                producto.getName(), producto.getStockQuantity(), item.getQuantity())
-                );
+        reserveStock(cart.getItems(), null);
+    }
+
+    /**
+     * Reserva el stock de items. Si se pasan los productos obtenidos con loadForReservation se validan
+     * sobre esas filas (ya bloqueadas en modo PESSIMISTIC) en lugar de volver a leerlas
+     */
+    public void reserveStock(List<CartItem> items, Map<Long, Producto> loadedProducts){
+        // Agrupar cantidades por producto, ordenado por ID
+        Map<Long, Integer> requested = new TreeMap<>();
+        for (CartItem item : items){
+            requested.merge(item.getProducto().getId(), item.getQuantity(), Integer::sum);
+        }
+        if (requested.isEmpty()){
+            return;
+        }
+        productoCache.evictAll(requested.keySet());
+        // Solo se aplica al índice si la transacción confirma
+        productoSearchIndex.onStockChanged(requested.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> -entry.getValue())));
+        if (inventoryService.isEnabled()){
+            reserveInLedger(items, requested);
+            return;
+        }
+
+        Map<Long, StockLevel> stockLevels = loadedProducts != null
+                ? loadedProducts.values().stream().collect(Collectors.toMap(Producto::getId,
+                        producto -> new StockLevel(producto.getName(), producto.getStockQuantity())))
+                : loadStockLevels(requested.keySet());
+
+        List<String> shortfalls = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : requested.entrySet()){
+            StockLevel producto = stockLevels.get(entry.getKey());
+            if (producto == null){
+                throw new ResourceNotFoundException("Producto no encontrado: " + entry.getKey());
             }
-            producto.reduceStock(item.getQuantity());
-            productoRepository.save(producto);
+            if (producto.stockQuantity() < entry.getValue()){
+                shortfalls.add(String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
+                        producto.name(), producto.stockQuantity(), entry.getValue()));
+            }
+        }
+        if (!shortfalls.isEmpty()){
+            throw new BusinessException(String.join("; ", shortfalls));
         }
+
+        int updated = productoRepository.reduceStockBatch(
+                requested.keySet().toArray(Long[]::new),
+                requested.values().toArray(Integer[]::new),
+                currentAuditor());
+        if (updated != requested.size()){
+            throw new BusinessException(String.format(
+                    "Stock insuficiente por una compra concurrente. Productos actualizados: %d, esperados: %d",
+                    updated, requested.size()));
+        }
+        refreshLoadedProducts(items);
+        log.debug("Stock reservado para {} productos", updated);
     }
 
     /**
      * Restaura el stock de una orden cancelada
      */
     public void restoreStock(Order order){
+        productoCache.evictAll(order.getItems().stream().map(item -> item.getProducto().getId()).toList());
+        productoSearchIndex.onStockChanged(order.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProducto().getId(), OrderItem::getQuantity, Integer::sum)));
         for (OrderItem item : order.getItems()){
+            if (inventoryService.isEnabled()){
+                inventoryService.release(item.getProducto().getId(), item.getQuantity());
+                continue;
+            }
+            if (stockLockMode == StockLockMode.CONDITIONAL){
+                if (productoRepository.incrementStock(item.getProducto().getId(), item.getQuantity()) == 0){
+                    log.error("Producto no encontrado al restaurar el stock de la orden: {}", order.getId());
+                }
+                continue;
+            }
             Producto producto = productoRepository.findById(item.getProducto().getId()).orElse(null);
             if (producto != null){
                 producto.increaseStock(item.getQuantity());
@@ -54,4 +152,71 @@ public class StockManager {
         }
     }
 
+    /**
+     * Devuelve al inventario cantidades agrupadas por producto en una sola sentencia
+     * (o en el ledger en memoria si está activo)
+     */
+    public void releaseStock(Map<Long, Integer> quantities){
+        if (quantities.isEmpty()){
+            return;
+        }
+        productoCache.evictAll(quantities.keySet());
+        productoSearchIndex.onStockChanged(quantities);
+        if (inventoryService.isEnabled()){
+            quantities.forEach(inventoryService::release);
+            return;
+        }
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        productoRepository.applyStockDeltas(
+                sorted.keySet().toArray(Long[]::new),
+                sorted.values().toArray(Integer[]::new),
+                currentAuditor());
+    }
+
+    /**
+     * Reserva en el ledger en memoria (modo LEDGER); la escritura en products es diferida
+     */
+    private void reserveInLedger(List<CartItem> items, Map<Long, Integer> requested){
+        Map<Long, Integer> shortfalls = inventoryService.reserve(requested);
+        if (shortfalls.isEmpty()){
+            return;
+        }
+        Map<Long, String> names = items.stream()
+                .collect(Collectors.toMap(item -> item.getProducto().getId(),
+                        item -> item.getProducto().getName(), (first, second) -> first));
+        List<String> messages = new ArrayList<>();
+        shortfalls.forEach((productId, available) ->
+                messages.add(String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
+                        names.get(productId), available, requested.get(productId))));
+        throw new BusinessException(String.join("; ", messages));
+    }
+
+    private Map<Long, StockLevel> loadStockLevels(Collection<Long> productIds){
+        List<ProductoStockProjection> stockLevels = stockLockMode == StockLockMode.CONDITIONAL
+                ? productoRepository.findStockByIds(productIds)
+                : productoRepository.lockStockByIds(productIds);
+        return stockLevels.stream()
+                .collect(Collectors.toMap(ProductoStockProjection::getId,
+                        producto -> new StockLevel(producto.getName(), producto.getStockQuantity())));
+    }
+
+    /**
+     * El UPDATE nativo no modifica las entidades Producto ya cargadas (las de loadForReservation o las del
+     * carrito): se releen para que ni una lectura posterior ni un flush por dirty checking usen el stock anterior
+     */
+    private void refreshLoadedProducts(List<CartItem> items){
+        items.stream()
+                .map(CartItem::getProducto)
+                .distinct()
+                .filter(entityManager::contains)
+                .forEach(entityManager::refresh);
+    }
+
+    // UPDATE masivo: no pasa por la auditoría de JPA, el usuario se escribe en la sentencia
+    private String currentAuditor(){
+        return auditorAware.getCurrentAuditor().orElse("SYSTEM");
+    }
+
+    private record StockLevel(String name, int stockQuantity){
+    }
 }
@@ -0,0 +1,114 @@
+package com.example.springbootecommerce.inventory.service;
+
+import com.example.springbootecommerce.inventory.entity.StockReservation;
+import com.example.springbootecommerce.inventory.repository.StockReservationRepository;
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.entity.OrderItem;
+import com.example.springbootecommerce.order.repository.OrderRepository;
+import com.example.springbootecommerce.order.service.OrderStatusCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Gestiona las reservas temporales de stock de las órdenes que todavía no están confirmadas.
+ * El stock ya fue descontado por StockManager; la reserva solo registra cuánto tiempo puede
+ * retenerse antes de devolverlo automáticamente.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockReservationManager {
+
+    private final StockReservationRepository stockReservationRepository;
+    private final OrderRepository orderRepository;
+    private final OrderStatusCounters orderStatusCounters;
+    private final StockManager stockManager;
+
+    @Value("${app.inventory.reservation.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    /**
+     * Registra la retención del stock de una orden recién creada
+     */
+    public void hold(Order order){
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (OrderItem item : order.getItems()){
+            quantities.merge(item.getProducto().getId(), item.getQuantity(), Integer::sum);
+        }
+        List<StockReservation> reservations = quantities.entrySet().stream()
+                .map(entry -> StockReservation.builder()
+                        .orderId(order.getId())
+                        .productId(entry.getKey())
+                        .quantity(entry.getValue())
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList();
+        stockReservationRepository.saveAll(reservations);
+    }
+
+    /**
+     * Elimina la reserva de una orden que se confirmó o cuyo stock se devuelve por otra vía (cancelación)
+     */
+    public void clear(Long orderId){
+        stockReservationRepository.deleteByOrderId(orderId);
+    }
+
+    /**
+     * Libera un lote de reservas expiradas: devuelve el stock y cancela las órdenes que siguen PENDING.
+     *
+     * @return Número de reservas procesadas (0 cuando no quedan expiradas o todas se pospusieron)
+     */
+    @Transactional
+    public int releaseExpiredBatch(int batchSize){
+        List<StockReservation> expired = stockReservationRepository.lockExpired(LocalDateTime.now(), batchSize);
+        if (expired.isEmpty()){
+            return 0;
+        }
+
+        Set<Long> orderIds = expired.stream()
+                .map(StockReservation::getOrderId)
+                .collect(Collectors.toSet());
+        // Solo las órdenes aún PENDING retienen stock; las demás ya lo liberaron o lo consumieron
+        Set<Long> pendingOrderIds = new HashSet<>(orderRepository.lockPendingOrderIds(orderIds));
+        // PENDING pero bloqueadas por otra transacción (SKIP LOCKED): su reserva se conserva para el siguiente
+        // barrido, o la orden quedaría PENDING sin stock ni reserva si esa transacción no cambia su estado
+        Set<Long> lockedElsewhere = new HashSet<>(orderRepository.findPendingOrderIds(orderIds));
+        lockedElsewhere.removeAll(pendingOrderIds);
+
+        Map<Long, Integer> toRelease = new HashMap<>();
+        for (StockReservation reservation : expired){
+            if (pendingOrderIds.contains(reservation.getOrderId())){
+                toRelease.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        }
+
+        stockManager.releaseStock(toRelease);
+        if (!pendingOrderIds.isEmpty()){
+            int cancelled = orderRepository.cancelPendingOrders(pendingOrderIds,
+                    String.format("%n[%s] Orden cancelada automáticamente: reserva de stock expirada", LocalDateTime.now()),
+                    Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+            orderStatusCounters.onBulkTransition(Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED, cancelled);
+        }
+        List<Long> processed = expired.stream()
+                .filter(reservation -> !lockedElsewhere.contains(reservation.getOrderId()))
+                .map(StockReservation::getId)
+                .toList();
+        stockReservationRepository.deleteByIdIn(processed);
+
+        log.info("Reservas expiradas liberadas: {} (órdenes canceladas: {}, órdenes bloqueadas pospuestas: {})",
+                processed.size(), pendingOrderIds.size(), lockedElsewhere.size());
+        return processed.size();
+    }
+}
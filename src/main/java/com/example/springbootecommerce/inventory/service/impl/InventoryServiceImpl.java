@@ -1,4 +1,347 @@
 package com.example.springbootecommerce.inventory.service.impl;
 
-public class InventoryServiceImpl {
+import com.example.springbootecommerce.inventory.entity.InventoryLedgerCheckpoint;
+import com.example.springbootecommerce.inventory.repository.InventoryLedgerCheckpointRepository;
+import com.example.springbootecommerce.inventory.service.InventoryJournal;
+import com.example.springbootecommerce.inventory.service.InventoryService;
+import com.example.springbootecommerce.inventory.service.StockLockMode;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryServiceImpl implements InventoryService {
+
+    private final ProductoRepository productoRepository;
+    private final InventoryLedgerCheckpointRepository checkpointRepository;
+    private final InventoryJournal journal;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.inventory.stock-lock-mode:PESSIMISTIC}")
+    private StockLockMode stockLockMode;
+
+    // Stock disponible por producto: cada producto tiene su propio contador (CAS sin bloqueos)
+    private final ConcurrentHashMap<Long, AtomicInteger> availableStock = new ConcurrentHashMap<>();
+
+    // Deltas netos aún no escritos en products.stock_quantity
+    private final ConcurrentHashMap<Long, AtomicInteger> pendingDeltas = new ConcurrentHashMap<>();
+
+    // Los movimientos comparten el lock de lectura; el flush toma el de escritura solo para
+    // capturar los deltas y rotar el journal, de modo que cada movimiento queda en un único segmento
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready = false;
+
+    // ========================================================================
+    // CICLO DE VIDA
+    // ========================================================================
+
+    /**
+     * Recupera los segmentos del journal pendientes de aplicar y reconstruye el ledger desde products
+     */
+    @PostConstruct
+    public void initialize() {
+        if (stockLockMode != StockLockMode.LEDGER) {
+            return;
+        }
+        long lastApplied = recoverJournal();
+        journal.open(lastApplied + 1);
+
+        productoRepository.findAllStockLevels().forEach(stock ->
+                availableStock.put(stock.getId(), new AtomicInteger(stock.getStockQuantity())));
+        ready = true;
+        log.info("Ledger de inventario inicializado con {} productos", availableStock.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!ready) {
+            return;
+        }
+        flushPendingDeltas();
+        journal.close();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ready;
+    }
+
+    // ========================================================================
+    // OPERACIONES DE STOCK
+    // ========================================================================
+
+    @Override
+    public Map<Long, Integer> reserve(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        Map<Long, Integer> shortfalls = new LinkedHashMap<>();
+
+        // Orden por ID para que dos reservas concurrentes compitan por los productos en el mismo orden
+        for (Map.Entry<Long, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+            AtomicInteger stock = stockOf(entry.getKey());
+            int requested = entry.getValue();
+            int current;
+            do {
+                current = stock.get();
+                if (current < requested) {
+                    shortfalls.put(entry.getKey(), current);
+                    break;
+                }
+            } while (!stock.compareAndSet(current, current - requested));
+
+            if (shortfalls.containsKey(entry.getKey())) {
+                break;
+            }
+            reserved.put(entry.getKey(), requested);
+        }
+
+        if (!shortfalls.isEmpty()) {
+            // Todo-o-nada: devolver lo ya descontado en memoria
+            reserved.forEach((productId, quantity) -> availableStock.get(productId).addAndGet(quantity));
+            return shortfalls;
+        }
+
+        // El descuento en memoria ya retiene el stock; el movimiento se registra (journal y deltas
+        // pendientes) justo antes de que la transacción confirme, de modo que ningún checkout confirmado
+        // queda sin su registro en disco
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        reserved.forEach((productId, quantity) -> deltas.put(productId, -quantity));
+        onCompletion(deltas, () -> { },
+                () -> reserved.forEach((productId, quantity) -> availableStock.get(productId).addAndGet(quantity)));
+        return Map.of();
+    }
+
+    @Override
+    public void release(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La cantidad a aumentar debe ser mayor a 0");
+        }
+        AtomicInteger stock = stockOf(productId);
+        // El stock devuelto se registra antes del commit pero solo queda disponible cuando la transacción confirma
+        onCompletion(Map.of(productId, quantity), () -> stock.addAndGet(quantity), () -> { });
+    }
+
+    @Override
+    public int getAvailableStock(Long productId) {
+        return stockOf(productId).get();
+    }
+
+    @Override
+    public void resync(Long productId, int stockQuantity) {
+        if (!ready) {
+            return;
+        }
+        Runnable apply = () -> {
+            // La base de datos recibirá todavía los deltas pendientes en el próximo flush
+            AtomicInteger pending = pendingDeltas.get(productId);
+            int value = stockQuantity + (pending != null ? pending.get() : 0);
+            availableStock.computeIfAbsent(productId, id -> new AtomicInteger()).set(value);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // ========================================================================
+    // ESCRITURA DIFERIDA
+    // ========================================================================
+
+    @Override
+    public int flushPendingDeltas() {
+        if (!ready) {
+            return 0;
+        }
+        Map<Long, Integer> snapshot = new HashMap<>();
+        long segment;
+
+        flushLock.writeLock().lock();
+        try {
+            pendingDeltas.forEach((productId, delta) -> {
+                int value = delta.getAndSet(0);
+                if (value != 0) {
+                    snapshot.put(productId, value);
+                }
+            });
+            if (snapshot.isEmpty()) {
+                return 0;
+            }
+            segment = journal.rotate();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+
+        try {
+            applyDeltas(snapshot, segment);
+            journal.deleteSegmentsUpTo(segment);
+            log.debug("Flush de inventario: {} productos actualizados (segmento {})", snapshot.size(), segment);
+            return snapshot.size();
+        } catch (RuntimeException e) {
+            // Los movimientos siguen en el segmento cerrado; se reintentan en el siguiente flush
+            snapshot.forEach((productId, delta) ->
+                    pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta));
+            log.error("Error escribiendo los deltas de inventario del segmento {}: {}", segment, e.getMessage());
+            return 0;
+        }
+    }
+
+    // ========================================================================
+    // MÉTODOS PRIVADOS
+    // ========================================================================
+
+    /**
+     * Aplica en products los segmentos del journal posteriores al checkpoint
+     *
+     * @return Último segmento aplicado
+     */
+    private long recoverJournal() {
+        long lastApplied = checkpointRepository.findById(InventoryLedgerCheckpoint.SINGLETON_ID)
+                .map(InventoryLedgerCheckpoint::getLastSegment)
+                .orElse(0L);
+
+        List<Long> segments = journal.listSegments();
+        for (Long segment : segments) {
+            if (segment <= lastApplied) {
+                continue;
+            }
+            Map<Long, Integer> deltas = journal.readSegment(segment);
+            applyDeltas(deltas, segment);
+            lastApplied = segment;
+            log.warn("Recuperados {} movimientos de inventario del segmento {} del journal", deltas.size(), segment);
+        }
+        journal.deleteSegmentsUpTo(lastApplied);
+        return lastApplied;
+    }
+
+    /**
+     * Escribe los deltas y avanza el checkpoint en la misma transacción
+     */
+    private void applyDeltas(Map<Long, Integer> deltas, long segment) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!deltas.isEmpty()) {
+                // Deltas acumulados de muchas operaciones: se escriben como el usuario de sistema
+                productoRepository.applyStockDeltas(
+                        deltas.keySet().toArray(Long[]::new),
+                        deltas.values().toArray(Integer[]::new),
+                        "SYSTEM");
+            }
+            checkpointRepository.advanceTo(segment);
+        });
+    }
+
+    private AtomicInteger stockOf(Long productId) {
+        AtomicInteger stock = availableStock.get(productId);
+        if (stock != null) {
+            return stock;
+        }
+        // Producto creado después de la inicialización: se carga una sola vez desde la base de datos
+        return availableStock.computeIfAbsent(productId, id -> new AtomicInteger(
+                productoRepository.findStockQuantityById(id)
+                        .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado: " + id))));
+    }
+
+    /**
+     * Registra los movimientos antes de que la transacción confirme (de inmediato si no hay transacción)
+     * y ejecuta onCommit tras el commit. Si la transacción se revierte ejecuta compensation sobre la
+     * memoria y, si el movimiento ya estaba registrado, escribe el movimiento inverso en el journal.
+     * Un fallo del journal en beforeCommit revierte la transacción; una caída entre el registro y el
+     * commit solo puede dejar stock retenido de más al recuperar, nunca vender stock que no existe.
+     */
+    private void onCompletion(Map<Long, Integer> deltas, Runnable onCommit, Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                recordMovements(deltas);
+            } catch (BusinessException e) {
+                compensation.run();
+                throw e;
+            }
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean recorded;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                recordMovements(deltas);
+                recorded = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    onCommit.run();
+                    return;
+                }
+                if (recorded) {
+                    compensate(deltas);
+                }
+                compensation.run();
+            }
+        });
+    }
+
+    /**
+     * Escribe los movimientos de una operación en el journal (una escritura, fsync agrupado) y los suma a
+     * los deltas pendientes
+     */
+    private void recordMovements(Map<Long, Integer> deltas) {
+        flushLock.readLock().lock();
+        try {
+            try {
+                journal.append(deltas);
+            } catch (UncheckedIOException e) {
+                throw new BusinessException("No se pudo registrar el movimiento de inventario", e);
+            }
+            deltas.forEach((productId, delta) ->
+                    pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta));
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra el movimiento inverso de uno ya escrito cuya transacción se revirtió. La transacción ya
+     * terminó: si el journal falla el delta pendiente se corrige igualmente y solo se pierde su
+     * recuperación ante una caída.
+     */
+    private void compensate(Map<Long, Integer> deltas) {
+        Map<Long, Integer> inverse = new LinkedHashMap<>();
+        deltas.forEach((productId, delta) -> inverse.put(productId, -delta));
+        try {
+            recordMovements(inverse);
+        } catch (BusinessException e) {
+            log.error("Compensación de inventario sin registrar en el journal: {}", inverse, e);
+            inverse.forEach((productId, delta) ->
+                    pendingDeltas.computeIfAbsent(productId, id -> new AtomicInteger()).addAndGet(delta));
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.example.springbootecommerce.inventory.task;
+
+import com.example.springbootecommerce.inventory.service.InventoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryLedgerFlushTask {
+
+    private final InventoryService inventoryService;
+
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:2000}")
+    public void flushPendingDeltas() {
+        if (!inventoryService.isEnabled()) {
+            return;
+        }
+        int flushed = inventoryService.flushPendingDeltas();
+        if (flushed > 0) {
+            log.debug("Flush del ledger de inventario: {} productos escritos", flushed);
+        }
+    }
+}
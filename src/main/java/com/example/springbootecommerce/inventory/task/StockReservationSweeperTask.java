@@ -0,0 +1,38 @@
+package com.example.springbootecommerce.inventory.task;
+
+import com.example.springbootecommerce.inventory.service.StockReservationManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationSweeperTask {
+
+    private final StockReservationManager stockReservationManager;
+
+    @Value("${app.inventory.reservation.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.inventory.reservation.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Scheduled(fixedDelayString = "${app.inventory.reservation.sweep-interval-ms:60000}")
+    public void releaseExpiredReservations() {
+        int total = 0;
+        // Cada lote es una transacción corta; se limita el número de lotes para no acaparar conexiones
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int released = stockReservationManager.releaseExpiredBatch(batchSize);
+            total += released;
+            if (released < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Barrido de reservas de stock finalizado. Reservas liberadas: {}", total);
+        }
+    }
+}
@@ -1,4 +1,18 @@
 package com.example.springbootecommerce.notification.dto;
 
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class NotificationEventDTO {
+    private Long orderId;
+
+    private String recipient;
+
+    private String status;
 }
@@ -1,7 +1,10 @@
 package com.example.springbootecommerce.notification.service;
 
+import com.example.springbootecommerce.notification.dto.NotificationEventDTO;
 import com.example.springbootecommerce.order.entity.Order;
 
+import java.util.List;
+
 public interface EmailService {
 
     /**
@@ -14,6 +17,11 @@ public interface EmailService {
      */
     void sendOrderStatusUpdate(Order order);
 
+    /**
+     * Envía en un solo lote las actualizaciones de estado de varias órdenes
+     */
+    void sendOrderStatusUpdates(List<NotificationEventDTO> events);
+
     /**
      * Envía email de bienvenida a nuevo usuario
      */
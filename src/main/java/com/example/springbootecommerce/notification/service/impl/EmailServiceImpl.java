@@ -1,11 +1,14 @@
 package com.example.springbootecommerce.notification.service.impl;
 
+import com.example.springbootecommerce.notification.dto.NotificationEventDTO;
 import com.example.springbootecommerce.notification.service.EmailService;
 import com.example.springbootecommerce.order.entity.Order;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 public class EmailServiceImpl implements EmailService {
@@ -43,6 +46,23 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    @Async
+    @Override
+    public void sendOrderStatusUpdates(List<NotificationEventDTO> events) {
+        log.info("Enviando lote de {} actualizaciones de estado de orden", events.size());
+
+        try {
+            // Simular un único envío masivo
+            Thread.sleep(500);
+            events.forEach(event -> log.debug("Actualización de estado de orden ID: {} ({}) enviada a: {}",
+                    event.getOrderId(), event.getStatus(), event.getRecipient()));
+            log.info("Lote de actualizaciones de estado enviado exitosamente");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Error enviando lote de actualizaciones de estado: {}", e.getMessage());
+        }
+    }
+
     @Async
     @Override
     public void sendWelcomeEmail(String userEmail, String firstName) {
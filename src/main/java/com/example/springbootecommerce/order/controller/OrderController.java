@@ -6,6 +6,7 @@ import com.example.springbootecommerce.order.repository.specification.OrderSpeci
 import com.example.springbootecommerce.order.service.OrderService;
 import com.example.springbootecommerce.shared.dto.ApiResponse;
 import com.example.springbootecommerce.shared.dto.PageResponse;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.user.entity.User;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -17,13 +18,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import static com.example.springbootecommerce.shared.util.Constants.ORDERS_ENDPOINT;
@@ -41,6 +46,8 @@ public class OrderController {
 
     private final OrderService orderService;
 
+    private static final DateTimeFormatter EXPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
     // ========================================================================
     // ENDPOINTS PARA USUARIOS AUTENTICADOS
     // ========================================================================
@@ -266,6 +273,28 @@ public class OrderController {
         );
     }
 
+    /**
+     * Obtener todas las órdenes del sistema paginando por cursor (solo administradores)
+     */
+    @GetMapping("/admin/all/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<SliceResponse<OrderSummaryDTO>>> scrollAllOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "orderDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.debug("Obteniendo todas las órdenes por cursor - Admin");
+
+        SliceResponse<OrderSummaryDTO> orders = orderService.scrollOrders(
+                null, sortBy, Sort.Direction.fromString(sortDirection), cursor, size, includeTotal);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(orders, "Todas las órdenes obtenidas exitosamente")
+        );
+    }
+
     /**
      * Obtener una orden específica por ID (solo administradores)
      */
@@ -366,16 +395,16 @@ public class OrderController {
      */
     @PutMapping("/admin/bulk/ship")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> markOrdersAsShipped(
+    public ResponseEntity<ApiResponse<BulkShipResultDTO>> markOrdersAsShipped(
             @Valid @RequestBody BulkShipOrdersDTO bulkShipDTO) {
 
         log.info("Marcando {} órdenes como enviadas", bulkShipDTO.getOrderIds().size());
 
-        List<OrderDTO> shippedOrders = orderService.markOrdersAsShipped(bulkShipDTO.getOrderIds());
+        BulkShipResultDTO result = orderService.markOrdersAsShipped(bulkShipDTO.getOrderIds());
 
         return ResponseEntity.ok(
-                ApiResponse.success(shippedOrders,
-                        shippedOrders.size() + " órdenes marcadas como enviadas exitosamente")
+                ApiResponse.success(result,
+                        result.getShipped() + " de " + result.getRequested() + " órdenes marcadas como enviadas")
         );
     }
 
@@ -401,6 +430,16 @@ public class OrderController {
         );
     }
 
+    /**
+     * Recalcular el rollup diario de ingresos desde el historial de órdenes
+     */
+    @PostMapping("/admin/reports/revenue/recalcular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> recalcularIngresos() {
+        int filas = orderService.rebuildRevenueRollup();
+        return ResponseEntity.ok(ApiResponse.success(filas, "Rollup de ingresos recalculado exitosamente"));
+    }
+
     /**
      * Obtener estadísticas generales de órdenes
      */
@@ -417,6 +456,16 @@ public class OrderController {
         );
     }
 
+    /**
+     * Obtener métricas de los contadores de órdenes (conciliaciones y drift corregido)
+     */
+    @GetMapping("/admin/statistics/contadores")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<OrderCountersStatsDTO>> getEstadisticasContadores() {
+        OrderCountersStatsDTO stats = orderService.getCountersStats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Estadísticas de contadores obtenidas exitosamente"));
+    }
+
     /**
      * Obtener órdenes que requieren atención
      */
@@ -482,6 +531,93 @@ public class OrderController {
         );
     }
 
+    /**
+     * Búsqueda avanzada de órdenes paginando por cursor, sin conteo total salvo que se solicite
+     */
+    @GetMapping("/admin/search/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<SliceResponse<OrderSummaryDTO>>> scrollSearchOrders(
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "orderDate") String sortBy,
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+
+        log.info("Realizando búsqueda de órdenes por cursor - Email: {}, Estado: {}, Fechas: {} - {}, Cliente: {}",
+                customerEmail, status, startDate, endDate, customerName);
+
+        Order.OrderStatus orderStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Estado de orden inválido: " + status));
+            }
+        }
+
+        Specification<Order> spec = buildOrderSpecification(
+                customerEmail, orderStatus, startDate, endDate, customerName);
+
+        SliceResponse<OrderSummaryDTO> orders = orderService.scrollOrders(
+                spec, sortBy, Sort.Direction.fromString(sortDirection), cursor, size, includeTotal);
+
+        return ResponseEntity.ok(
+                ApiResponse.success(orders, "Búsqueda de órdenes completada exitosamente")
+        );
+    }
+
+    /**
+     * Exportar las órdenes que cumplen los filtros (CSV o NDJSON), escritas en la respuesta a medida
+     * que se leen de la base de datos
+     */
+    @GetMapping("/admin/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(required = false) String customerEmail,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String customerName,
+            @RequestParam(defaultValue = "CSV") String format) {
+
+        log.info("Exportando órdenes - Formato: {}, Email: {}, Estado: {}, Fechas: {} - {}, Cliente: {}",
+                format, customerEmail, status, startDate, endDate, customerName);
+
+        OrderExportFormat exportFormat;
+        try {
+            exportFormat = OrderExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Formato de exportación inválido: " + format));
+        }
+
+        Order.OrderStatus orderStatus = null;
+        if (status != null && !status.isEmpty()) {
+            try {
+                orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest()
+                        .body(ApiResponse.error("Estado de orden inválido: " + status));
+            }
+        }
+
+        Specification<Order> spec = buildOrderSpecification(
+                customerEmail, orderStatus, startDate, endDate, customerName);
+        StreamingResponseBody body = output -> orderService.exportOrders(spec, exportFormat, output);
+
+        String filename = "ordenes-" + LocalDateTime.now().format(EXPORT_TIMESTAMP) + "." + exportFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     // ========================================================================
     // MÉTODOS PRIVADOS DE UTILIDAD
     // ========================================================================
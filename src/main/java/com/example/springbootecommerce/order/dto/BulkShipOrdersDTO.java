@@ -1,6 +1,7 @@
 package com.example.springbootecommerce.order.dto;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.List;
@@ -8,6 +9,7 @@ import java.util.List;
 @Data
 public class BulkShipOrdersDTO {
     @NotEmpty(message = "La lista de IDs de órdenes no puede estar vacía")
+    @Size(max = 10000, message = "No se pueden enviar más de 10000 órdenes por lote")
     private List<Long> orderIds;
 
 }
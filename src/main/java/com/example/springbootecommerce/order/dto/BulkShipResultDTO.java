@@ -0,0 +1,22 @@
+package com.example.springbootecommerce.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class BulkShipResultDTO {
+    private int requested;
+
+    private int shipped;
+
+    private int failed;
+
+    private List<Long> shippedOrderIds;
+
+    // Motivo del fallo por ID de orden
+    private Map<Long, String> failures;
+}
@@ -0,0 +1,22 @@
+package com.example.springbootecommerce.order.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class OrderCountersStatsDTO {
+    private Long reconciliations;
+
+    private Long skippedReconciliations;
+
+    private Long corrections;
+
+    private Long totalDrift;
+
+    private Long lastDrift;
+
+    private LocalDateTime lastReconciledAt;
+}
@@ -71,6 +71,10 @@ public class Order extends Auditable {
     @Column(name = "delivered_date")
     private LocalDateTime deliveredDate;
 
+    // Unidades totales, fijadas al crear la orden: los listados no necesitan cargar los items
+    @Column(name = "total_items", nullable = false)
+    private Integer totalItems = 0;
+
     @OneToMany(mappedBy = "order",fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
@@ -115,15 +119,22 @@ public class Order extends Auditable {
     public void addItem(OrderItem item){
         items.add(item);
         item.setOrder(this);
+        syncTotalItems();
     }
 
     public void removeItem(OrderItem item){
         items.remove(item);
         item.setOrder(null);
+        syncTotalItems();
     }
 
     public int getTotalItems(){
-        return items.stream()
+        return totalItems != null ? totalItems : 0;
+    }
+
+    @PrePersist
+    private void syncTotalItems(){
+        this.totalItems = items.stream()
                 .mapToInt(OrderItem::getQuantity)
                 .sum();
     }
@@ -0,0 +1,48 @@
+package com.example.springbootecommerce.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Órdenes e ingresos de un día (fecha de la orden) en un estado que cuenta como ingreso.
+ * Se actualiza de forma incremental desde OrderRevenueManager con cada cambio de estado de orden.
+ */
+@Entity
+@Table(name = "order_revenue_daily")
+@IdClass(OrderRevenueDaily.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRevenueDaily {
+
+    @Id
+    @Column(name = "revenue_date")
+    private LocalDate revenueDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private Order.OrderStatus status;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate revenueDate;
+        private Order.OrderStatus status;
+    }
+}
@@ -5,6 +5,7 @@ import com.example.springbootecommerce.order.dto.OrderItemDTO;
 import com.example.springbootecommerce.order.dto.OrderSummaryDTO;
 import com.example.springbootecommerce.order.entity.Order;
 import com.example.springbootecommerce.order.entity.OrderItem;
+import com.example.springbootecommerce.order.repository.OrderSummaryRow;
 import com.example.springbootecommerce.payment.dto.PaymentDTO;
 import com.example.springbootecommerce.payment.entity.Payment;
 import org.mapstruct.Mapper;
@@ -30,6 +31,9 @@ public interface OrderMapper {
     @Mapping(target = "totalItems", expression = "java(order.getTotalItems())")
     OrderSummaryDTO toSummaryDTO(Order order);
 
+    @Mapping(target = "status", expression = "java(row.status().getDisplayName())")
+    OrderSummaryDTO toSummaryDTO(OrderSummaryRow row);
+
     @Mapping(target = "productoId", source = "producto.id")
     OrderItemDTO toItemDTO(OrderItem item);
 
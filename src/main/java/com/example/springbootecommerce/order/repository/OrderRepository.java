@@ -1,33 +1,48 @@
 package com.example.springbootecommerce.order.repository;
 
 import com.example.springbootecommerce.order.entity.Order;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderSummaryRepository {
 
     // JOIN FETCH: Orden con items y pago para evitar N+1
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items LEFT JOIN FETCH o.payment WHERE o.id = :orderId")
     Optional<Order> findByIdWithItemsAndPayment(@Param("orderId") Long orderId);
 
+    // Bloqueo pesimista: un cambio de estado valida la transición (y restaura stock) sobre el estado actual,
+    // sin que el barrido de reservas (lockPendingOrderIds ... SKIP LOCKED) la cancele entre tanto
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id = :orderId")
+    Optional<Order> findByIdWithLock(@Param("orderId") Long orderId);
+
     // JOIN FETCH: Órdenes de usuario con items
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.user.id = :userId ORDER BY o.orderDate DESC")
     List<Order> findByUserIdWithItems(@Param("userId") Long userId);
 
-    // Estadística: contar por estado
-    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
-    long countByStatus(@Param("status") Order.OrderStatus status);
+    // Estadística: órdenes e ingresos por estado (conciliación de contadores)
+    @Query("""
+        SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.totalAmount) AS revenue
+        FROM Order o
+        GROUP BY o.status
+        """)
+    List<OrderRevenueProjection> sumAllByStatus();
 
     // Estadística: total de ingresos por rango de fechas y estado entregado/enviado
     @Query("SELECT SUM(o.totalAmount) FROM Order o WHERE o.status IN ('DELIVERED', 'SHIPPED') AND o.orderDate BETWEEN :startDate AND :endDate")
@@ -43,17 +58,66 @@ public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecific
     List<Order> findOrdersPendingDelivery(@Param("cutoffDate") LocalDateTime cutoffDate);
 
 
-    Page<Order> findByUserIdOrderByOrderDateDesc(Long id, Pageable pageable);
-
-    Page<Order> findByUserIdAndStatusOrderByOrderDateDesc(Long id, Order.OrderStatus status, Pageable pageable);
-
-    Page<Order> findByGuestEmailAndOrderDateBetween(String guestEmail, LocalDateTime orderDateAfter, LocalDateTime orderDateBefore, Pageable pageable);
-
-    List<Order> findByStatusAndOrderDateBetween(Order.OrderStatus orderStatus, LocalDateTime startDate, LocalDateTime endDate);
-
-    List<Order> findByStatusAndOrderDateBefore(Order.OrderStatus status, LocalDateTime orderDateBefore);
+    // Órdenes e ingresos por estado en un rango de fechas (inclusive), agregados en la base de datos
+    @Query("""
+        SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.totalAmount) AS revenue
+        FROM Order o
+        WHERE o.status IN :statuses AND o.orderDate BETWEEN :startDate AND :endDate
+        GROUP BY o.status
+        """)
+    List<OrderRevenueProjection> sumRevenueByStatus(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                                    @Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate);
 
     boolean existsByIdAndGuestEmail(Long id, String guestEmail);
 
     boolean existsByIdAndUserId(Long id, Long userId);
+
+    // Bloquea las órdenes que siguen PENDING (las demás ya no retienen stock)
+    @Query(value = """
+        SELECT o.id FROM orders o
+        WHERE o.id IN (:orderIds) AND o.status = 'PENDING'
+        ORDER BY o.id
+        FOR UPDATE SKIP LOCKED
+        """, nativeQuery = true)
+    List<Long> lockPendingOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Órdenes PENDING sin bloqueo: junto con lockPendingOrderIds distingue las que otra transacción tiene bloqueadas
+    @Query(value = "SELECT o.id FROM orders o WHERE o.id IN (:orderIds) AND o.status = 'PENDING'", nativeQuery = true)
+    List<Long> findPendingOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("""
+        UPDATE Order o SET o.status = :cancelled,
+            o.notes = CONCAT(COALESCE(o.notes, ''), :note),
+            o.updatedAt = LOCAL DATETIME,
+            o.updatedBy = 'SYSTEM'
+        WHERE o.id IN :orderIds AND o.status = :pending
+        """)
+    int cancelPendingOrders(@Param("orderIds") Collection<Long> orderIds,
+                            @Param("note") String note,
+                            @Param("pending") Order.OrderStatus pending,
+                            @Param("cancelled") Order.OrderStatus cancelled);
+
+    // Bloquea y lee en una sola consulta las órdenes de un cambio de estado masivo
+    @Query(value = """
+        SELECT o.id AS id, o.status AS status, o.total_amount AS totalAmount, o.order_date AS orderDate,
+               COALESCE(u.email, o.guest_email) AS customerEmail
+        FROM orders o
+        LEFT JOIN users u ON u.id = o.user_id
+        WHERE o.id = ANY(CAST(:orderIds AS bigint[]))
+        ORDER BY o.id
+        FOR UPDATE OF o
+        """, nativeQuery = true)
+    List<OrderStatusRow> lockStatusRows(@Param("orderIds") Long[] orderIds);
+
+    @Modifying
+    @Query(value = """
+        UPDATE orders SET status = 'SHIPPED', shipped_date = :shippedDate,
+            updated_at = :shippedDate, updated_by = :updatedBy
+        WHERE id = ANY(CAST(:orderIds AS bigint[])) AND status = 'CONFIRMED'
+        """, nativeQuery = true)
+    int markShipped(@Param("orderIds") Long[] orderIds,
+                    @Param("shippedDate") LocalDateTime shippedDate,
+                    @Param("updatedBy") String updatedBy);
 }
@@ -0,0 +1,63 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.entity.OrderRevenueDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderRevenueDailyRepository extends JpaRepository<OrderRevenueDaily, OrderRevenueDaily.Key> {
+
+    // Suma (o descuenta) una orden en el día y estado indicados
+    @Modifying
+    @Query(value = """
+        INSERT INTO order_revenue_daily (revenue_date, status, order_count, revenue)
+        VALUES (:revenueDate, :status, :orders, :revenue)
+        ON CONFLICT (revenue_date, status) DO UPDATE
+        SET order_count = order_revenue_daily.order_count + EXCLUDED.order_count,
+            revenue     = order_revenue_daily.revenue + EXCLUDED.revenue
+        """, nativeQuery = true)
+    int apply(@Param("revenueDate") LocalDate revenueDate,
+              @Param("status") String status,
+              @Param("orders") long orders,
+              @Param("revenue") BigDecimal revenue);
+
+    // Días completos del reporte (fechas inclusive)
+    @Query("""
+        SELECT d.status AS status, SUM(d.orderCount) AS orderCount, SUM(d.revenue) AS revenue
+        FROM OrderRevenueDaily d
+        WHERE d.status IN :statuses AND d.revenueDate BETWEEN :startDate AND :endDate
+        GROUP BY d.status
+        """)
+    List<OrderRevenueProjection> sumByStatus(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                             @Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    // Recalculo completo desde orders (corrige cualquier deriva del rollup incremental).
+    // EXCLUSIVE bloquea las escrituras incrementales (no las lecturas) hasta el fin de la transacción
+    @Modifying
+    @Query(value = "LOCK TABLE order_revenue_daily IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM order_revenue_daily", nativeQuery = true)
+    void deleteAllDaily();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO order_revenue_daily (revenue_date, status, order_count, revenue)
+        SELECT CAST(o.order_date AS DATE), o.status, COUNT(*), SUM(o.total_amount)
+        FROM orders o
+        WHERE o.status IN ('SHIPPED', 'DELIVERED')
+        GROUP BY CAST(o.order_date AS DATE), o.status
+        """, nativeQuery = true)
+    int rebuildDaily();
+}
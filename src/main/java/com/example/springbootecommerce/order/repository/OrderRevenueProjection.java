@@ -0,0 +1,14 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+
+/**
+ * Número de órdenes e ingresos de un estado en un rango
+ */
+public interface OrderRevenueProjection {
+    Order.OrderStatus getStatus();
+    Long getOrderCount();
+    BigDecimal getRevenue();
+}
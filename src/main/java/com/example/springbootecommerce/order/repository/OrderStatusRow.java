@@ -0,0 +1,17 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas de una orden necesarias para validar y aplicar un cambio de estado masivo
+ */
+public interface OrderStatusRow {
+    Long getId();
+    Order.OrderStatus getStatus();
+    BigDecimal getTotalAmount();
+    LocalDateTime getOrderDate();
+    String getCustomerEmail();
+}
@@ -0,0 +1,26 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Listados de órdenes como filas resumen: una sola consulta por página, sin cargar
+ * la entidad Order, su usuario ni sus items.
+ */
+public interface OrderSummaryRepository {
+
+    Page<OrderSummaryRow> findSummaries(Specification<Order> spec, Pageable pageable);
+
+    List<OrderSummaryRow> findSummaries(Specification<Order> spec, Sort sort, int limit);
+
+    /**
+     * Recorre todas las filas con un cursor de solo avance (exportaciones); cerrar el Stream al terminar
+     */
+    Stream<OrderSummaryRow> streamSummaries(Specification<Order> spec, Sort sort, int fetchSize);
+}
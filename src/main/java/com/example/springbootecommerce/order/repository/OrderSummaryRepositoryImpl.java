@@ -0,0 +1,60 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.shared.util.CriteriaProjection;
+import com.example.springbootecommerce.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class OrderSummaryRepositoryImpl implements OrderSummaryRepository {
+
+    // Mismas reglas que Order.getCustomerName() / getCustomerEmail(), evaluadas en SQL;
+    // las unidades se leen de orders.total_items (se fijan al crear la orden)
+    private static final CriteriaProjection.Selector<Order, OrderSummaryRow> SUMMARY = (root, query, cb) -> {
+        Join<Order, User> user = root.join("user", JoinType.LEFT);
+
+        Expression<String> customerName = cb.<String>selectCase()
+                .when(cb.isNotNull(user.get("id")),
+                        cb.concat(cb.concat(user.get("firstName"), " "), user.get("lastName")))
+                .when(cb.and(cb.isNotNull(root.get("guestFirstName")), cb.isNotNull(root.get("guestLastName"))),
+                        cb.concat(cb.concat(root.get("guestFirstName"), " "), root.get("guestLastName")))
+                .otherwise("Cliente Anónimo");
+        Expression<String> customerEmail = cb.coalesce(user.<String>get("email"),
+                cb.coalesce(root.<String>get("guestEmail"), ""));
+
+        return cb.construct(OrderSummaryRow.class,
+                root.get("id"), customerName, customerEmail, root.get("totalAmount"),
+                root.get("status"), root.get("orderDate"), root.get("totalItems"));
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<OrderSummaryRow> findSummaries(Specification<Order> spec, Pageable pageable) {
+        return CriteriaProjection.findPage(entityManager, Order.class, OrderSummaryRow.class,
+                spec, pageable, SUMMARY);
+    }
+
+    @Override
+    public List<OrderSummaryRow> findSummaries(Specification<Order> spec, Sort sort, int limit) {
+        return CriteriaProjection.findList(entityManager, Order.class, OrderSummaryRow.class,
+                spec, sort, limit, SUMMARY);
+    }
+
+    @Override
+    public Stream<OrderSummaryRow> streamSummaries(Specification<Order> spec, Sort sort, int fetchSize) {
+        return CriteriaProjection.stream(entityManager, Order.class, OrderSummaryRow.class,
+                spec, sort, fetchSize, SUMMARY);
+    }
+}
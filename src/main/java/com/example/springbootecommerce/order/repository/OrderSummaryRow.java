@@ -0,0 +1,21 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Columnas de una orden en los listados (sin notas, dirección ni relaciones). El cliente
+ * (usuario registrado o invitado) se resuelve en la misma consulta.
+ */
+public record OrderSummaryRow(
+        Long id,
+        String customerName,
+        String customerEmail,
+        BigDecimal totalAmount,
+        Order.OrderStatus status,
+        LocalDateTime orderDate,
+        Integer totalItems
+) {
+}
@@ -0,0 +1,153 @@
+package com.example.springbootecommerce.order.service;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.repository.OrderRepository;
+import com.example.springbootecommerce.order.repository.OrderRevenueDailyRepository;
+import com.example.springbootecommerce.order.repository.OrderRevenueProjection;
+import com.example.springbootecommerce.order.repository.OrderStatusRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Mantiene el rollup diario de ingresos (order_revenue_daily) y resuelve los totales de un rango.
+ * Una orden cuenta como ingreso mientras está SHIPPED o DELIVERED; se suma al día de la orden en
+ * el estado en que entra y se descuenta del estado del que sale. Los deltas son relativos al estado
+ * anterior: solo son correctos si quien los aplica leyó ese estado con la fila de la orden bloqueada
+ * (findByIdWithLock, lockStatusRows, lockPendingOrderIds) hasta el final de su transacción.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderRevenueManager {
+
+    public static final Set<Order.OrderStatus> REVENUE_STATUSES =
+            EnumSet.of(Order.OrderStatus.SHIPPED, Order.OrderStatus.DELIVERED);
+
+    // Último instante representable en timestamp de PostgreSQL (microsegundos)
+    private static final LocalTime END_OF_DAY = LocalTime.MAX.truncatedTo(ChronoUnit.MICROS);
+
+    // Un rango que llega hasta las 23:59:59 cubre el día completo (como el reporte mensual)
+    private static final LocalTime LAST_SECOND = LocalTime.of(23, 59, 59);
+
+    private final OrderRevenueDailyRepository orderRevenueDailyRepository;
+    private final OrderRepository orderRepository;
+
+    /**
+     * Órdenes e ingresos de un estado
+     */
+    public record Totals(long orders, BigDecimal revenue) {
+
+        public static final Totals EMPTY = new Totals(0, BigDecimal.ZERO);
+
+        static Totals of(OrderRevenueProjection row) {
+            return new Totals(row.getOrderCount() != null ? row.getOrderCount() : 0,
+                    row.getRevenue() != null ? row.getRevenue() : BigDecimal.ZERO);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(orders + other.orders, revenue.add(other.revenue));
+        }
+    }
+
+    /**
+     * Aplica al rollup el cambio de estado de una orden (no hace nada si ningún estado cuenta como ingreso).
+     * previousStatus debe haberse leído con la orden bloqueada en la transacción actual.
+     */
+    public void onStatusChange(Order order, Order.OrderStatus previousStatus) {
+        if (previousStatus == order.getStatus()) {
+            return;
+        }
+        LocalDate revenueDate = order.getOrderDate().toLocalDate();
+        if (REVENUE_STATUSES.contains(previousStatus)) {
+            orderRevenueDailyRepository.apply(revenueDate, previousStatus.name(), -1, order.getTotalAmount().negate());
+        }
+        if (REVENUE_STATUSES.contains(order.getStatus())) {
+            orderRevenueDailyRepository.apply(revenueDate, order.getStatus().name(), 1, order.getTotalAmount());
+        }
+    }
+
+    /**
+     * Aplica al rollup un cambio de estado masivo con una sentencia por día de orden, no por orden
+     */
+    public void onBulkStatusChange(List<OrderStatusRow> orders, Order.OrderStatus previousStatus,
+                                   Order.OrderStatus newStatus) {
+        if (previousStatus == newStatus
+                || (!REVENUE_STATUSES.contains(previousStatus) && !REVENUE_STATUSES.contains(newStatus))) {
+            return;
+        }
+        Map<LocalDate, Totals> byDay = new TreeMap<>();
+        for (OrderStatusRow order : orders) {
+            byDay.merge(order.getOrderDate().toLocalDate(), new Totals(1, order.getTotalAmount()), Totals::plus);
+        }
+        byDay.forEach((revenueDate, day) -> {
+            if (REVENUE_STATUSES.contains(previousStatus)) {
+                orderRevenueDailyRepository.apply(revenueDate, previousStatus.name(), -day.orders(), day.revenue().negate());
+            }
+            if (REVENUE_STATUSES.contains(newStatus)) {
+                orderRevenueDailyRepository.apply(revenueDate, newStatus.name(), day.orders(), day.revenue());
+            }
+        });
+    }
+
+    /**
+     * Totales por estado de las órdenes con fecha en [startDate, endDate]. Los días completos se leen del
+     * rollup; solo los días incompletos de los extremos se agregan sobre orders.
+     */
+    public Map<Order.OrderStatus, Totals> getTotals(LocalDateTime startDate, LocalDateTime endDate) {
+        Map<Order.OrderStatus, Totals> totals = new EnumMap<>(Order.OrderStatus.class);
+        REVENUE_STATUSES.forEach(status -> totals.put(status, Totals.EMPTY));
+
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate() : startDate.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = endDate.toLocalTime().isBefore(LAST_SECOND)
+                ? endDate.toLocalDate().minusDays(1) : endDate.toLocalDate();
+
+        if (firstFullDay.isAfter(lastFullDay)) {
+            // Rango menor a un día completo
+            addAll(totals, orderRepository.sumRevenueByStatus(REVENUE_STATUSES, startDate, endDate));
+            return totals;
+        }
+
+        addAll(totals, orderRevenueDailyRepository.sumByStatus(REVENUE_STATUSES, firstFullDay, lastFullDay));
+        if (startDate.isBefore(firstFullDay.atStartOfDay())) {
+            addAll(totals, orderRepository.sumRevenueByStatus(REVENUE_STATUSES,
+                    startDate, firstFullDay.minusDays(1).atTime(END_OF_DAY)));
+        }
+        if (endDate.isAfter(lastFullDay.atTime(END_OF_DAY))) {
+            addAll(totals, orderRepository.sumRevenueByStatus(REVENUE_STATUSES,
+                    lastFullDay.plusDays(1).atStartOfDay(), endDate));
+        }
+        return totals;
+    }
+
+    /**
+     * Recalcula el rollup completo desde orders. Debe ejecutarse en una transacción: la tabla queda
+     * bloqueada para que los cambios de estado concurrentes apliquen su delta sobre el rollup ya recalculado
+     *
+     * @return Número de filas (día, estado) del rollup
+     */
+    public int rebuild() {
+        orderRevenueDailyRepository.lockForRebuild();
+        orderRevenueDailyRepository.deleteAllDaily();
+        int rows = orderRevenueDailyRepository.rebuildDaily();
+        log.info("Rollup de ingresos recalculado. Filas por día y estado: {}", rows);
+        return rows;
+    }
+
+    private void addAll(Map<Order.OrderStatus, Totals> totals, List<OrderRevenueProjection> rows) {
+        rows.forEach(row -> totals.merge(row.getStatus(), Totals.of(row), Totals::plus));
+    }
+}
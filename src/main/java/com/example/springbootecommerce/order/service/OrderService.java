@@ -3,13 +3,17 @@ package com.example.springbootecommerce.order.service;
 import com.example.springbootecommerce.order.dto.*;
 import com.example.springbootecommerce.order.entity.Order;
 import com.example.springbootecommerce.order.repository.specification.OrderSpecification;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
 import com.example.springbootecommerce.user.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -97,6 +101,33 @@ public interface OrderService {
      */
     Page<OrderSummaryDTO> searchOrders(Specification<Order> spec, Pageable pageable);
 
+    /**
+     * Exporta las órdenes que cumplen los filtros escribiéndolas fila a fila en la salida,
+     * con memoria constante independientemente del número de órdenes.
+     *
+     * @param spec   Especificación de filtros (null para todas las órdenes)
+     * @param format Formato de salida (CSV o NDJSON)
+     * @param output Flujo de salida; no se cierra
+     * @return Número de órdenes exportadas
+     * @throws IOException si falla la escritura
+     */
+    long exportOrders(Specification<Order> spec, OrderExportFormat format, OutputStream output) throws IOException;
+
+    /**
+     * Lista órdenes con paginación por cursor (keyset), sin OFFSET ni COUNT(*).
+     * Admite ordenar por orderDate y totalAmount, con el id como desempate.
+     *
+     * @param spec         Especificación de filtros (null para todas las órdenes)
+     * @param sortBy       Campo de ordenamiento
+     * @param direction    Dirección del ordenamiento
+     * @param cursor       Cursor devuelto por la página anterior (null para la primera)
+     * @param size         Tamaño de la página
+     * @param includeTotal Si es true se calcula también el total de coincidencias
+     * @return Porción de OrderSummaryDTO con el cursor de la siguiente página
+     */
+    SliceResponse<OrderSummaryDTO> scrollOrders(Specification<Order> spec, String sortBy, Sort.Direction direction,
+                                                String cursor, int size, boolean includeTotal);
+
     /**
      * Obtiene órdenes de un usuario filtradas por estado específico
      *
@@ -151,13 +182,13 @@ public interface OrderService {
 
     /**
      * Marca múltiples órdenes como enviadas en lote
-     * Útil para procesamiento masivo de envíos
+     * Las órdenes se leen con una sola consulta y se actualizan con una sola sentencia; las que no
+     * existen o no están confirmadas se informan en el resultado sin afectar al resto
      *
      * @param orderIds Lista de IDs de órdenes a marcar como enviadas
-     * @return Lista de OrderDTO actualizadas
-     * @throws BusinessException Si alguna orden no puede ser enviada
+     * @return BulkShipResultDTO con las órdenes enviadas y el motivo de cada fallo
      */
-    List<OrderDTO> markOrdersAsShipped(List<Long> orderIds);
+    BulkShipResultDTO markOrdersAsShipped(List<Long> orderIds);
 
     // ========================================================================
     // REPORTES Y ESTADÍSTICAS - MÉTODOS DE ANÁLISIS
@@ -173,6 +204,13 @@ public interface OrderService {
      */
     RevenueReportDTO getRevenuesReport(LocalDateTime startDate, LocalDateTime endDate);
 
+    /**
+     * Recalcula desde cero el rollup diario de ingresos a partir del historial de órdenes.
+     *
+     * @return Número de filas (día, estado) del rollup
+     */
+    int rebuildRevenueRollup();
+
     /**
      * Obtiene estadísticas generales del sistema de órdenes
      * Incluye conteos por estado y totales
@@ -181,6 +219,13 @@ public interface OrderService {
      */
     OrderStatsDTO getOrdersStatistics();
 
+    /**
+     * Métricas de los contadores en memoria: conciliaciones con la base de datos y drift corregido
+     *
+     * @return OrderCountersStatsDTO con las métricas de conciliación
+     */
+    OrderCountersStatsDTO getCountersStats();
+
     /**
      * Encuentra órdenes que requieren atención por tiempo transcurrido
      * Órdenes confirmadas listas para envío y enviadas pendientes de entrega
@@ -0,0 +1,267 @@
+package com.example.springbootecommerce.order.service;
+
+import com.example.springbootecommerce.order.dto.OrderCountersStatsDTO;
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.repository.OrderRepository;
+import com.example.springbootecommerce.order.repository.OrderRevenueProjection;
+import com.example.springbootecommerce.order.repository.OrderStatusRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de órdenes por estado y de ingresos del mes en curso (órdenes SHIPPED o
+ * DELIVERED con fecha en el mes). Se actualizan al confirmar cada transacción que crea una orden o
+ * cambia su estado, y se concilian periódicamente con la base de datos; la diferencia encontrada
+ * (drift) se aplica como corrección y queda registrada en las métricas.
+ */
+@Slf4j
+@Component
+public class OrderStatusCounters {
+
+    private final OrderRepository orderRepository;
+    private final OrderRevenueManager orderRevenueManager;
+
+    private final Map<Order.OrderStatus, LongAdder> counts = new EnumMap<>(Order.OrderStatus.class);
+    private volatile MonthlyTotals monthly = new MonthlyTotals(YearMonth.now());
+    private volatile boolean loaded;
+
+    // Transacciones con cambios registrados que aún no terminan, y cambios ya aplicados en memoria
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong applied = new AtomicLong();
+
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder skippedReconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private final LongAdder absoluteDrift = new LongAdder();
+    private volatile long lastDrift;
+    private volatile LocalDateTime lastReconciledAt;
+
+    public OrderStatusCounters(OrderRepository orderRepository, OrderRevenueManager orderRevenueManager) {
+        this.orderRepository = orderRepository;
+        this.orderRevenueManager = orderRevenueManager;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Órdenes e ingresos (en céntimos) del mes en curso
+     */
+    private static final class MonthlyTotals {
+        final YearMonth month;
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+
+        MonthlyTotals(YearMonth month) {
+            this.month = month;
+        }
+    }
+
+    /**
+     * Instantánea de los contadores
+     */
+    public record Snapshot(Map<Order.OrderStatus, Long> counts, long monthlyOrders, BigDecimal monthlyRevenue) {
+
+        public long count(Order.OrderStatus status) {
+            return counts.getOrDefault(status, 0L);
+        }
+
+        public long total() {
+            return counts.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    /**
+     * Registra una orden nueva en su estado actual
+     */
+    public void onCreated(Order order) {
+        Order.OrderStatus status = order.getStatus();
+        LocalDateTime orderDate = order.getOrderDate();
+        BigDecimal amount = order.getTotalAmount();
+        afterCommit(() -> {
+            counts.get(status).increment();
+            addMonthly(status, orderDate, amount, 1);
+        });
+    }
+
+    /**
+     * Mueve una orden de previousStatus a su estado actual. previousStatus debe haberse leído con la
+     * orden bloqueada; si no, la conciliación periódica corrige el drift.
+     */
+    public void onStatusChange(Order order, Order.OrderStatus previousStatus) {
+        Order.OrderStatus status = order.getStatus();
+        if (previousStatus == status) {
+            return;
+        }
+        LocalDateTime orderDate = order.getOrderDate();
+        BigDecimal amount = order.getTotalAmount();
+        afterCommit(() -> {
+            counts.get(previousStatus).decrement();
+            counts.get(status).increment();
+            addMonthly(previousStatus, orderDate, amount, -1);
+            addMonthly(status, orderDate, amount, 1);
+        });
+    }
+
+    /**
+     * Mueve orders órdenes de un estado a otro (actualizaciones masivas sin entidades cargadas).
+     * Estados sin ingresos: no afecta a los totales del mes.
+     */
+    public void onBulkTransition(Order.OrderStatus from, Order.OrderStatus to, int orders) {
+        if (orders == 0 || from == to) {
+            return;
+        }
+        afterCommit(() -> {
+            counts.get(from).add(-orders);
+            counts.get(to).add(orders);
+        });
+    }
+
+    /**
+     * Mueve un lote de órdenes de previousStatus a newStatus (cambios de estado masivos)
+     */
+    public void onBulkStatusChange(List<OrderStatusRow> orders, Order.OrderStatus previousStatus,
+                                   Order.OrderStatus newStatus) {
+        if (orders.isEmpty() || previousStatus == newStatus) {
+            return;
+        }
+        List<OrderStatusRow> moved = List.copyOf(orders);
+        afterCommit(() -> {
+            counts.get(previousStatus).add(-moved.size());
+            counts.get(newStatus).add(moved.size());
+            for (OrderStatusRow order : moved) {
+                addMonthly(previousStatus, order.getOrderDate(), order.getTotalAmount(), -1);
+                addMonthly(newStatus, order.getOrderDate(), order.getTotalAmount(), 1);
+            }
+        });
+    }
+
+    /**
+     * Contadores actuales. Solo consulta la base de datos en la primera lectura y al cambiar de mes.
+     */
+    public Snapshot snapshot() {
+        if (!loaded || !monthly.month.equals(YearMonth.now())) {
+            reconcile();
+        }
+        Map<Order.OrderStatus, Long> current = new EnumMap<>(Order.OrderStatus.class);
+        counts.forEach((status, adder) -> current.put(status, adder.sum()));
+        MonthlyTotals totals = monthly;
+        return new Snapshot(current, totals.orders.sum(), BigDecimal.valueOf(totals.revenueCents.sum(), 2));
+    }
+
+    /**
+     * Compara los contadores con la base de datos y corrige la diferencia. Si durante la lectura
+     * había transacciones sin terminar, la conciliación se omite (el drift sería aparente) salvo
+     * en la carga inicial y al cambiar de mes.
+     *
+     * @return Drift absoluto corregido, o -1 si se omitió
+     */
+    public synchronized long reconcile() {
+        boolean force = !loaded || !monthly.month.equals(YearMonth.now());
+        long appliedBefore = applied.get();
+        if (!force && inFlight.get() > 0) {
+            skippedReconciliations.increment();
+            return -1;
+        }
+
+        YearMonth month = YearMonth.now();
+        Map<Order.OrderStatus, Long> dbCounts = new EnumMap<>(Order.OrderStatus.class);
+        for (OrderRevenueProjection row : orderRepository.sumAllByStatus()) {
+            dbCounts.put(row.getStatus(), row.getOrderCount());
+        }
+        Map<Order.OrderStatus, OrderRevenueManager.Totals> dbMonthly = orderRevenueManager.getTotals(
+                month.atDay(1).atStartOfDay(), month.atEndOfMonth().atTime(23, 59, 59));
+        long dbMonthlyOrders = dbMonthly.values().stream().mapToLong(OrderRevenueManager.Totals::orders).sum();
+        long dbMonthlyCents = dbMonthly.values().stream()
+                .map(OrderRevenueManager.Totals::revenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .movePointRight(2).longValue();
+
+        if (!force && (inFlight.get() > 0 || applied.get() != appliedBefore)) {
+            skippedReconciliations.increment();
+            return -1;
+        }
+
+        if (!month.equals(monthly.month)) {
+            monthly = new MonthlyTotals(month);
+        }
+        MonthlyTotals totals = monthly;
+        long drift = 0;
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            LongAdder adder = counts.get(status);
+            long diff = dbCounts.getOrDefault(status, 0L) - adder.sum();
+            adder.add(diff);
+            drift += Math.abs(diff);
+        }
+        long monthlyDiff = dbMonthlyOrders - totals.orders.sum();
+        totals.orders.add(monthlyDiff);
+        totals.revenueCents.add(dbMonthlyCents - totals.revenueCents.sum());
+        drift += Math.abs(monthlyDiff);
+
+        reconciliations.increment();
+        lastReconciledAt = LocalDateTime.now();
+        lastDrift = loaded ? drift : 0;
+        if (loaded && drift > 0) {
+            corrections.increment();
+            absoluteDrift.add(drift);
+            log.warn("Contadores de órdenes corregidos al conciliar con la base de datos. Drift: {}", drift);
+        }
+        loaded = true;
+        return drift;
+    }
+
+    public OrderCountersStatsDTO getStats() {
+        return OrderCountersStatsDTO.builder()
+                .reconciliations(reconciliations.sum())
+                .skippedReconciliations(skippedReconciliations.sum())
+                .corrections(corrections.sum())
+                .totalDrift(absoluteDrift.sum())
+                .lastDrift(lastDrift)
+                .lastReconciledAt(lastReconciledAt)
+                .build();
+    }
+
+    private void addMonthly(Order.OrderStatus status, LocalDateTime orderDate, BigDecimal amount, int sign) {
+        MonthlyTotals totals = monthly;
+        if (!OrderRevenueManager.REVENUE_STATUSES.contains(status)
+                || orderDate == null || !YearMonth.from(orderDate).equals(totals.month)) {
+            return;
+        }
+        totals.orders.add(sign);
+        totals.revenueCents.add(sign * amount.movePointRight(2).longValue());
+    }
+
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(update);
+            return;
+        }
+        inFlight.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    apply(update);
+                }
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private void apply(Runnable update) {
+        update.run();
+        applied.incrementAndGet();
+    }
+}
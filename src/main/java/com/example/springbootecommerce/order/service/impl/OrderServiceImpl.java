@@ -6,38 +6,69 @@ import com.example.springbootecommerce.cart.mapper.CartMapper;
 import com.example.springbootecommerce.cart.service.CartManager;
 import com.example.springbootecommerce.cart.service.CartService;
 import com.example.springbootecommerce.inventory.service.StockManager;
+import com.example.springbootecommerce.inventory.service.StockReservationManager;
+import com.example.springbootecommerce.notification.dto.NotificationEventDTO;
 import com.example.springbootecommerce.notification.service.EmailService;
 import com.example.springbootecommerce.order.dto.*;
 import com.example.springbootecommerce.order.entity.Order;
 import com.example.springbootecommerce.order.entity.OrderItem;
 import com.example.springbootecommerce.order.mapper.OrderMapper;
 import com.example.springbootecommerce.order.repository.OrderRepository;
+import com.example.springbootecommerce.order.repository.OrderStatusRow;
+import com.example.springbootecommerce.order.repository.OrderSummaryRow;
+import com.example.springbootecommerce.order.repository.specification.OrderSpecification;
+import com.example.springbootecommerce.order.service.OrderRevenueManager;
 import com.example.springbootecommerce.order.service.OrderService;
+import com.example.springbootecommerce.order.service.OrderStatusCounters;
+import com.example.springbootecommerce.payment.entity.Payment;
 import com.example.springbootecommerce.payment.service.PaymentService;
 import com.example.springbootecommerce.product.entity.Producto;
 import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.service.ProductoSalesStatsManager;
 import com.example.springbootecommerce.product.service.ProductoService;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import com.example.springbootecommerce.shared.util.KeysetCursor;
 import com.example.springbootecommerce.user.entity.Address;
 import com.example.springbootecommerce.user.entity.User;
 import com.example.springbootecommerce.user.repository.AddressRepository;
 import com.example.springbootecommerce.user.service.AddressValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.weaver.ast.Or;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cglib.core.Local;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -51,10 +82,22 @@ public class OrderServiceImpl implements OrderService {
     private final EmailService emailService;
     private final ProductoService productoService;
     private final ProductoRepository productoRepository;
+    private final ProductoSalesStatsManager productoSalesStatsManager;
+    private final OrderRevenueManager orderRevenueManager;
+    private final OrderStatusCounters orderStatusCounters;
 
     private final CartManager cartManager;
     private final StockManager stockManager;
+    private final StockReservationManager stockReservationManager;
     private final AddressValidator addressValidator;
+    private final ObjectMapper objectMapper;
+    private final AuditorAware<String> auditorAware;
+
+    private static final String[] EXPORT_COLUMNS = {
+            "id", "customerName", "customerEmail", "totalAmount", "status", "orderDate", "totalItems"};
+
+    @Value("${app.order.export.fetch-size:500}")
+    private int exportFetchSize;
 
     // ========================================================================
     // PROCESAMIENTO DE ÓRDENES - MÉTODOS TRANSACCIONALES CRÍTICOS
@@ -84,11 +127,15 @@ public class OrderServiceImpl implements OrderService {
             Order order = createOrderEntity(user, cart, shippingAddress, createOrderDTO);
 
             // 5. Procesar el pago
-            paymentService.processPayment(order, createOrderDTO.getPaymentMethod());
+            Payment payment = paymentService.processPayment(order, createOrderDTO.getPaymentMethod());
 
-            // 6. Confirmar la orden y reducir stock definitivamente
-            order.markAsConfirmed();
+            // 6. Confirmar la orden; si el pago fue rechazado queda PENDING con el stock retenido
+            boolean confirmed = confirmOrHoldStock(order, payment);
             Order savedOrder = orderRepository.save(order);
+            orderStatusCounters.onCreated(savedOrder);
+            if (!confirmed) {
+                return orderMapper.toOrderDTO(savedOrder);
+            }
 
             // 7. Vaciar el carrito del usuario
             cartManager.clearUserCart(user);
@@ -112,21 +159,28 @@ public class OrderServiceImpl implements OrderService {
         log.info("Iniciando proceso de orden para invitado : {}", createGuestOrderDTO.getGuestEmail());
 
         try {
-            // 1. Validar items del carrito invitado
-            List<CartItem> guestCartItems = validateGuestCartItems(createGuestOrderDTO.getCartItems());
+            // 1. Validar items del carrito invitado (una sola consulta de productos)
+            Map<Long, Producto> productos = validateGuestCartItems(createGuestOrderDTO.getCartItems());
+            List<CartItem> guestCartItems = createGuestOrderDTO.getCartItems().stream()
+                    .map(item -> new CartItem(productos.get(item.getProductId()), item.getQuantity()))
+                    .toList();
 
-            // 2. Validar y reservar stock
-            validateAndReserveStockForGuestItems(guestCartItems);
+            // 2. Validar y reservar stock sobre los mismos productos
+            stockManager.reserveStock(guestCartItems, productos);
 
             // 3. Crear orden para invitado
             Order order = createGuestOrder(createGuestOrderDTO, guestCartItems);
 
             // 4. Procesar pago
-            paymentService.processPayment(order, createGuestOrderDTO.getPaymentMethod());
+            Payment payment = paymentService.processPayment(order, createGuestOrderDTO.getPaymentMethod());
 
-            // 5. Confirmar orden
-            order.markAsConfirmed();
+            // 5. Confirmar orden; si el pago fue rechazado queda PENDING con el stock retenido
+            boolean confirmed = confirmOrHoldStock(order, payment);
             Order savedOrder = orderRepository.save(order);
+            orderStatusCounters.onCreated(savedOrder);
+            if (!confirmed) {
+                return orderMapper.toOrderDTO(savedOrder);
+            }
 
             // 6. Enviar notificación
             sendOrderConfirmation(savedOrder);
@@ -162,13 +216,14 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Page<OrderSummaryDTO> getUserOrders(User user, Pageable pageable) {
-        Page<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(user.getId(), pageable);
+        Page<OrderSummaryRow> orders = orderRepository.findSummaries(OrderSpecification.userId(user.getId()),
+                newestFirst(pageable));
         return orders.map(orderMapper::toSummaryDTO);
     }
 
     @Override
     public Page<OrderSummaryDTO> getAllOrders(Pageable pageable) {
-        Page<Order> orders = orderRepository.findAll(pageable);
+        Page<OrderSummaryRow> orders = orderRepository.findSummaries(null, pageable);
         return orders.map(orderMapper::toSummaryDTO);
     }
 
@@ -180,15 +235,71 @@ public class OrderServiceImpl implements OrderService {
     public Page<OrderSummaryDTO> searchOrders(Specification<Order> spec, Pageable pageable) {
         log.debug("Buscando ordenes con Specification: {}", spec);
 
-        Page<Order> orders = orderRepository.findAll(spec, pageable);
+        Page<OrderSummaryRow> orders = orderRepository.findSummaries(spec, pageable);
         return orders.map(orderMapper::toSummaryDTO);
     }
 
+    @Override
+    public long exportOrders(Specification<Order> spec, OrderExportFormat format, OutputStream output)
+            throws IOException {
+        log.info("Exportando órdenes en formato {}", format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        if (format == OrderExportFormat.CSV) {
+            writer.write(String.join(",", EXPORT_COLUMNS));
+            writer.write('\n');
+        }
+
+        long exported = 0;
+        // Cursor de solo avance en orden de id; las filas resumen no quedan en el contexto de persistencia
+        try (Stream<OrderSummaryRow> rows = orderRepository.streamSummaries(spec, Sort.by("id"), exportFetchSize)) {
+            Iterator<OrderSummaryRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OrderSummaryDTO order = orderMapper.toSummaryDTO(iterator.next());
+                writer.write(format == OrderExportFormat.CSV ? toCsvLine(order) : objectMapper.writeValueAsString(order));
+                writer.write('\n');
+                if (++exported % exportFetchSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+
+        log.info("Exportación de órdenes finalizada. Órdenes exportadas: {}", exported);
+        return exported;
+    }
+
+    @Override
+    public SliceResponse<OrderSummaryDTO> scrollOrders(Specification<Order> spec, String sortBy, Sort.Direction direction,
+                                                       String cursor, int size, boolean includeTotal) {
+        log.debug("Listando ordenes por cursor - orden: {} {}", sortBy, direction);
+
+        Specification<Order> seek = switch (sortBy) {
+            case "orderDate" -> KeysetCursor.after(cursor, sortBy, direction, "orderDate", LocalDateTime::parse);
+            case "totalAmount" -> KeysetCursor.after(cursor, sortBy, direction, "totalAmount", BigDecimal::new);
+            default -> throw new BusinessException("Campo de ordenamiento no válido para paginación por cursor: " + sortBy);
+        };
+        Specification<Order> filters = Specification.where(spec);
+        List<OrderSummaryRow> orders = orderRepository.findSummaries(filters.and(seek),
+                KeysetCursor.sort(sortBy, direction), size + 1);
+
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            OrderSummaryRow last = orders.get(size - 1);
+            Object value = "orderDate".equals(sortBy) ? last.orderDate() : last.totalAmount();
+            nextCursor = KeysetCursor.encode(sortBy, direction, value, last.id());
+        }
+        Long total = includeTotal ? orderRepository.count(filters) : null;
+
+        return SliceResponse.of(orders.stream().map(orderMapper::toSummaryDTO).toList(), size, nextCursor, total);
+    }
+
     @Override
     public Page<OrderSummaryDTO> getUserOrdersByStatus(User user, Order.OrderStatus status, Pageable pageable) {
         log.debug("Buscando ordenes de usuario : {} con estado: {}", user.getEmail(), status);
-        Page<Order> orders = orderRepository.findByUserIdAndStatusOrderByOrderDateDesc(
-                user.getId(), status, pageable);
+        Page<OrderSummaryRow> orders = orderRepository.findSummaries(
+                OrderSpecification.userId(user.getId()).and(OrderSpecification.status(status)),
+                newestFirst(pageable));
         return orders.map(orderMapper::toSummaryDTO);
     }
 
@@ -196,9 +307,9 @@ public class OrderServiceImpl implements OrderService {
     public Page<OrderSummaryDTO> getGuestOrdersByEmailAndDateRange(String guestEmail, LocalDateTime startDate,
                                                                    LocalDateTime endDate, Pageable pageable) {
         log.debug("Obteniendo órdenes de invitado {} entre fechas: {} y {}", guestEmail, startDate, endDate);
-        Page<Order> orders = orderRepository.findByGuestEmailAndOrderDateBetween(
-                guestEmail, startDate, endDate, pageable
-        );
+        Page<OrderSummaryRow> orders = orderRepository.findSummaries(
+                OrderSpecification.guestEmail(guestEmail).and(OrderSpecification.orderDateBetween(startDate, endDate)),
+                pageable);
         return orders.map(orderMapper::toSummaryDTO);
     }
 
@@ -206,7 +317,8 @@ public class OrderServiceImpl implements OrderService {
     public OrderDTO updateOrderStatus(Long orderId, UpdateOrderStatusDTO updateStatusDTO) {
         log.info("Actualizando estado de orden con ID: {} a estado: {}", orderId, updateStatusDTO.getStatus());
 
-        Order order = orderRepository.findById(orderId)
+        // Fila bloqueada hasta el final de la transacción: la transición se valida sobre el estado vigente
+        Order order = orderRepository.findByIdWithLock(orderId)
                 .orElseThrow(() -> new BusinessException("Orden no encontrada"));
 
         Order.OrderStatus newStatus;
@@ -217,7 +329,8 @@ public class OrderServiceImpl implements OrderService {
         }
 
         // Validar transiciones de estado válidas
-        validateStatusTransition(order.getStatus(), newStatus);
+        Order.OrderStatus previousStatus = order.getStatus();
+        validateStatusTransition(previousStatus, newStatus);
 
         // Actualizar estado
         switch (newStatus) {
@@ -238,10 +351,14 @@ public class OrderServiceImpl implements OrderService {
                     throw new BusinessException("No se puede marcar como cancelada la orden con ID: " + orderId);
                 }
                 // Restaurar el stock de la orden
+                stockReservationManager.clear(orderId);
                 restoreStockForCancelledOrder(order);
                 order.markAsCancelled();
                 break;
             default:
+                if (newStatus == Order.OrderStatus.CONFIRMED) {
+                    stockReservationManager.clear(orderId);
+                }
                 order.setStatus(newStatus);
         }
         if (updateStatusDTO.getNotes() != null) {
@@ -249,6 +366,9 @@ public class OrderServiceImpl implements OrderService {
         }
 
         Order savedOrder = orderRepository.save(order);
+        productoSalesStatsManager.onStatusChange(savedOrder, previousStatus);
+        orderRevenueManager.onStatusChange(savedOrder, previousStatus);
+        orderStatusCounters.onStatusChange(savedOrder, previousStatus);
 
         // Enviar notificación de cambio de estado
         emailService.sendOrderStatusUpdate(savedOrder);
@@ -262,7 +382,8 @@ public class OrderServiceImpl implements OrderService {
     public OrderDTO cancelOrder(Long orderId, String reason) {
         log.info("Cancelando orden con ID: {}", orderId);
 
-        Order order = orderRepository.findById(orderId)
+        // Bloqueo de la fila: evita restaurar dos veces el stock si el barrido de reservas la cancela a la vez
+        Order order = orderRepository.findByIdWithLock(orderId)
                 .orElseThrow(() -> new BusinessException("Orden no encontrada" + orderId));
 
         if (!order.canBeCancelled()) {
@@ -270,11 +391,16 @@ public class OrderServiceImpl implements OrderService {
                     ". Estado: " + order.getStatus());
         }
 
-        // Restaurar el stock de la orden
+        // Restaurar el stock de la orden (y descartar la reserva temporal si seguía vigente)
+        stockReservationManager.clear(orderId);
         restoreStockForCancelledOrder(order);
 
         // Marcar la orden como cancelada
+        Order.OrderStatus previousStatus = order.getStatus();
         order.markAsCancelled();
+        productoSalesStatsManager.onStatusChange(order, previousStatus);
+        orderRevenueManager.onStatusChange(order, previousStatus);
+        orderStatusCounters.onStatusChange(order, previousStatus);
 
         // Agregar notas sobre la cancelación
         String cancelNote = String.format("[%s] Orden cancelada. Motivo: %s",
@@ -296,66 +422,71 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public List<OrderDTO> markOrdersAsShipped(List<Long> orderIds) {
-        log.info("Marcando ordenes con IDs: {} como entregadas", orderIds);
-
-        List<OrderDTO> shippedOrders = new ArrayList<>();
-        List<String> errors = new ArrayList<>();
-
-        for (Long orderId : orderIds) {
-            try {
-                Order order = orderRepository.findById(orderId)
-                        .orElseThrow(() -> new BusinessException("Orden no encontrada" + orderId));
-
-                if (!order.canBeShipped()) {
-                    throw new BusinessException("No se puede marcar como entregado la orden con ID: " + orderId);
-                }
-
-                order.markAsShipped();
-                Order savedOrder = orderRepository.save(order);
-                shippedOrders.add(orderMapper.toOrderDTO(savedOrder));
-
-                // Enviar notificación
-                try {
-                    emailService.sendOrderStatusUpdate(savedOrder);
-                } catch (Exception e) {
-                    log.error("Enviando notificación de entrega para la orden ID: {}", orderId);
-                }
-            } catch (Exception e) {
-                log.error("Error al marcar orden con ID: {} como entregada: {}", orderId, e.getMessage());
-                errors.add("Error al marcar orden con ID: " + orderId + " como entregada: " + e.getMessage());
+    public BulkShipResultDTO markOrdersAsShipped(List<Long> orderIds) {
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        log.info("Marcando {} órdenes como enviadas", requested.size());
+
+        // Una sola consulta: las órdenes quedan bloqueadas hasta el final de la transacción
+        Map<Long, OrderStatusRow> orders = new HashMap<>();
+        orderRepository.lockStatusRows(requested.toArray(Long[]::new))
+                .forEach(row -> orders.put(row.getId(), row));
+
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<OrderStatusRow> toShip = new ArrayList<>();
+        for (Long orderId : requested) {
+            OrderStatusRow order = orders.get(orderId);
+            if (order == null) {
+                failures.put(orderId, "Orden no encontrada");
+            } else if (order.getStatus() != Order.OrderStatus.CONFIRMED) {
+                failures.put(orderId, "No se puede enviar una orden en estado " + order.getStatus().getDisplayName());
+            } else {
+                toShip.add(order);
             }
         }
-        if (!errors.isEmpty()) {
-            log.warn("Se han producido errores al marcar las ordenes: {}", errors);
-            throw new BusinessException("Se han producido errores al marcar las ordenes: " + errors);
+
+        List<Long> shippedIds = toShip.stream().map(OrderStatusRow::getId).toList();
+        if (!shippedIds.isEmpty()) {
+            // UPDATE masivo: no pasa por la auditoría de JPA, los campos de auditoría se escriben en la sentencia
+            orderRepository.markShipped(shippedIds.toArray(Long[]::new), LocalDateTime.now(),
+                    auditorAware.getCurrentAuditor().orElse("SYSTEM"));
+            productoSalesStatsManager.onBulkStatusChange(shippedIds,
+                    Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED);
+            orderRevenueManager.onBulkStatusChange(toShip, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED);
+            orderStatusCounters.onBulkStatusChange(toShip, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED);
+            queueStatusNotifications(toShip, Order.OrderStatus.SHIPPED);
+        }
+
+        if (!failures.isEmpty()) {
+            log.warn("{} órdenes no se pudieron marcar como enviadas: {}", failures.size(), failures);
         }
-        return shippedOrders;
+        log.info("Órdenes marcadas como enviadas: {} de {}", shippedIds.size(), requested.size());
+        return BulkShipResultDTO.builder()
+                .requested(requested.size())
+                .shipped(shippedIds.size())
+                .failed(failures.size())
+                .shippedOrderIds(shippedIds)
+                .failures(failures)
+                .build();
     }
 
     @Override
     public RevenueReportDTO getRevenuesReport(LocalDateTime startDate, LocalDateTime endDate) {
         log.debug("Generando reporte de ventas entre fechas: {} y {}", startDate, endDate);
 
-        //Obtener estadísticas de la base de datos
-        List<Order> deliveredOrders = orderRepository.findByStatusAndOrderDateBetween(
-                Order.OrderStatus.DELIVERED, startDate, endDate);
-
-        List<Order> shippedOrders = orderRepository.findByStatusAndOrderDateBetween(
-                Order.OrderStatus.SHIPPED, startDate, endDate);
-
-        // Calcular totales
-        BigDecimal deliveredRevenue = deliveredOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (endDate.isBefore(startDate)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
 
-        BigDecimal shippedRevenue = shippedOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Días completos desde el rollup diario; los extremos incompletos, agregados en la base de datos
+        Map<Order.OrderStatus, OrderRevenueManager.Totals> totals = orderRevenueManager.getTotals(startDate, endDate);
+        OrderRevenueManager.Totals delivered = totals.get(Order.OrderStatus.DELIVERED);
+        OrderRevenueManager.Totals shipped = totals.get(Order.OrderStatus.SHIPPED);
 
+        BigDecimal deliveredRevenue = delivered.revenue();
+        BigDecimal shippedRevenue = shipped.revenue();
         BigDecimal totalRevenue = deliveredRevenue.add(shippedRevenue);
 
-        int totalOrders = deliveredOrders.size() + shippedOrders.size();
+        int totalOrders = Math.toIntExact(delivered.orders() + shipped.orders());
         BigDecimal averageOrderValue  = totalOrders > 0 ?
                 totalRevenue.divide(BigDecimal.valueOf(totalOrders), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
 
@@ -366,42 +497,49 @@ public class OrderServiceImpl implements OrderService {
                 .deliveredRevenue(deliveredRevenue)
                 .shippedRevenue(shippedRevenue)
                 .totalOrders(totalOrders)
-                .deliveredOrders(deliveredOrders.size())
-                .shippedOrders(shippedOrders.size())
+                .deliveredOrders(Math.toIntExact(delivered.orders()))
+                .shippedOrders(Math.toIntExact(shipped.orders()))
                 .averageOrderValue(averageOrderValue)
                 .build();
     }
 
+
+    @Override
+    @Transactional
+    public int rebuildRevenueRollup() {
+        return orderRevenueManager.rebuild();
+    }
+
     @Override
     public OrderStatsDTO getOrdersStatistics() {
         log.debug("Generando estadísticas generales de ordenes");
 
-        // Contar ordenes por estado
-        long totalOrders = orderRepository.count();
-        long pendingOrders = orderRepository.countByStatus(Order.OrderStatus.PENDING);
-        long confirmedOrders = orderRepository.countByStatus(Order.OrderStatus.CONFIRMED);
-        long shippedOrders = orderRepository.countByStatus(Order.OrderStatus.SHIPPED);
-        long deliveredOrders = orderRepository.countByStatus(Order.OrderStatus.DELIVERED);
-        long cancelledOrders = orderRepository.countByStatus(Order.OrderStatus.CANCELLED);
-
-        // Obtener ingresos del mes actual
-        LocalDateTime startOfMonth = LocalDateTime.now().withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0);
-        LocalDateTime endOfMonth = startOfMonth.plusMonths(1).minusSeconds(1);
+        // Contadores en memoria: sin consultas a la base de datos
+        OrderStatusCounters.Snapshot counters = orderStatusCounters.snapshot();
+        long monthlyOrders = counters.monthlyOrders();
+        BigDecimal monthlyRevenue = counters.monthlyRevenue();
+        BigDecimal averageOrderValue = monthlyOrders > 0 ?
+                monthlyRevenue.divide(BigDecimal.valueOf(monthlyOrders), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
 
-        RevenueReportDTO revenueReport = getRevenuesReport(startOfMonth, endOfMonth);
         return OrderStatsDTO.builder()
-                .totalOrders(totalOrders)
-                .pendingOrders(pendingOrders)
-                .confirmedOrders(confirmedOrders)
-                .shippedOrders(shippedOrders)
-                .deliveredOrders(deliveredOrders)
-                .cancelledOrders(cancelledOrders)
-                .monthlyRevenue(revenueReport.getTotalRevenue())
-                .monthlyOrderCount(revenueReport.getTotalOrders())
-                .averageOrderValue(revenueReport.getAverageOrderValue())
+                .totalOrders(counters.total())
+                .pendingOrders(counters.count(Order.OrderStatus.PENDING))
+                .confirmedOrders(counters.count(Order.OrderStatus.CONFIRMED))
+                .shippedOrders(counters.count(Order.OrderStatus.SHIPPED))
+                .deliveredOrders(counters.count(Order.OrderStatus.DELIVERED))
+                .cancelledOrders(counters.count(Order.OrderStatus.CANCELLED))
+                .monthlyRevenue(monthlyRevenue)
+                .monthlyOrderCount(Math.toIntExact(monthlyOrders))
+                .averageOrderValue(averageOrderValue)
                 .build();
     }
 
+
+    @Override
+    public OrderCountersStatsDTO getCountersStats() {
+        return orderStatusCounters.getStats();
+    }
+
     @Override
     public ActionRequiredOrdersDTO getOrdersRequiringAction() {
         log.debug("Obteniendo órdenes que requieren atención");
@@ -411,16 +549,13 @@ public class OrderServiceImpl implements OrderService {
         LocalDateTime oneWeekAgo = now.minusWeeks(1);
 
         // Órdenes confirmadas que llevan más de 3 días sin enviar
-        List<Order> readyToShipOrders = orderRepository.findByStatusAndOrderDateBefore(
-                Order.OrderStatus.CONFIRMED, threeDaysAgo);
+        List<OrderSummaryRow> readyToShipOrders = findSummariesBefore(Order.OrderStatus.CONFIRMED, threeDaysAgo);
 
-        List<Order> pendingDeliveryOrders = orderRepository.findByStatusAndOrderDateBefore(
-                Order.OrderStatus.SHIPPED, oneWeekAgo);
+        List<OrderSummaryRow> pendingDeliveryOrders = findSummariesBefore(Order.OrderStatus.SHIPPED, oneWeekAgo);
 
         // Órdenes pendientes que llevan más de 24 horas sin confirmar
         LocalDateTime oneDayAgo = now.minusDays(1);
-        List<Order> pendingConfirmationOrders = orderRepository.findByStatusAndOrderDateBefore(
-                Order.OrderStatus.PENDING, oneDayAgo);
+        List<OrderSummaryRow> pendingConfirmationOrders = findSummariesBefore(Order.OrderStatus.PENDING, oneDayAgo);
 
         return ActionRequiredOrdersDTO.builder()
                 .readyToShipOrders(readyToShipOrders.stream()
@@ -532,6 +667,46 @@ public class OrderServiceImpl implements OrderService {
     // MÉTODOS PRIVADOS DE VALIDACIÓN Y PROCESAMIENTO
     // ========================================================================
 
+    /**
+     * Mismo orden que los antiguos métodos derivados ...OrderByOrderDateDesc: más recientes primero
+     * y después el orden del Pageable
+     */
+    private Pageable newestFirst(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "orderDate").and(pageable.getSort()));
+    }
+
+    private List<OrderSummaryRow> findSummariesBefore(Order.OrderStatus status, LocalDateTime cutoff) {
+        return orderRepository.findSummaries(
+                OrderSpecification.status(status).and(OrderSpecification.orderDateBefore(cutoff)),
+                Pageable.unpaged()).getContent();
+    }
+
+    private String toCsvLine(OrderSummaryDTO order) {
+        return String.join(",",
+                String.valueOf(order.getId()),
+                csv(order.getCustomerName()),
+                csv(order.getCustomerEmail()),
+                order.getTotalAmount() != null ? order.getTotalAmount().toPlainString() : "",
+                csv(order.getStatus()),
+                order.getOrderDate() != null ? order.getOrderDate().toString() : "",
+                order.getTotalItems() != null ? String.valueOf(order.getTotalItems()) : "");
+    }
+
+    // Comillas solo cuando el valor contiene separadores, comillas o saltos de línea (RFC 4180)
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
     private Order createOrderEntity(User user, Cart cart, Address shippingAddress, CreateOrderDTO createOrderDTO) {
         Order order = new Order();
         order.setUser(user);
@@ -553,6 +728,52 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.save(order);
     }
 
+    /**
+     * Confirma la orden si el pago no fue rechazado. En caso contrario la orden queda PENDING y su stock
+     * se retiene con una reserva temporal que el barrido libera al expirar.
+     * La reserva solo se crea cuando la orden queda pendiente: dentro de la transacción de checkout
+     * un rollback ya devuelve el stock.
+     *
+     * @return true si la orden quedó confirmada
+     */
+    private boolean confirmOrHoldStock(Order order, Payment payment) {
+        if (payment.isFailed()) {
+            log.warn("Pago rechazado para la orden ID: {}. Stock retenido hasta la expiración de la reserva",
+                    order.getId());
+            stockReservationManager.hold(order);
+            return false;
+        }
+        order.markAsConfirmed();
+        return true;
+    }
+
+    /**
+     * Encola un único envío con las notificaciones de estado, solo si la transacción se confirma
+     */
+    private void queueStatusNotifications(List<OrderStatusRow> orders, Order.OrderStatus status) {
+        List<NotificationEventDTO> events = orders.stream()
+                .filter(order -> order.getCustomerEmail() != null)
+                .map(order -> NotificationEventDTO.builder()
+                        .orderId(order.getId())
+                        .recipient(order.getCustomerEmail())
+                        .status(status.getDisplayName())
+                        .build())
+                .toList();
+        if (events.isEmpty()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    emailService.sendOrderStatusUpdates(events);
+                } catch (Exception e) {
+                    log.error("Fallo el envío del lote de notificaciones de estado: {}", e.getMessage());
+                }
+            }
+        });
+    }
+
     private void sendOrderConfirmation(Order order) {
         try {
             // La logic de envious real se hace en EmailService, aquí solo se invoca
@@ -562,23 +783,40 @@ public class OrderServiceImpl implements OrderService {
         }
     }
 
-    private List<CartItem> validateGuestCartItems(List<GuestCartItemDTO> cartItems) {
-        // Implementación similar a validateAndReserveStock pera para items de invitado
-        return cartItems.stream()
-                .map(this::createCartItemFromGuestDTO)
-                .toList();
-    }
+    /**
+     * Resuelve los productos del carrito invitado con una sola consulta (bloqueados si la reserva es
+     * pesimista) y reporta en un mismo error los IDs duplicados, inexistentes e inactivos
+     */
+    private Map<Long, Producto> validateGuestCartItems(List<GuestCartItemDTO> cartItems) {
+        Set<Long> productIds = new LinkedHashSet<>();
+        Set<Long> duplicated = new LinkedHashSet<>();
+        for (GuestCartItemDTO item : cartItems) {
+            if (!productIds.add(item.getProductId())) {
+                duplicated.add(item.getProductId());
+            }
+        }
 
-    private CartItem createCartItemFromGuestDTO(GuestCartItemDTO dto) {
-        Producto producto = productoRepository.findById(dto.getProductId())
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + dto.getProductId()));
-        return new CartItem(producto, dto.getQuantity());
-    }
+        Map<Long, Producto> productos = stockManager.loadForReservation(productIds);
 
-    private void validateAndReserveStockForGuestItems(List<CartItem> items) {
-        stockManager.reserveStock(new Cart() {{
-            setItems(items);
-        }});
+        List<String> errors = new ArrayList<>();
+        if (!duplicated.isEmpty()) {
+            errors.add("Productos duplicados: " + duplicated);
+        }
+        List<Long> missing = productIds.stream().filter(id -> !productos.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            errors.add("Productos no encontrados: " + missing);
+        }
+        List<String> inactive = productos.values().stream()
+                .filter(producto -> !Boolean.TRUE.equals(producto.getIsActive()))
+                .map(producto -> producto.getName() + " (ID " + producto.getId() + ")")
+                .toList();
+        if (!inactive.isEmpty()) {
+            errors.add("Productos no disponibles: " + String.join(", ", inactive));
+        }
+        if (!errors.isEmpty()) {
+            throw new BusinessException(String.join("; ", errors));
+        }
+        return productos;
     }
 
     private Order createGuestOrder(CreateGuestOrderDTO dto, List<CartItem> items) {
@@ -0,0 +1,31 @@
+package com.example.springbootecommerce.order.task;
+
+import com.example.springbootecommerce.order.service.OrderStatusCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderStatusCountersTask {
+
+    private final OrderStatusCounters orderStatusCounters;
+
+    /**
+     * Concilia los contadores de órdenes con la base de datos y corrige el drift
+     */
+    @Scheduled(fixedDelayString = "${app.order.counters.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.order.counters.reconcile-initial-delay-ms:10000}")
+    public void reconcile() {
+        try {
+            long drift = orderStatusCounters.reconcile();
+            if (drift < 0) {
+                log.debug("Conciliación de contadores de órdenes omitida: hay transacciones en curso");
+            }
+        } catch (RuntimeException e) {
+            log.error("Error conciliando los contadores de órdenes: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -12,8 +12,9 @@ public interface PaymentService {
      *
      * @param order         La orden a pagar.
      * @param paymentMethod El methodo de pago (ej: CREDIT_CARD, PAYPAL, CASH_ON_DELIVERY).
+     * @return El registro del pago con su estado final (SUCCESS, PENDING o FAILED).
      */
-    void processPayment(Order order, String paymentMethod);
+    Payment processPayment(Order order, String paymentMethod);
 
     /**
      * Verifica si un pago fue realizado exitosamente.
@@ -21,7 +21,7 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository paymentRepository;
     @Override
-    public void processPayment(Order order, String paymentMethod) {
+    public Payment processPayment(Order order, String paymentMethod) {
         log.info("Procesando pago para orden ID: {}, con método: {}", order.getId(), paymentMethod);
 
         // Crear un registro de pago
@@ -49,7 +49,7 @@ public class PaymentServiceImpl implements PaymentService {
             default -> throw new BusinessException("Método de pago no soportado: " + paymentMethod);
         };
 
-        paymentRepository.save(payment);
+        return paymentRepository.save(payment);
     }
 
     @Override
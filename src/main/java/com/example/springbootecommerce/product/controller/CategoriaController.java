@@ -1,5 +1,6 @@
 package com.example.springbootecommerce.product.controller;
 
+import com.example.springbootecommerce.product.dto.CategoriaBreadcrumbDTO;
 import com.example.springbootecommerce.product.dto.CategoriaDTO;
 import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
 import com.example.springbootecommerce.product.dto.CreateCategoriaDTO;
@@ -76,6 +77,14 @@ public class CategoriaController {
         return ResponseEntity.ok(ApiResponse.success(subcategorias,"Subcategorias encontradas"));
     }
 
+    @GetMapping("/{id}/breadcrumb")
+    public ResponseEntity<ApiResponse<List<CategoriaBreadcrumbDTO>>> getBreadcrumb(@PathVariable Long id){
+        log.debug("REST request to get breadcrumb {}", id);
+
+        List<CategoriaBreadcrumbDTO> breadcrumb = categoriaService.getBreadcrumb(id);
+        return ResponseEntity.ok(ApiResponse.success(breadcrumb, "Breadcrumb de categoria obtenido"));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<CategoriaDTO>>> getSearchedCategories(@RequestParam String searchTerm){
         log.debug("REST request to get searched Categories {}", searchTerm);
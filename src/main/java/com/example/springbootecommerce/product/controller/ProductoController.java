@@ -4,6 +4,7 @@ import com.example.springbootecommerce.product.dto.*;
 import com.example.springbootecommerce.product.service.ProductoService;
 import com.example.springbootecommerce.shared.dto.ApiResponse;
 import com.example.springbootecommerce.shared.dto.PageResponse;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -41,11 +42,12 @@ public class ProductoController {
     public ResponseEntity<ApiResponse<PageResponse<ProductoSummaryDTO>>> searchProductos(
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "false") Boolean includeSubcategories,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) String brand,
             @RequestParam(required = false) Boolean inStock,
-            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "relevance") String sortBy,
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size
@@ -55,6 +57,7 @@ public class ProductoController {
         ProductoSearchCriteria criteria = new ProductoSearchCriteria();
         criteria.setSearchTerm(searchTerm);
         criteria.setCategoryId(categoriaId);
+        criteria.setIncludeSubcategories(includeSubcategories);
         criteria.setMinPrice(minPrice);
         criteria.setMaxPrice(maxPrice);
         criteria.setBrand(brand);
@@ -70,6 +73,74 @@ public class ProductoController {
         return ResponseEntity.ok(ApiResponse.success(pageResponse,"Productos encontrados exitosamente"));
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<ProductoFacetedSearchDTO>> searchProductosWithFacets(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "false") Boolean includeSubcategories,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "relevance") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size
+            ){
+        log.debug("Búsqueda facetada de productos - termino: {}, categoria: {}", searchTerm, categoriaId);
+
+        ProductoSearchCriteria criteria = new ProductoSearchCriteria();
+        criteria.setSearchTerm(searchTerm);
+        criteria.setCategoryId(categoriaId);
+        criteria.setIncludeSubcategories(includeSubcategories);
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setBrand(brand);
+        criteria.setInStock(inStock);
+        criteria.setSortBy(sortBy);
+        criteria.setSortDirection(sortDirection);
+        criteria.setPage(page);
+        criteria.setSize(size);
+
+        ProductoFacetedSearchDTO resultado = productoService.searchProductsWithFacets(criteria);
+
+        return ResponseEntity.ok(ApiResponse.success(resultado, "Productos encontrados exitosamente"));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<ApiResponse<SliceResponse<ProductoSummaryDTO>>> scrollProductos(
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(defaultValue = "false") Boolean includeSubcategories,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) String brand,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "name") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "false") boolean includeTotal
+            ){
+        log.debug("Listado de productos por cursor - termino: {}, categoria: {}", searchTerm, categoriaId);
+
+        ProductoSearchCriteria criteria = new ProductoSearchCriteria();
+        criteria.setSearchTerm(searchTerm);
+        criteria.setCategoryId(categoriaId);
+        criteria.setIncludeSubcategories(includeSubcategories);
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setBrand(brand);
+        criteria.setInStock(inStock);
+        criteria.setSortBy(sortBy);
+        criteria.setSortDirection(sortDirection);
+        criteria.setSize(size);
+
+        SliceResponse<ProductoSummaryDTO> productos = productoService.scrollProducts(criteria, cursor, includeTotal);
+
+        return ResponseEntity.ok(ApiResponse.success(productos, "Productos encontrados exitosamente"));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<ProductoDTO>> getProductoById(@PathVariable Long id){
         log.debug("Obteniendo del id de producto: {}", id);
@@ -118,9 +189,11 @@ public class ProductoController {
 
     @GetMapping("/mas-vendidos")
     public ResponseEntity<ApiResponse<PageResponse<ProductoSummaryDTO>>> getProductosMasVendidos(
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Integer dias,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        var productos = productoService.getBestSellingProducts(page, size);
+        var productos = productoService.getBestSellingProducts(categoriaId, dias, page, size);
         var pageResponse = PageResponse.of(productos);
         return ResponseEntity.ok(ApiResponse.success(pageResponse, "Productos más vendidos encontrados exitosamente"));
     }
@@ -192,4 +265,26 @@ public class ProductoController {
         List<ProductoSummaryDTO> productos = productoService.getProductsNeedingRestock(threshold);
         return ResponseEntity.ok(ApiResponse.success(productos, "Productos que necesitan restock encontrados exitosamente"));
     }
+
+    @PostMapping("/admin/mas-vendidos/recalcular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> recalcularMasVendidos() {
+        int productos = productoService.rebuildSalesStats();
+        return ResponseEntity.ok(ApiResponse.success(productos, "Rollup de ventas recalculado exitosamente"));
+    }
+
+    @PostMapping("/admin/relacionados/recalcular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> recalcularRelacionados() {
+        productoService.rebuildRelatedProducts();
+        return ResponseEntity.ok(ApiResponse.success(null,
+                "Grafo de productos relacionados reiniciado; se reconstruirá en segundo plano"));
+    }
+
+    @GetMapping("/cache/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ProductoCacheStatsDTO>> getEstadisticasCache() {
+        ProductoCacheStatsDTO stats = productoService.getCacheStats();
+        return ResponseEntity.ok(ApiResponse.success(stats, "Estadísticas de caché obtenidas exitosamente"));
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.springbootecommerce.product.controller;
+
+import com.example.springbootecommerce.product.dto.CreateReviewDTO;
+import com.example.springbootecommerce.product.dto.RatingDistributionDTO;
+import com.example.springbootecommerce.product.dto.ReviewDTO;
+import com.example.springbootecommerce.product.dto.UpdateReviewDTO;
+import com.example.springbootecommerce.product.service.ReviewService;
+import com.example.springbootecommerce.shared.dto.ApiResponse;
+import com.example.springbootecommerce.shared.dto.PageResponse;
+import com.example.springbootecommerce.user.entity.User;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import static com.example.springbootecommerce.shared.util.Constants.REVIEWS_ENDPOINT;
+
+/**
+ * Controlador REST para las reseñas de productos.
+ * Permite consultar reseñas y su distribución de calificaciones, y a los usuarios autenticados gestionar sus reseñas.
+ */
+@Slf4j
+@RestController
+@RequestMapping(REVIEWS_ENDPOINT)
+@RequiredArgsConstructor
+@Tag(name = "Reseñas", description = "API para gestion de reseñas de productos")
+public class ReviewController {
+
+    private final ReviewService reviewService;
+
+    // ========================================================================
+    // ENDPOINTS PÚBLICOS
+    // ========================================================================
+
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<ApiResponse<PageResponse<ReviewDTO>>> getReviewsByProducto(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        PageResponse<ReviewDTO> reviews = PageResponse.of(reviewService.getProductReviews(productId, page, size));
+        return ResponseEntity.ok(ApiResponse.success(reviews, "Reseñas encontradas exitosamente"));
+    }
+
+    @GetMapping("/product/{productId}/distribucion")
+    public ResponseEntity<ApiResponse<RatingDistributionDTO>> getDistribucionCalificaciones(@PathVariable Long productId) {
+        RatingDistributionDTO distribution = reviewService.getRatingDistribution(productId);
+        return ResponseEntity.ok(ApiResponse.success(distribution, "Distribución de calificaciones obtenida exitosamente"));
+    }
+
+    // ========================================================================
+    // ENDPOINTS DE USUARIO
+    // ========================================================================
+
+    @PostMapping
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<ReviewDTO>> crearReview(
+            @AuthenticationPrincipal User currentUser,
+            @Valid @RequestBody CreateReviewDTO createReviewDTO) {
+        log.info("Creando reseña - Usuario: {}, Producto: {}", currentUser.getId(), createReviewDTO.getProductId());
+        ReviewDTO review = reviewService.createReview(currentUser.getId(), createReviewDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(review, "Reseña creada exitosamente"));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<ReviewDTO>> actualizarReview(
+            @AuthenticationPrincipal User currentUser,
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateReviewDTO updateReviewDTO) {
+        ReviewDTO review = reviewService.updateReview(currentUser.getId(), id, updateReviewDTO);
+        return ResponseEntity.ok(ApiResponse.success(review, "Reseña actualizada exitosamente"));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<Void>> eliminarReview(
+            @AuthenticationPrincipal User currentUser,
+            @PathVariable Long id) {
+        reviewService.deleteReview(currentUser.getId(), id);
+        return ResponseEntity.ok(ApiResponse.success(null, "Reseña eliminada exitosamente"));
+    }
+
+    // ========================================================================
+    // ENDPOINTS ADMINISTRATIVOS
+    // ========================================================================
+
+    @PostMapping("/admin/agregados/recalcular")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> recalcularAgregados() {
+        int corrected = reviewService.rebuildRatingAggregates();
+        return ResponseEntity.ok(ApiResponse.success(corrected, "Agregados de calificación recalculados exitosamente"));
+    }
+}
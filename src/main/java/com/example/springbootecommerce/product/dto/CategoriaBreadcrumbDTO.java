@@ -0,0 +1,12 @@
+package com.example.springbootecommerce.product.dto;
+
+import lombok.Data;
+
+@Data
+public class CategoriaBreadcrumbDTO {
+    private Long id;
+
+    private String name;
+
+    private Integer depth; // distancia a la categoría consultada (0 = la propia categoría)
+}
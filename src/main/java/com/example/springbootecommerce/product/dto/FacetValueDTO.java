@@ -0,0 +1,17 @@
+package com.example.springbootecommerce.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDTO {
+    // ID del valor (categoría); null en facetas sin ID como la marca
+    private Long id;
+
+    private String name;
+
+    private Long count;
+}
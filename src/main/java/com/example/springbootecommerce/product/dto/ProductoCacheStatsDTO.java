@@ -0,0 +1,20 @@
+package com.example.springbootecommerce.product.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ProductoCacheStatsDTO {
+    private Long size;
+
+    private Long hitCount;
+
+    private Long missCount;
+
+    private Double hitRate;
+
+    private Long evictionCount;
+
+    private Long invalidationCount;
+}
@@ -0,0 +1,22 @@
+package com.example.springbootecommerce.product.dto;
+
+import com.example.springbootecommerce.shared.dto.PageResponse;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ProductoFacetedSearchDTO {
+    private PageResponse<ProductoSummaryDTO> productos;
+
+    private List<FacetValueDTO> brands;
+
+    private List<FacetValueDTO> categories;
+
+    private Long inStockCount;
+
+    // false cuando el índice en memoria no está listo: resultados desde la base de datos y sin facetas
+    private Boolean indexed;
+}
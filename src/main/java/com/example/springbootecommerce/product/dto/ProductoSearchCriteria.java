@@ -10,6 +10,8 @@ public class ProductoSearchCriteria {
 
     private Long categoryId;
 
+    private Boolean includeSubcategories = false; // true: categoryId y todas sus subcategorías
+
     private BigDecimal minPrice;
 
     private BigDecimal maxPrice;
@@ -18,7 +20,7 @@ public class ProductoSearchCriteria {
 
     private Boolean inStock;
 
-    private String sortBy = "name"; // name, price, rating, createdAt
+    private String sortBy = "relevance"; // relevance, name, price, rating, createdAt (relevance sin término = name)
 
     private String sortDirection = "asc"; // asc, desc
 
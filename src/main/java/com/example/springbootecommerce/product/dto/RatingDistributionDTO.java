@@ -0,0 +1,19 @@
+package com.example.springbootecommerce.product.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@Builder
+public class RatingDistributionDTO {
+    private Long productId;
+
+    private Double averageRating;
+
+    private Integer totalReviews;
+
+    // Número de reseñas por calificación (5 a 1)
+    private Map<Integer, Integer> distribution;
+}
@@ -0,0 +1,43 @@
+package com.example.springbootecommerce.product.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Fila de la tabla de clausura de categorías: la categoría ancestorId es ancestro de
+ * descendantId a depth niveles de distancia (0 para la propia categoría).
+ * Se mantiene desde CategoriaClosureRepository al crear o mover categorías.
+ */
+@Entity
+@Table(name = "category_closure")
+@IdClass(CategoriaClosure.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoriaClosure {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -73,6 +73,40 @@ public class Producto extends Auditable {
     @Builder.Default
     private List<Review> reviews = new ArrayList<>();
 
+    // Agregados de calificación: solo los escribe ProductoRepository.applyRatingChange (UPDATE atómico),
+    // nunca el guardado de la entidad, para no pisar reseñas concurrentes
+    @Column(name = "rating_sum", insertable = false, updatable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer ratingCount = 0;
+
+    @Column(name = "rating_1_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating1Count = 0;
+
+    @Column(name = "rating_2_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating2Count = 0;
+
+    @Column(name = "rating_3_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating3Count = 0;
+
+    @Column(name = "rating_4_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating4Count = 0;
+
+    @Column(name = "rating_5_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Integer rating5Count = 0;
+
+    // Columna generada en la base de datos (rating_sum / rating_count)
+    @Column(name = "rating_average", precision = 3, scale = 2, insertable = false, updatable = false)
+    private BigDecimal ratingAverage;
+
     // ========================================================================
     // MÉTODOS DE NEGOCIO
     // ========================================================================
@@ -103,27 +137,23 @@ public class Producto extends Auditable {
     }
 
     public StockStatus getStockStatus(){
-        if (stockQuantity == null || stockQuantity <= 0){
-            return StockStatus.OUT_OF_STOCK;
-        }else if (stockQuantity <= 5){
-            return StockStatus.LOW_STOCK;
-        }else{
-            return StockStatus.IN_STOCK;
-        }
+        return StockStatus.of(stockQuantity);
     }
 
     public double getAverageRating(){
-        if (reviews.isEmpty()){
+        return averageRating(ratingSum, ratingCount);
+    }
+
+    // También se usa con las filas resumen de los listados, que no cargan la entidad
+    public static double averageRating(Long ratingSum, Integer ratingCount){
+        if (ratingSum == null || ratingCount == null || ratingCount == 0){
             return 0.0;
         }
-        return reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return (double) ratingSum / ratingCount;
     }
 
     public int getTotalRatings(){
-        return reviews.size();
+        return ratingCount != null ? ratingCount : 0;
     }
 
     @Getter
@@ -137,6 +167,16 @@ public class Producto extends Auditable {
         StockStatus(String displayName){
             this.displayName = displayName;
         }
+
+        public static StockStatus of(Integer stockQuantity){
+            if (stockQuantity == null || stockQuantity <= 0){
+                return OUT_OF_STOCK;
+            }else if (stockQuantity <= 5){
+                return LOW_STOCK;
+            }else{
+                return IN_STOCK;
+            }
+        }
     }
 
 
@@ -0,0 +1,53 @@
+package com.example.springbootecommerce.product.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Entrada del top-K de productos relacionados de productId, en la posición ranking (desde 1).
+ * Las filas las recalcula ProductoRelatedGraph; no se modifican desde la aplicación.
+ */
+@Entity
+@Table(name = "product_related")
+@IdClass(ProductoRelated.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductoRelated {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(nullable = false)
+    private Short ranking;
+
+    @Column(name = "related_id", nullable = false)
+    private Long relatedId;
+
+    @Column(nullable = false)
+    private Long score;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Source source;
+
+    public enum Source {
+        CO_PURCHASE, SAME_CATEGORY
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long productId;
+        private Short ranking;
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.springbootecommerce.product.mapper;
 
+import com.example.springbootecommerce.product.dto.CategoriaBreadcrumbDTO;
 import com.example.springbootecommerce.product.dto.CategoriaDTO;
 import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
 import com.example.springbootecommerce.product.dto.CreateCategoriaDTO;
 import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.repository.CategoriaBreadcrumbProjection;
+import com.example.springbootecommerce.product.repository.CategoriaTreeProjection;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -33,12 +36,16 @@ public interface CategoriaMapper {
     List<CategoriaDTO> toCategoriaDTOs (List<Categoria> categorias);
 
     /**
-     * Convierte una entidad Categoria a CategoriaTreeDTO (estructura jerárquica).
-     * Incluye el conteo de productos activos.
+     * Convierte una fila del árbol de categorías a CategoriaTreeDTO (estructura jerárquica).
+     * El conteo de productos activos ya viene calculado en la consulta.
      */
-    @Mapping(target = "productCount", expression = "java(countActiveProductos(categoria))")
     @Mapping(target = "subcategories", ignore = true)
-    CategoriaTreeDTO toCategoriaTreeDTO(Categoria categoria);
+    CategoriaTreeDTO toCategoriaTreeDTO(CategoriaTreeProjection categoria);
+
+    /**
+     * Convierte la ruta de ancestros de una categoría a CategoriaBreadcrumbDTO.
+     */
+    List<CategoriaBreadcrumbDTO> toBreadcrumbDTOs(List<CategoriaBreadcrumbProjection> path);
 
     // =========================================================================
     // CONVERSIONES DTO -> ENTITY
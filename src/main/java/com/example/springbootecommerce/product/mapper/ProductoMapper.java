@@ -4,6 +4,7 @@ import com.example.springbootecommerce.product.dto.CreateProductoDTO;
 import com.example.springbootecommerce.product.dto.ProductoDTO;
 import com.example.springbootecommerce.product.dto.ProductoSummaryDTO;
 import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.repository.ProductoSummaryRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
@@ -42,7 +43,7 @@ public interface ProductoMapper {
 
     /**
      * Convierte una entidad Producto a ProductoSummaryDTO.
-     * Incluye el promedio y total views
+     * Incluye el promedio y total de reseñas (agregados desnormalizados del producto)
      */
     @Mapping(target = "categoryName", source = "categoria.name")
     @Mapping(target = "stockStatus", expression = "java(producto.getStockStatus() != null ?" +
@@ -57,6 +58,14 @@ public interface ProductoMapper {
      */
     List<ProductoSummaryDTO> toSummaryDTOs(List<Producto> productos);
 
+    /**
+     * Convierte una fila resumen de listado (sin entidad) a ProductoSummaryDTO.
+     */
+    @Mapping(target = "stockStatus", expression = "java(Producto.StockStatus.of(row.stockQuantity()).getDisplayName())")
+    @Mapping(target = "averageRating", expression = "java(Producto.averageRating(row.ratingSum(), row.ratingCount()))")
+    @Mapping(target = "totalReviews", source = "ratingCount")
+    ProductoSummaryDTO toSummaryDTO(ProductoSummaryRow row);
+
     // =========================================================================
     // CONVERSIONES DTO -> ENTITY
     // =========================================================================
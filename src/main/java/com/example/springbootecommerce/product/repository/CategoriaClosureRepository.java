@@ -0,0 +1,60 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.CategoriaClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CategoriaClosureRepository extends JpaRepository<CategoriaClosure, CategoriaClosure.Key> {
+
+    // Nueva categoría: la fila propia más una por cada ancestro del padre
+    @Modifying
+    @Query(value = """
+        INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+        SELECT ancestor_id, :categoryId, depth + 1 FROM category_closure WHERE descendant_id = :parentId
+        UNION ALL
+        SELECT :categoryId, :categoryId, 0
+        """, nativeQuery = true)
+    int insertCategory(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // Mover (1/2): desliga el subárbol de sus ancestros externos, conserva los vínculos internos
+    @Modifying
+    @Query(value = """
+        DELETE FROM category_closure
+        WHERE descendant_id IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)
+          AND ancestor_id NOT IN (SELECT descendant_id FROM category_closure WHERE ancestor_id = :categoryId)
+        """, nativeQuery = true)
+    int detachSubtree(@Param("categoryId") Long categoryId);
+
+    // Mover (2/2): cada ancestro del nuevo padre pasa a ser ancestro de todo el subárbol
+    @Modifying
+    @Query(value = """
+        INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+        SELECT above.ancestor_id, below.descendant_id, above.depth + below.depth + 1
+        FROM category_closure above
+        CROSS JOIN category_closure below
+        WHERE above.descendant_id = :parentId AND below.ancestor_id = :categoryId
+        """, nativeQuery = true)
+    int attachSubtree(@Param("categoryId") Long categoryId, @Param("parentId") Long parentId);
+
+    // La categoría y todos sus descendientes
+    @Query("SELECT cc.descendantId FROM CategoriaClosure cc WHERE cc.ancestorId = :categoryId")
+    List<Long> findDescendantIds(@Param("categoryId") Long categoryId);
+
+    // Detección de ciclos: ¿descendantId está dentro del subárbol de ancestorId?
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    // Ruta desde la raíz hasta la categoría en una sola consulta
+    @Query("""
+        SELECT c.id AS id, c.name AS name, cc.depth AS depth
+        FROM CategoriaClosure cc JOIN Categoria c ON c.id = cc.ancestorId
+        WHERE cc.descendantId = :categoryId
+        ORDER BY cc.depth DESC
+        """)
+    List<CategoriaBreadcrumbProjection> findBreadcrumb(@Param("categoryId") Long categoryId);
+}
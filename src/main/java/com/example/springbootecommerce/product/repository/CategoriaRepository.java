@@ -27,6 +27,17 @@ public interface CategoriaRepository extends JpaRepository<Categoria,Long> {
     @Query("SELECT c.id, COUNT(p) FROM Categoria c LEFT JOIN c.productos p WHERE c.isActive = true AND (p.isActive = true OR p IS NULL) GROUP BY c.id")
     List<Object[]> countActiveProductsByCategory();
 
+    // Árbol de categorías activas en una sola consulta plana (padre + conteo de productos activos)
+    @Query("""
+        SELECT c.id AS id, c.parent.id AS parentId, c.name AS name, c.description AS description,
+               c.displayOrder AS displayOrder, COUNT(p) AS productCount
+        FROM Categoria c LEFT JOIN c.productos p ON p.isActive = true
+        WHERE c.isActive = true
+        GROUP BY c.id, c.parent.id, c.name, c.description, c.displayOrder
+        ORDER BY c.displayOrder ASC, c.id ASC
+        """)
+    List<CategoriaTreeProjection> findActiveTreeNodes();
+
     // Búsqueda por jerarquía completa
     @Query("SELECT c FROM Categoria c WHERE c.isActive = true AND (c.name ILIKE %:searchTerm% OR c.description ILIKE %:searchTerm%)")
     List<Categoria> searchByNameOrDescription(@Param("searchTerm") String searchTerm);
@@ -0,0 +1,10 @@
+package com.example.springbootecommerce.product.repository;
+
+public interface CategoriaTreeProjection {
+    Long getId();
+    Long getParentId();
+    String getName();
+    String getDescription();
+    Integer getDisplayOrder();
+    Long getProductCount();
+}
@@ -0,0 +1,23 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.dto.ProductoSearchCriteria;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Búsquedas de productos activos en SQL nativo de PostgreSQL, como filas resumen.
+ * Aplican los mismos filtros que ProductoSearchCriteria (categoría, precio, marca, stock).
+ * Con un Pageable sin orden, los resultados se ordenan por relevancia.
+ */
+public interface ProductoFullTextRepository {
+
+    /**
+     * Busca por texto completo (search_vector @@ plainto_tsquery) y ordena por ts_rank
+     */
+    Page<ProductoSummaryRow> fullTextSearch(ProductoSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Busca por similitud de trigramas sobre el nombre (name % término), tolerante a errores de tipeo
+     */
+    Page<ProductoSummaryRow> trigramSearch(ProductoSearchCriteria criteria, Pageable pageable);
+}
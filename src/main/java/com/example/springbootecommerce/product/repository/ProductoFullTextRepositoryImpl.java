@@ -0,0 +1,107 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.dto.ProductoSearchCriteria;
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+public class ProductoFullTextRepositoryImpl implements ProductoFullTextRepository {
+
+    private static final String TS_QUERY = "plainto_tsquery('spanish', :term)";
+
+    // Solo se admite ordenar por estas propiedades (el ORDER BY se arma como texto)
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "name", "p.name",
+            "price", "p.price",
+            "createdAt", "p.created_at",
+            "rating", "p.rating_average");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductoSummaryRow> fullTextSearch(ProductoSearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable,
+                "p.search_vector @@ " + TS_QUERY,
+                "ts_rank(p.search_vector, " + TS_QUERY + ") DESC");
+    }
+
+    @Override
+    public Page<ProductoSummaryRow> trigramSearch(ProductoSearchCriteria criteria, Pageable pageable) {
+        return search(criteria, pageable,
+                "p.name % :term",
+                "similarity(p.name, :term) DESC");
+    }
+
+    private Page<ProductoSummaryRow> search(ProductoSearchCriteria criteria, Pageable pageable,
+                                  String matchCondition, String relevanceOrder) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("term", criteria.getSearchTerm());
+
+        StringBuilder from = new StringBuilder(
+                " FROM products p JOIN categories c ON c.id = p.category_id WHERE p.is_active = true AND ")
+                .append(matchCondition);
+        if (criteria.getCategoryId() != null) {
+            from.append(Boolean.TRUE.equals(criteria.getIncludeSubcategories())
+                    ? " AND p.category_id IN (SELECT cc.descendant_id FROM category_closure cc WHERE cc.ancestor_id = :categoryId)"
+                    : " AND p.category_id = :categoryId");
+            parameters.put("categoryId", criteria.getCategoryId());
+        }
+        if (criteria.getMinPrice() != null) {
+            from.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", criteria.getMinPrice());
+        }
+        if (criteria.getMaxPrice() != null) {
+            from.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", criteria.getMaxPrice());
+        }
+        if (StringUtils.hasText(criteria.getBrand())) {
+            from.append(" AND lower(p.brand) LIKE :brand");
+            parameters.put("brand", "%" + criteria.getBrand().toLowerCase() + "%");
+        }
+        if (Boolean.TRUE.equals(criteria.getInStock())) {
+            from.append(" AND p.stock_quantity > 0");
+        }
+
+        // Solo las columnas del listado y el nombre de la categoría: sin hidratar entidades Producto
+        Query query = entityManager.createNativeQuery("SELECT " + ProductoSummaryRow.NATIVE_COLUMNS + from
+                + " ORDER BY " + orderBy(pageable.getSort(), relevanceOrder));
+        parameters.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        List<ProductoSummaryRow> content = ProductoSummaryRow.fromNativeQuery(query);
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Query count = entityManager.createNativeQuery("SELECT COUNT(*)" + from);
+            parameters.forEach(count::setParameter);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+
+    private String orderBy(Sort sort, String relevanceOrder) {
+        StringJoiner orderBy = new StringJoiner(", ");
+        if (sort.isUnsorted()) {
+            orderBy.add(relevanceOrder);
+        }
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new BusinessException("Campo de ordenamiento no válido: " + order.getProperty());
+            }
+            orderBy.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        // Desempate estable para la paginación
+        return orderBy.add("p.id").toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.springbootecommerce.product.repository;
+
+public interface ProductoRatingProjection {
+    Long getRatingSum();
+    Integer getRatingCount();
+    Integer getRating1Count();
+    Integer getRating2Count();
+    Integer getRating3Count();
+    Integer getRating4Count();
+    Integer getRating5Count();
+}
@@ -0,0 +1,154 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.ProductoRelated;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductoRelatedRepository extends JpaRepository<ProductoRelated, ProductoRelated.Key> {
+
+    // Top-K precalculado de un producto, sin los relacionados desactivados desde el último cálculo
+    @Query(value = """
+        SELECT r.related_id
+        FROM product_related r
+        JOIN products p ON p.id = r.related_id
+        WHERE r.product_id = :productId AND p.is_active = true
+        ORDER BY r.ranking
+        """, nativeQuery = true)
+    List<Long> findRelatedIds(@Param("productId") Long productId);
+
+    // ========================================================================
+    // CHECKPOINT
+    // ========================================================================
+
+    // Serializa las ejecuciones del job (también entre instancias) durante la transacción
+    @Query(value = "SELECT last_order_id FROM product_related_checkpoint WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    Long lockCheckpoint();
+
+    @Modifying
+    @Query(value = """
+        UPDATE product_related_checkpoint
+        SET last_order_id = :orderId, updated_at = CURRENT_TIMESTAMP
+        WHERE id = 1
+        """, nativeQuery = true)
+    int moveCheckpointTo(@Param("orderId") long orderId);
+
+    /**
+     * Último id del siguiente lote de órdenes a procesar, o null si no hay órdenes asentadas.
+     * El lote se corta en la primera orden no asentada para no saltarla al avanzar el checkpoint.
+     */
+    @Query(value = """
+        SELECT MAX(b.id) FROM (
+            SELECT o.id FROM orders o
+            WHERE o.id > :fromId
+              AND o.id < COALESCE((SELECT MIN(u.id) FROM orders u
+                                   WHERE u.id > :fromId AND u.order_date >= :settledBefore),
+                                  9223372036854775807)
+            ORDER BY o.id
+            LIMIT :batchSize
+        ) b
+        """, nativeQuery = true)
+    Long findBatchUpperBound(@Param("fromId") long fromId,
+                             @Param("settledBefore") LocalDateTime settledBefore,
+                             @Param("batchSize") int batchSize);
+
+    // ========================================================================
+    // CO-COMPRAS
+    // ========================================================================
+
+    // Suma los pares de productos de las órdenes del lote (en ambos sentidos)
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_copurchase (product_id, related_id, order_count)
+        SELECT a.product_id, b.product_id, COUNT(DISTINCT a.order_id)
+        FROM order_items a
+        JOIN order_items b ON b.order_id = a.order_id AND b.product_id <> a.product_id
+        JOIN orders o ON o.id = a.order_id
+        WHERE a.order_id > :fromId AND a.order_id <= :toId AND o.status <> 'CANCELLED'
+        GROUP BY a.product_id, b.product_id
+        ON CONFLICT (product_id, related_id) DO UPDATE
+        SET order_count = product_copurchase.order_count + EXCLUDED.order_count
+        """, nativeQuery = true)
+    int applyCoPurchases(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query(value = """
+        SELECT DISTINCT oi.product_id
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE oi.order_id > :fromId AND oi.order_id <= :toId AND o.status <> 'CANCELLED'
+        ORDER BY oi.product_id
+        """, nativeQuery = true)
+    List<Long> findProductIdsInOrders(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // ========================================================================
+    // TOP-K
+    // ========================================================================
+
+    @Query(value = "SELECT id FROM products WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findProductIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_related WHERE product_id = ANY(CAST(:productIds AS bigint[]))",
+            nativeQuery = true)
+    int deleteByProductIds(@Param("productIds") Long[] productIds);
+
+    /**
+     * Recalcula el top-K de los productos indicados: primero los comprados juntos al menos
+     * minCoPurchases veces y, para completar, los más vendidos de la misma categoría.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_related (product_id, ranking, related_id, score, source)
+        SELECT ranked.product_id, ranked.ranking, ranked.related_id, ranked.score, ranked.source
+        FROM (
+            SELECT c.product_id, c.related_id, c.score, c.source,
+                   ROW_NUMBER() OVER (PARTITION BY c.product_id
+                                      ORDER BY c.priority, c.score DESC, c.related_id) AS ranking
+            FROM (
+                SELECT DISTINCT ON (candidates.product_id, candidates.related_id)
+                       candidates.product_id, candidates.related_id, candidates.score,
+                       candidates.source, candidates.priority
+                FROM (
+                    SELECT cp.product_id, cp.related_id, CAST(cp.order_count AS BIGINT) AS score,
+                           'CO_PURCHASE' AS source, 0 AS priority
+                    FROM product_copurchase cp
+                    JOIN products r ON r.id = cp.related_id AND r.is_active = true
+                    WHERE cp.product_id = ANY(CAST(:productIds AS bigint[]))
+                      AND cp.order_count >= :minCoPurchases
+                    UNION ALL
+                    SELECT p.id, n.id, n.units_sold, 'SAME_CATEGORY', 1
+                    FROM products p
+                    CROSS JOIN LATERAL (
+                        SELECT s.id, COALESCE(st.units_sold, 0) AS units_sold
+                        FROM products s
+                        LEFT JOIN product_sales_stats st ON st.product_id = s.id
+                        WHERE s.category_id = p.category_id AND s.id <> p.id AND s.is_active = true
+                        ORDER BY COALESCE(st.units_sold, 0) DESC, s.rating_average DESC NULLS LAST, s.id
+                        LIMIT :topK
+                    ) n
+                    WHERE p.id = ANY(CAST(:productIds AS bigint[]))
+                ) candidates
+                ORDER BY candidates.product_id, candidates.related_id, candidates.priority
+            ) c
+        ) ranked
+        WHERE ranked.ranking <= :topK
+        """, nativeQuery = true)
+    int insertTopK(@Param("productIds") Long[] productIds,
+                   @Param("topK") int topK,
+                   @Param("minCoPurchases") int minCoPurchases);
+
+    // Reinicio completo: el job vuelve a procesar todas las órdenes desde el principio
+    @Modifying
+    @Query(value = "DELETE FROM product_copurchase", nativeQuery = true)
+    void deleteAllCoPurchases();
+
+    @Modifying
+    @Query(value = "DELETE FROM product_related", nativeQuery = true)
+    void deleteAllRelated();
+}
@@ -2,57 +2,221 @@ package com.example.springbootecommerce.product.repository;
 
 import com.example.springbootecommerce.product.entity.Producto;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto,Long>, JpaSpecificationExecutor<Producto> {
+public interface ProductoRepository extends JpaRepository<Producto,Long>, JpaSpecificationExecutor<Producto>,
+        ProductoFullTextRepository, ProductoSummaryRepository {
+
+    // Fila resumen de listados: solo las columnas de ProductoSummaryDTO y el nombre de la categoría
+    String SUMMARY_SELECT = """
+        SELECT new com.example.springbootecommerce.product.repository.ProductoSummaryRow(
+            p.id, p.name, p.sku, p.price, p.stockQuantity, c.name, p.brand, p.imageUrl,
+            p.ratingSum, p.ratingCount, p.ratingAverage, p.createdAt)
+        FROM Producto p JOIN p.categoria c
+        """;
 
     // Buscar por SKU (único)
     Optional<Producto> findBySku(String sku);
 
+    @Query("SELECT p.id FROM Producto p WHERE p.sku = :sku")
+    Optional<Long> findIdBySku(@Param("sku") String sku);
+
     // Verificar si existe un producto con SKU
     boolean existsBySku(String sku);
 
-    // Productos más vendidos (requiere JOIN con order_items)
-    @Query("""
-        SELECT p FROM Producto p
-        JOIN OrderItem oi ON p.id = oi.producto.id
-        JOIN Order o ON oi.order.id = o.id
-        WHERE p.isActive = true AND o.status IN ('DELIVERED', 'SHIPPED')
-        GROUP BY p.id
-        ORDER BY SUM(oi.quantity) DESC
-        """)
-    Page<Producto> findBestSellingProducts(Pageable pageable);
+    // Productos mejor calificados (agregados desnormalizados, recorre idx_products_top_rated)
+    @Query(value = SUMMARY_SELECT + """
+        WHERE p.isActive = true AND p.ratingCount > 0
+        ORDER BY p.ratingAverage DESC, p.ratingCount DESC, p.id
+        """,
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.isActive = true AND p.ratingCount > 0")
+    Page<ProductoSummaryRow> findTopRatedProducts(Pageable pageable);
 
-    // Productos mejor calificados
-    @Query("""
-        SELECT p FROM Producto p 
-        LEFT JOIN p.reviews r 
-        WHERE p.isActive = true 
-        GROUP BY p.id 
-        HAVING COUNT(r) > 0 
-        ORDER BY AVG(r.rating) DESC
-        """)
-    Page<Producto> findTopRatedProducts(Pageable pageable);
+    // Filas resumen de productos activos concretos (resultados del índice de búsqueda o del grafo de relacionados)
+    @Query(SUMMARY_SELECT + "WHERE p.id IN :ids AND p.isActive = true")
+    List<ProductoSummaryRow> findActiveSummariesByIdIn(@Param("ids") Collection<Long> ids);
 
     // Bloqueo pesimista para manejo de concurrencia en stock
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Producto p WHERE p.id = :productId")
     Optional<Producto> findByIdWithLock(@Param("productId") Long productId);
 
-    //Productos relacionados por categoria (excluir el producto actual)
-    @Query("SELECT p FROM Producto p WHERE p.categoria.id = :categoryId AND p.id <> :excludeProductId")
-    List<Producto> findRelatedProducts(@Param("categoryId") Long categoryId,
+    // Productos completos bloqueados en lote (checkout de invitado), ordenados por ID como lockStockByIds
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Producto p WHERE p.id IN :productIds ORDER BY p.id")
+    List<Producto> lockAllByIds(@Param("productIds") Collection<Long> productIds);
+
+    // Bloqueo pesimista en lote, ordenado por ID para evitar deadlocks entre checkouts concurrentes
+    @Query(value = """
+        SELECT p.id AS id, p.name AS name, p.stock_quantity AS stockQuantity
+        FROM products p
+        WHERE p.id IN (:productIds)
+        ORDER BY p.id
+        FOR UPDATE
+        """, nativeQuery = true)
+    List<ProductoStockProjection> lockStockByIds(@Param("productIds") Collection<Long> productIds);
+
+    // Descuento de stock de varios productos en una sola sentencia (ids y cantidades alineados por posición).
+    // El CTE bloquea primero las filas en orden de ID (el orden del join del UPDATE lo decide el planificador),
+    // así dos checkouts con varios productos no se bloquean mutuamente. UPDATE nativo: no pasa por la
+    // auditoría de JPA, los campos de auditoría se escriben en la sentencia
+    @Modifying
+    @Query(value = """
+        WITH locked AS (
+            SELECT p.id FROM products p
+            WHERE p.id = ANY(CAST(:productIds AS bigint ARRAY))
+            ORDER BY p.id
+            FOR UPDATE
+        )
+        UPDATE products p
+        SET stock_quantity = p.stock_quantity - r.quantity,
+            updated_at = CURRENT_TIMESTAMP,
+            updated_by = :updatedBy
+        FROM unnest(CAST(:productIds AS bigint ARRAY), CAST(:quantities AS int ARRAY)) AS r(product_id, quantity)
+        WHERE p.id = r.product_id
+          AND p.id IN (SELECT l.id FROM locked l)
+          AND p.stock_quantity >= r.quantity
+        """, nativeQuery = true)
+    int reduceStockBatch(@Param("productIds") Long[] productIds,
+                         @Param("quantities") Integer[] quantities,
+                         @Param("updatedBy") String updatedBy);
+
+    // Aplica deltas de stock (positivos o negativos) de varios productos en una sola sentencia
+    @Modifying
+    @Query(value = """
+        UPDATE products p
+        SET stock_quantity = p.stock_quantity + r.delta,
+            updated_at = CURRENT_TIMESTAMP,
+            updated_by = :updatedBy
+        FROM unnest(CAST(:productIds AS bigint[]), CAST(:deltas AS int[])) AS r(product_id, delta)
+        WHERE p.id = r.product_id
+        """, nativeQuery = true)
+    int applyStockDeltas(@Param("productIds") Long[] productIds,
+                         @Param("deltas") Integer[] deltas,
+                         @Param("updatedBy") String updatedBy);
+
+    // Stock de todo el catálogo, usado para reconstruir el ledger en memoria al arrancar
+    @Query("SELECT p.id AS id, p.name AS name, p.stockQuantity AS stockQuantity FROM Producto p")
+    List<ProductoStockProjection> findAllStockLevels();
+
+    @Query("SELECT p.stockQuantity FROM Producto p WHERE p.id = :productId")
+    Optional<Integer> findStockQuantityById(@Param("productId") Long productId);
+
+    // Lectura de stock sin bloqueo, usada para validar antes del descuento condicional
+    @Query("SELECT p.id AS id, p.name AS name, p.stockQuantity AS stockQuantity FROM Producto p WHERE p.id IN :productIds")
+    List<ProductoStockProjection> findStockByIds(@Param("productIds") Collection<Long> productIds);
+
+    // Descuento atómico condicional: solo actualiza si hay stock suficiente (sin bloqueo previo)
+    @Modifying
+    @Query("""
+        UPDATE Producto p SET p.stockQuantity = p.stockQuantity - :quantity
+        WHERE p.id = :productId AND p.stockQuantity >= :quantity
+        """)
+    int decrementStockIfAvailable(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Incremento atómico de stock (sin bloqueo previo)
+    @Modifying
+    @Query("UPDATE Producto p SET p.stockQuantity = p.stockQuantity + :quantity WHERE p.id = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Aplica el alta, edición o baja de una reseña sobre los agregados de calificación en un único UPDATE.
+    // oldRating = 0 en un alta, newRating = 0 en una baja
+    @Modifying
+    @Query(value = """
+        UPDATE products SET
+            rating_sum = rating_sum + :newRating - :oldRating,
+            rating_count = rating_count + CASE WHEN :newRating > 0 THEN 1 ELSE 0 END - CASE WHEN :oldRating > 0 THEN 1 ELSE 0 END,
+            rating_1_count = rating_1_count + CASE WHEN :newRating = 1 THEN 1 ELSE 0 END - CASE WHEN :oldRating = 1 THEN 1 ELSE 0 END,
+            rating_2_count = rating_2_count + CASE WHEN :newRating = 2 THEN 1 ELSE 0 END - CASE WHEN :oldRating = 2 THEN 1 ELSE 0 END,
+            rating_3_count = rating_3_count + CASE WHEN :newRating = 3 THEN 1 ELSE 0 END - CASE WHEN :oldRating = 3 THEN 1 ELSE 0 END,
+            rating_4_count = rating_4_count + CASE WHEN :newRating = 4 THEN 1 ELSE 0 END - CASE WHEN :oldRating = 4 THEN 1 ELSE 0 END,
+            rating_5_count = rating_5_count + CASE WHEN :newRating = 5 THEN 1 ELSE 0 END - CASE WHEN :oldRating = 5 THEN 1 ELSE 0 END
+        WHERE id = :productId
+        """, nativeQuery = true)
+    int applyRatingChange(@Param("productId") Long productId,
+                          @Param("oldRating") int oldRating,
+                          @Param("newRating") int newRating);
+
+    // Recalcula los agregados de calificación de todos los productos a partir de reviews
+    @Modifying
+    @Query(value = """
+        UPDATE products p SET
+            rating_sum = r.rating_sum,
+            rating_count = r.rating_count,
+            rating_1_count = r.rating_1_count,
+            rating_2_count = r.rating_2_count,
+            rating_3_count = r.rating_3_count,
+            rating_4_count = r.rating_4_count,
+            rating_5_count = r.rating_5_count
+        FROM (
+            SELECT pr.id AS product_id,
+                   COALESCE(SUM(rv.rating), 0) AS rating_sum,
+                   COUNT(rv.id) AS rating_count,
+                   COUNT(rv.id) FILTER (WHERE rv.rating = 1) AS rating_1_count,
+                   COUNT(rv.id) FILTER (WHERE rv.rating = 2) AS rating_2_count,
+                   COUNT(rv.id) FILTER (WHERE rv.rating = 3) AS rating_3_count,
+                   COUNT(rv.id) FILTER (WHERE rv.rating = 4) AS rating_4_count,
+                   COUNT(rv.id) FILTER (WHERE rv.rating = 5) AS rating_5_count
+            FROM products pr
+            LEFT JOIN reviews rv ON rv.product_id = pr.id
+            GROUP BY pr.id
+        ) r
+        WHERE p.id = r.product_id
+          AND (p.rating_sum, p.rating_count, p.rating_1_count, p.rating_2_count,
+               p.rating_3_count, p.rating_4_count, p.rating_5_count)
+              IS DISTINCT FROM (r.rating_sum, r.rating_count, r.rating_1_count, r.rating_2_count,
+               r.rating_3_count, r.rating_4_count, r.rating_5_count)
+        """, nativeQuery = true)
+    int rebuildRatingAggregates();
+
+    // Documentos del índice de búsqueda en memoria: catálogo activo completo, leído en streaming
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+        SELECT p.id AS id, p.name AS name, p.description AS description, p.brand AS brand, p.price AS price,
+               p.stockQuantity AS stockQuantity, c.id AS categoryId, c.name AS categoryName,
+               p.ratingAverage AS ratingAverage, p.createdAt AS createdAt, p.isActive AS active
+        FROM Producto p JOIN p.categoria c
+        WHERE p.isActive = true
+        """)
+    Stream<ProductoSearchProjection> streamSearchDocuments();
+
+    // Documentos del índice de búsqueda de productos concretos (incluye inactivos para poder retirarlos)
+    @Query("""
+        SELECT p.id AS id, p.name AS name, p.description AS description, p.brand AS brand, p.price AS price,
+               p.stockQuantity AS stockQuantity, c.id AS categoryId, c.name AS categoryName,
+               p.ratingAverage AS ratingAverage, p.createdAt AS createdAt, p.isActive AS active
+        FROM Producto p JOIN p.categoria c
+        WHERE p.id IN :ids
+        """)
+    List<ProductoSearchProjection> findSearchDocumentsByIds(@Param("ids") Collection<Long> ids);
+
+    // Productos activos de un conjunto de categorías (reindexación tras renombrar o mover una categoría)
+    @Query("SELECT p.id FROM Producto p WHERE p.categoria.id IN :categoryIds AND p.isActive = true")
+    List<Long> findActiveIdsByCategoryIds(@Param("categoryIds") Collection<Long> categoryIds);
+
+    // Productos activos de la misma categoría (respaldo mientras no hay top-K precalculado)
+    @Query("""
+        SELECT p.id FROM Producto p
+        WHERE p.categoria.id = :categoryId AND p.id <> :excludeProductId AND p.isActive = true
+        ORDER BY p.ratingAverage DESC, p.id
+        """)
+    List<Long> findRelatedProductIds(@Param("categoryId") Long categoryId,
                                        @Param("excludeProductId") Long excludeProductId,
                                        Pageable pageable);
 
@@ -67,11 +231,11 @@ public interface ProductoRepository extends JpaRepository<Producto,Long>, JpaSpe
     List<Object[]> getProductStatsByCategory();
 
     // Productos que necesitan restock
-    @Query("SELECT p FROM Producto p WHERE p.isActive = true AND p.stockQuantity < :threshold")
-    List<Producto> findProductsNeedingRestock(@Param("threshold") int threshold);
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.stockQuantity < :threshold")
+    List<ProductoSummaryRow> findProductsNeedingRestock(@Param("threshold") int threshold);
 
-    @Query("SELECT p FROM Producto p WHERE p.isActive = true AND p.stockQuantity <= 5")
-    List<Producto> findLowStockProducts();
+    @Query(SUMMARY_SELECT + "WHERE p.isActive = true AND p.stockQuantity <= 5")
+    List<ProductoSummaryRow> findLowStockProducts();
 
 
 }
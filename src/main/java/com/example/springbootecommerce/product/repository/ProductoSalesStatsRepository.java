@@ -0,0 +1,113 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.ProductoSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+public interface ProductoSalesStatsRepository extends JpaRepository<ProductoSalesStats, Long> {
+
+    // Suma (o descuenta) las ventas de varios productos en una sola sentencia (arrays alineados por posición)
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_stats (product_id, units_sold, revenue, updated_at)
+        SELECT r.product_id, r.units, r.revenue, CURRENT_TIMESTAMP
+        FROM unnest(CAST(:productIds AS bigint[]), CAST(:units AS bigint[]), CAST(:revenues AS numeric[]))
+            AS r(product_id, units, revenue)
+        ON CONFLICT (product_id) DO UPDATE
+        SET units_sold = product_sales_stats.units_sold + EXCLUDED.units_sold,
+            revenue    = product_sales_stats.revenue + EXCLUDED.revenue,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int applyTotals(@Param("productIds") Long[] productIds,
+                    @Param("units") Long[] units,
+                    @Param("revenues") BigDecimal[] revenues);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_daily (sales_date, product_id, units_sold, revenue)
+        SELECT :salesDate, r.product_id, r.units, r.revenue
+        FROM unnest(CAST(:productIds AS bigint[]), CAST(:units AS bigint[]), CAST(:revenues AS numeric[]))
+            AS r(product_id, units, revenue)
+        ON CONFLICT (sales_date, product_id) DO UPDATE
+        SET units_sold = product_sales_daily.units_sold + EXCLUDED.units_sold,
+            revenue    = product_sales_daily.revenue + EXCLUDED.revenue
+        """, nativeQuery = true)
+    int applyDaily(@Param("salesDate") LocalDate salesDate,
+                   @Param("productIds") Long[] productIds,
+                   @Param("units") Long[] units,
+                   @Param("revenues") BigDecimal[] revenues);
+
+    // Suma (o descuenta) las ventas de un lote de órdenes directamente desde order_items, ordenado por producto
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_stats (product_id, units_sold, revenue, updated_at)
+        SELECT oi.product_id, :sign * SUM(oi.quantity), :sign * SUM(oi.subtotal), CURRENT_TIMESTAMP
+        FROM order_items oi
+        WHERE oi.order_id = ANY(CAST(:orderIds AS bigint[]))
+        GROUP BY oi.product_id
+        ORDER BY oi.product_id
+        ON CONFLICT (product_id) DO UPDATE
+        SET units_sold = product_sales_stats.units_sold + EXCLUDED.units_sold,
+            revenue    = product_sales_stats.revenue + EXCLUDED.revenue,
+            updated_at = EXCLUDED.updated_at
+        """, nativeQuery = true)
+    int applyTotalsForOrders(@Param("orderIds") Long[] orderIds, @Param("sign") int sign);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_daily (sales_date, product_id, units_sold, revenue)
+        SELECT CAST(o.order_date AS DATE), oi.product_id, :sign * SUM(oi.quantity), :sign * SUM(oi.subtotal)
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE oi.order_id = ANY(CAST(:orderIds AS bigint[]))
+        GROUP BY CAST(o.order_date AS DATE), oi.product_id
+        ORDER BY 1, 2
+        ON CONFLICT (sales_date, product_id) DO UPDATE
+        SET units_sold = product_sales_daily.units_sold + EXCLUDED.units_sold,
+            revenue    = product_sales_daily.revenue + EXCLUDED.revenue
+        """, nativeQuery = true)
+    int applyDailyForOrders(@Param("orderIds") Long[] orderIds, @Param("sign") int sign);
+
+    // Recalculo completo desde order_items (corrige cualquier deriva del rollup incremental).
+    // EXCLUSIVE bloquea las escrituras incrementales (no las lecturas) hasta el fin de la transacción
+    @Modifying
+    @Query(value = "LOCK TABLE product_sales_stats, product_sales_daily IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    @Modifying
+    @Query(value = "DELETE FROM product_sales_stats", nativeQuery = true)
+    void deleteAllTotals();
+
+    @Modifying
+    @Query(value = "DELETE FROM product_sales_daily", nativeQuery = true)
+    void deleteAllDaily();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_stats (product_id, units_sold, revenue, updated_at)
+        SELECT oi.product_id, SUM(oi.quantity), SUM(oi.subtotal), CURRENT_TIMESTAMP
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE o.status IN ('SHIPPED', 'DELIVERED')
+        GROUP BY oi.product_id
+        """, nativeQuery = true)
+    int rebuildTotals();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_sales_daily (sales_date, product_id, units_sold, revenue)
+        SELECT CAST(o.order_date AS DATE), oi.product_id, SUM(oi.quantity), SUM(oi.subtotal)
+        FROM order_items oi
+        JOIN orders o ON o.id = oi.order_id
+        WHERE o.status IN ('SHIPPED', 'DELIVERED')
+        GROUP BY CAST(o.order_date AS DATE), oi.product_id
+        """, nativeQuery = true)
+    int rebuildDaily();
+}
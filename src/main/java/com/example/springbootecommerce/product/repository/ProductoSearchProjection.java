@@ -0,0 +1,18 @@
+package com.example.springbootecommerce.product.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public interface ProductoSearchProjection {
+    Long getId();
+    String getName();
+    String getDescription();
+    String getBrand();
+    BigDecimal getPrice();
+    Integer getStockQuantity();
+    Long getCategoryId();
+    String getCategoryName();
+    BigDecimal getRatingAverage();
+    LocalDateTime getCreatedAt();
+    Boolean getActive();
+}
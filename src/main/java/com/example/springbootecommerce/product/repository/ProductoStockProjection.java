@@ -0,0 +1,7 @@
+package com.example.springbootecommerce.product.repository;
+
+public interface ProductoStockProjection {
+    Long getId();
+    String getName();
+    Integer getStockQuantity();
+}
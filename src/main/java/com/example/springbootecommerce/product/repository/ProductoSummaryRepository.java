@@ -0,0 +1,32 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.Producto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Listados de productos como filas resumen: mismas Specifications que findAll,
+ * pero sin hidratar entidades Producto.
+ */
+public interface ProductoSummaryRepository {
+
+    Page<ProductoSummaryRow> findSummaries(Specification<Producto> spec, Pageable pageable);
+
+    List<ProductoSummaryRow> findSummaries(Specification<Producto> spec, Sort sort, int limit);
+
+    /**
+     * Productos más vendidos: top-N sobre el rollup product_sales_stats (idx_product_sales_stats_units).
+     * Con categoryId, solo esa categoría y sus subcategorías (tabla de clausura).
+     */
+    Page<ProductoSummaryRow> findBestSellingSummaries(Long categoryId, Pageable pageable);
+
+    /**
+     * Más vendidos desde una fecha: agrega solo las filas diarias del período (categoría opcional)
+     */
+    Page<ProductoSummaryRow> findBestSellingSummariesSince(LocalDate since, Long categoryId, Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.shared.util.CriteriaProjection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.Join;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductoSummaryRepositoryImpl implements ProductoSummaryRepository {
+
+    private static final CriteriaProjection.Selector<Producto, ProductoSummaryRow> SUMMARY = (root, query, cb) -> {
+        Join<Producto, Categoria> categoria = root.join("categoria");
+        return cb.construct(ProductoSummaryRow.class,
+                root.get("id"), root.get("name"), root.get("sku"), root.get("price"),
+                root.get("stockQuantity"), categoria.get("name"), root.get("brand"), root.get("imageUrl"),
+                root.get("ratingSum"), root.get("ratingCount"), root.get("ratingAverage"), root.get("createdAt"));
+    };
+
+    private static final String BEST_SELLING_FROM = """
+             FROM product_sales_stats s
+            JOIN products p ON p.id = s.product_id
+            JOIN categories c ON c.id = p.category_id
+            WHERE p.is_active = true AND s.units_sold > 0""";
+
+    // Solo las filas diarias del período, agregadas por producto
+    private static final String BEST_SELLING_SINCE_FROM = """
+             FROM (
+                SELECT d.product_id, SUM(d.units_sold) AS units_sold
+                FROM product_sales_daily d
+                WHERE d.sales_date >= :since
+                GROUP BY d.product_id
+            ) s
+            JOIN products p ON p.id = s.product_id
+            JOIN categories c ON c.id = p.category_id
+            WHERE p.is_active = true AND s.units_sold > 0""";
+
+    // La categoría y sus subcategorías (tabla de clausura)
+    private static final String CATEGORY_FILTER =
+            " AND p.category_id IN (SELECT cc.descendant_id FROM category_closure cc WHERE cc.ancestor_id = :categoryId)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<ProductoSummaryRow> findSummaries(Specification<Producto> spec, Pageable pageable) {
+        return CriteriaProjection.findPage(entityManager, Producto.class, ProductoSummaryRow.class,
+                spec, pageable, SUMMARY);
+    }
+
+    @Override
+    public List<ProductoSummaryRow> findSummaries(Specification<Producto> spec, Sort sort, int limit) {
+        return CriteriaProjection.findList(entityManager, Producto.class, ProductoSummaryRow.class,
+                spec, sort, limit, SUMMARY);
+    }
+
+    @Override
+    public Page<ProductoSummaryRow> findBestSellingSummaries(Long categoryId, Pageable pageable) {
+        return findBestSelling(BEST_SELLING_FROM, new HashMap<>(), categoryId, pageable);
+    }
+
+    @Override
+    public Page<ProductoSummaryRow> findBestSellingSummariesSince(LocalDate since, Long categoryId,
+                                                                  Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("since", since);
+        return findBestSelling(BEST_SELLING_SINCE_FROM, parameters, categoryId, pageable);
+    }
+
+    /**
+     * Página de más vendidos ordenada por s.units_sold, en SQL nativo y como filas resumen
+     */
+    private Page<ProductoSummaryRow> findBestSelling(String bestSellingFrom, Map<String, Object> parameters,
+                                                     Long categoryId, Pageable pageable) {
+        StringBuilder from = new StringBuilder(bestSellingFrom);
+        if (categoryId != null) {
+            from.append(CATEGORY_FILTER);
+            parameters.put("categoryId", categoryId);
+        }
+
+        Query query = entityManager.createNativeQuery("SELECT " + ProductoSummaryRow.NATIVE_COLUMNS + from
+                + " ORDER BY s.units_sold DESC, s.product_id");
+        parameters.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+
+        List<ProductoSummaryRow> content = ProductoSummaryRow.fromNativeQuery(query);
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            Query count = entityManager.createNativeQuery("SELECT COUNT(*)" + from);
+            parameters.forEach(count::setParameter);
+            return ((Number) count.getSingleResult()).longValue();
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.springbootecommerce.product.repository;
+
+import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Columnas de un producto en los listados (sin description ni relaciones), con el nombre de la
+ * categoría resuelto en la misma consulta. Se construye directamente desde la consulta.
+ */
+public record ProductoSummaryRow(
+        Long id,
+        String name,
+        String sku,
+        BigDecimal price,
+        Integer stockQuantity,
+        String categoryName,
+        String brand,
+        String imageUrl,
+        Long ratingSum,
+        Integer ratingCount,
+        BigDecimal ratingAverage,
+        LocalDateTime createdAt
+) {
+
+    // Mismas columnas en SQL nativo, sobre "products p JOIN categories c ON c.id = p.category_id"
+    static final String NATIVE_COLUMNS = """
+            p.id AS id, p.name AS name, p.sku AS sku, p.price AS price, p.stock_quantity AS stock_quantity,
+            c.name AS category_name, p.brand AS brand, p.image_url AS image_url, p.rating_sum AS rating_sum,
+            p.rating_count AS rating_count, p.rating_average AS rating_average, p.created_at AS created_at
+            """;
+
+    /**
+     * Ejecuta una consulta nativa que selecciona NATIVE_COLUMNS y construye las filas, con el tipo
+     * de cada columna fijado (no depende de lo que devuelva el driver)
+     */
+    @SuppressWarnings("unchecked")
+    static List<ProductoSummaryRow> fromNativeQuery(Query query) {
+        return query.unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("name", String.class)
+                .addScalar("sku", String.class)
+                .addScalar("price", BigDecimal.class)
+                .addScalar("stock_quantity", Integer.class)
+                .addScalar("category_name", String.class)
+                .addScalar("brand", String.class)
+                .addScalar("image_url", String.class)
+                .addScalar("rating_sum", Long.class)
+                .addScalar("rating_count", Integer.class)
+                .addScalar("rating_average", BigDecimal.class)
+                .addScalar("created_at", LocalDateTime.class)
+                .setTupleTransformer((tuple, aliases) -> new ProductoSummaryRow(
+                        (Long) tuple[0], (String) tuple[1], (String) tuple[2], (BigDecimal) tuple[3],
+                        (Integer) tuple[4], (String) tuple[5], (String) tuple[6], (String) tuple[7],
+                        (Long) tuple[8], (Integer) tuple[9], (BigDecimal) tuple[10], (LocalDateTime) tuple[11]))
+                .getResultList();
+    }
+}
@@ -1,19 +1,27 @@
 package com.example.springbootecommerce.product.repository;
 
 import com.example.springbootecommerce.product.entity.Review;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
+    // Bloqueo pesimista: la edición o baja de una reseña calcula el delta de los agregados desde su rating actual
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Review r WHERE r.id = :reviewId")
+    Optional<Review> findByIdWithLock(@Param("reviewId") Long reviewId);
+
     // Encontrar reseñas por producto
     @Query("SELECT r FROM Review r WHERE r.producto.id = :productId ORDER BY r.createdAt DESC")
     Page<Review> findByProductId(@Param("productId") Long productId, Pageable pageable);
@@ -38,23 +46,23 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     @Query("SELECT r FROM Review r WHERE r.producto.id = :productId AND r.isVerifiedPurchase = true ORDER BY r.createdAt DESC")
     Page<Review> findVerifiedReviewsByProductId(@Param("productId") Long productId, Pageable pageable);
 
-    // Estadísticas de rating por producto
+    // Estadísticas de rating por producto (agregados desnormalizados en products, una sola fila)
     @Query("""
-        SELECT r.rating, COUNT(r) 
-        FROM Review r 
-        WHERE r.producto.id = :productId 
-        GROUP BY r.rating 
-        ORDER BY r.rating DESC
+        SELECT p.ratingSum AS ratingSum, p.ratingCount AS ratingCount,
+               p.rating1Count AS rating1Count, p.rating2Count AS rating2Count, p.rating3Count AS rating3Count,
+               p.rating4Count AS rating4Count, p.rating5Count AS rating5Count
+        FROM Producto p
+        WHERE p.id = :productId
         """)
-    List<Object[]> getRatingDistributionByProductId(@Param("productId") Long productId);
+    Optional<ProductoRatingProjection> getRatingDistributionByProductId(@Param("productId") Long productId);
 
     // Rating promedio por producto
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.producto.id = :productId")
-    Double getAverageRatingByProductId(@Param("productId") Long productId);
+    @Query("SELECT p.ratingAverage FROM Producto p WHERE p.id = :productId")
+    BigDecimal getAverageRatingByProductId(@Param("productId") Long productId);
 
     // Contar total de reseñas por producto
-    @Query("SELECT COUNT(r) FROM Review r WHERE r.producto.id = :productId")
-    Long countReviewsByProductId(@Param("productId") Long productId);
+    @Query("SELECT p.ratingCount FROM Producto p WHERE p.id = :productId")
+    Integer countReviewsByProductId(@Param("productId") Long productId);
 
     // Reseñas más útiles (si tuviéramos sistema de votos)
     @Query("SELECT r FROM Review r WHERE r.producto.id = :productId AND LENGTH(r.comment) > 50 ORDER BY r.createdAt DESC")
@@ -1,6 +1,9 @@
 package com.example.springbootecommerce.product.repository.specification;
 
+import com.example.springbootecommerce.product.entity.CategoriaClosure;
 import com.example.springbootecommerce.product.entity.Producto;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -25,4 +28,17 @@ public class ProductoSpecification {
     public static Specification<Producto> categoryId(Long categoryId) {
         return (root, query, cb) -> cb.equal(root.get("categoria").get("id"), categoryId);
     }
+
+    /**
+     * Productos de la categoría o de cualquiera de sus subcategorías (semi-join con la tabla de clausura)
+     */
+    public static Specification<Producto> categoryOrDescendants(Long categoryId) {
+        return (root, query, cb) -> {
+            Subquery<Long> descendants = query.subquery(Long.class);
+            Root<CategoriaClosure> closure = descendants.from(CategoriaClosure.class);
+            descendants.select(closure.get("descendantId"))
+                    .where(cb.equal(closure.get("ancestorId"), categoryId));
+            return root.get("categoria").get("id").in(descendants);
+        };
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.springbootecommerce.product.service;
 
+import com.example.springbootecommerce.product.dto.CategoriaBreadcrumbDTO;
 import com.example.springbootecommerce.product.dto.CategoriaDTO;
 import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
 import com.example.springbootecommerce.product.dto.CreateCategoriaDTO;
@@ -55,6 +56,15 @@ public interface CategoriaService {
      */
     List<CategoriaDTO> getSubcategories(Long parentId);
 
+    /**
+     * Obtiene la ruta desde la categoría raíz hasta la categoría indicada (breadcrumb).
+     *
+     * @param id ID de la categoría
+     * @return Lista ordenada desde la raíz hasta la propia categoría
+     * @throws ResourceNotFoundException si no existe la categoría
+     */
+    List<CategoriaBreadcrumbDTO> getBreadcrumb(Long id);
+
     /**
      * Busca categorías por nombre o descripción.
      *
@@ -0,0 +1,105 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
+import com.example.springbootecommerce.product.mapper.CategoriaMapper;
+import com.example.springbootecommerce.product.repository.CategoriaRepository;
+import com.example.springbootecommerce.product.repository.CategoriaTreeProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Árbol de categorías activas materializado en memoria.
+ * Se construye con una sola consulta plana (categorías + conteo de productos activos) y se
+ * publica como una instantánea inmutable; mientras no cambie el catálogo las lecturas no
+ * consultan la base de datos. Cada cambio invalida la versión y la siguiente lectura
+ * reconstruye y reemplaza la instantánea completa.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoriaTreeSnapshot {
+
+    private final CategoriaRepository categoriaRepository;
+    private final CategoriaMapper categoriaMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot current;
+
+    private record Snapshot(long version, List<CategoriaTreeDTO> roots) {
+    }
+
+    /**
+     * Devuelve las categorías raíz con sus subcategorías. La lista y sus nodos son compartidos:
+     * no deben modificarse.
+     */
+    public List<CategoriaTreeDTO> getTree() {
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == version.get()) {
+            return snapshot.roots();
+        }
+        return rebuild();
+    }
+
+    /**
+     * Marca la instantánea como obsoleta. Si hay una transacción activa se invalida de nuevo al
+     * confirmarla, para descartar un árbol construido antes del commit.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private synchronized List<CategoriaTreeDTO> rebuild() {
+        // La versión se toma antes de consultar: si cambia durante la construcción, la
+        // instantánea queda obsoleta y la siguiente lectura vuelve a construirla
+        long target = version.get();
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == target) {
+            return snapshot.roots();
+        }
+
+        List<CategoriaTreeDTO> roots = build(categoriaRepository.findActiveTreeNodes());
+        current = new Snapshot(target, roots);
+        log.debug("Árbol de categorías reconstruido (versión {})", target);
+        return roots;
+    }
+
+    private List<CategoriaTreeDTO> build(List<CategoriaTreeProjection> rows) {
+        Map<Long, CategoriaTreeDTO> nodes = new LinkedHashMap<>();
+        for (CategoriaTreeProjection row : rows) {
+            nodes.put(row.getId(), categoriaMapper.toCategoriaTreeDTO(row));
+        }
+
+        // Las filas llegan ordenadas por displayOrder: los hijos conservan ese orden
+        List<CategoriaTreeDTO> roots = new ArrayList<>();
+        Map<Long, List<CategoriaTreeDTO>> children = new HashMap<>();
+        for (CategoriaTreeProjection row : rows) {
+            CategoriaTreeDTO node = nodes.get(row.getId());
+            if (row.getParentId() == null) {
+                roots.add(node);
+            } else if (nodes.containsKey(row.getParentId())) {
+                children.computeIfAbsent(row.getParentId(), id -> new ArrayList<>()).add(node);
+            }
+            // Con el padre inactivo la categoría no es alcanzable desde una raíz y queda fuera
+        }
+        nodes.forEach((id, node) -> node.setSubcategories(List.copyOf(children.getOrDefault(id, List.of()))));
+        return List.copyOf(roots);
+    }
+}
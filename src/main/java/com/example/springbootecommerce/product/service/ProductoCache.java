@@ -0,0 +1,125 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.ProductoCacheStatsDTO;
+import com.example.springbootecommerce.product.dto.ProductoDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caché de lectura de ProductoDTO con límite de tamaño y expiración por tiempo.
+ * Los productos se guardan por ID; el SKU solo apunta al ID, de modo que invalidar un
+ * producto invalida también su búsqueda por SKU.
+ */
+@Component
+public class ProductoCache {
+
+    private final Cache<Long, ProductoDTO> productsById;
+    private final Cache<String, Long> idsBySku;
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductoCache(@Value("${app.product.cache.max-size:10000}") long maxSize,
+                         @Value("${app.product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.productsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.idsBySku = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    /**
+     * Devuelve el producto en caché o lo carga con el loader (una sola carga concurrente por ID).
+     * Las excepciones del loader se propagan y no se guardan en caché.
+     */
+    public ProductoDTO getById(Long id, Function<Long, ProductoDTO> loader) {
+        ProductoDTO producto = productsById.get(id, loader);
+        idsBySku.put(producto.getSku(), id);
+        return producto;
+    }
+
+    /**
+     * Resuelve el ID del SKU (idResolver solo si no está en caché) y carga el producto por ID con la misma
+     * carga atómica de getById: una invalidación que llega durante la carga espera a que termine y la
+     * descarta, en lugar de quedar por detrás de un producto ya desactualizado.
+     */
+    public ProductoDTO getBySku(String sku, Function<String, Long> idResolver, Function<Long, ProductoDTO> loader) {
+        Long id = idsBySku.get(sku, idResolver);
+        ProductoDTO producto = productsById.get(id, loader);
+        if (!sku.equals(producto.getSku())) {
+            // El SKU se reasignó a otro producto desde que se indexó: se vuelve a resolver
+            idsBySku.invalidate(sku);
+            id = idsBySku.get(sku, idResolver);
+            producto = productsById.get(id, loader);
+        }
+        return producto;
+    }
+
+    /**
+     * Invalida un producto. Si hay una transacción activa se invalida de nuevo al confirmarla,
+     * para descartar lo que una lectura concurrente haya cargado antes del commit.
+     */
+    public void evict(Long id) {
+        evictAll(List.of(id));
+    }
+
+    public void evictAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> keys = List.copyOf(ids);
+        invalidateNowAndAfterCommit(() -> invalidate(keys));
+    }
+
+    /**
+     * Vacía la caché (recálculos masivos que afectan a todos los productos)
+     */
+    public void clear() {
+        invalidateNowAndAfterCommit(() -> {
+            invalidations.add(productsById.estimatedSize());
+            productsById.invalidateAll();
+        });
+    }
+
+    public ProductoCacheStatsDTO getStats() {
+        CacheStats stats = productsById.stats();
+        return ProductoCacheStatsDTO.builder()
+                .size(productsById.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(invalidations.sum())
+                .build();
+    }
+
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
+    private void invalidate(Collection<Long> ids) {
+        productsById.invalidateAll(ids);
+        invalidations.add(ids.size());
+    }
+}
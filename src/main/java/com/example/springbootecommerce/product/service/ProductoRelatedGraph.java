@@ -0,0 +1,141 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.repository.ProductoRelatedRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Grafo de productos relacionados precalculado (product_copurchase y product_related).
+ * El job procesa por lotes las órdenes posteriores al checkpoint, suma sus pares de productos
+ * y recalcula solo el top-K de los productos que aparecen en ellas. Las lecturas se sirven
+ * desde una caché de IDs por producto que se invalida al confirmar cada lote.
+ */
+@Slf4j
+@Component
+public class ProductoRelatedGraph {
+
+    private final ProductoRelatedRepository productoRelatedRepository;
+    private final Cache<Long, List<Long>> relatedIds;
+
+    @Value("${app.product.related.top-k:12}")
+    private int topK;
+
+    @Value("${app.product.related.min-co-purchases:2}")
+    private int minCoPurchases;
+
+    @Value("${app.product.related.settle-minutes:30}")
+    private long settleMinutes;
+
+    public ProductoRelatedGraph(ProductoRelatedRepository productoRelatedRepository,
+                                @Value("${app.product.related.cache.max-size:10000}") long maxSize,
+                                @Value("${app.product.related.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.productoRelatedRepository = productoRelatedRepository;
+        this.relatedIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * IDs relacionados de un producto, en orden. El loader recibe el ID cuando no está en caché;
+     * sus excepciones se propagan y no se guardan en caché.
+     */
+    public List<Long> getRelatedIds(Long productId, Function<Long, List<Long>> loader) {
+        return relatedIds.get(productId, loader);
+    }
+
+    /**
+     * Procesa el siguiente lote de órdenes asentadas (más antiguas que settle-minutes, de modo que
+     * las reservas expiradas ya se cancelaron) y recalcula el top-K de sus productos.
+     *
+     * @return false cuando no quedan órdenes por procesar
+     */
+    @Transactional
+    public boolean processNewOrders(int batchSize) {
+        long fromId = productoRelatedRepository.lockCheckpoint();
+        Long toId = productoRelatedRepository.findBatchUpperBound(
+                fromId, LocalDateTime.now().minusMinutes(settleMinutes), batchSize);
+        if (toId == null) {
+            return false;
+        }
+
+        int pairs = productoRelatedRepository.applyCoPurchases(fromId, toId);
+        List<Long> affected = productoRelatedRepository.findProductIdsInOrders(fromId, toId);
+        recompute(affected);
+        productoRelatedRepository.moveCheckpointTo(toId);
+
+        log.debug("Grafo de relacionados: órdenes ({}, {}] procesadas, {} pares, {} productos recalculados",
+                fromId, toId, pairs, affected.size());
+        return true;
+    }
+
+    /**
+     * Recalcula el top-K de un lote de productos por orden de ID, para reflejar cambios de
+     * categoría, productos nuevos o desactivados que no aparecen en órdenes recientes.
+     *
+     * @return Último ID recalculado, o null si no quedan productos después de afterId
+     */
+    @Transactional
+    public Long refreshBatch(long afterId, int batchSize) {
+        productoRelatedRepository.lockCheckpoint();
+        List<Long> productIds = productoRelatedRepository.findProductIdsAfter(afterId, batchSize);
+        if (productIds.isEmpty()) {
+            return null;
+        }
+        recompute(productIds);
+        return productIds.get(productIds.size() - 1);
+    }
+
+    /**
+     * Descarta el grafo y reinicia el checkpoint; el job vuelve a procesar todo el historial
+     */
+    @Transactional
+    public void reset() {
+        productoRelatedRepository.lockCheckpoint();
+        productoRelatedRepository.deleteAllRelated();
+        productoRelatedRepository.deleteAllCoPurchases();
+        productoRelatedRepository.moveCheckpointTo(0);
+        afterCommit(relatedIds::invalidateAll);
+        log.info("Grafo de productos relacionados reiniciado");
+    }
+
+    private void recompute(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = productIds.toArray(Long[]::new);
+        productoRelatedRepository.deleteByProductIds(ids);
+        productoRelatedRepository.insertTopK(ids, topK, minCoPurchases);
+        List<Long> keys = List.copyOf(productIds);
+        afterCommit(() -> relatedIds.invalidateAll(keys));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
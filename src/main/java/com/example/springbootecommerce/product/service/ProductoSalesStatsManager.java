@@ -0,0 +1,97 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.entity.OrderItem;
+import com.example.springbootecommerce.product.repository.ProductoSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Mantiene el rollup de ventas por producto (product_sales_stats y product_sales_daily).
+ * Una orden cuenta como venta mientras está SHIPPED o DELIVERED: se suma al entrar en ese
+ * conjunto de estados y se descuenta al salir de él, en la transacción del cambio de estado. Como
+ * en OrderRevenueManager, el delta depende del estado anterior y exige la fila de la orden bloqueada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductoSalesStatsManager {
+
+    private final ProductoSalesStatsRepository productoSalesStatsRepository;
+
+    public static boolean countsAsSale(Order.OrderStatus status) {
+        return status == Order.OrderStatus.SHIPPED || status == Order.OrderStatus.DELIVERED;
+    }
+
+    /**
+     * Aplica al rollup el cambio de estado de una orden (no hace nada si no entra ni sale de las ventas).
+     * previousStatus debe haberse leído con la orden bloqueada en la transacción actual.
+     */
+    public void onStatusChange(Order order, Order.OrderStatus previousStatus) {
+        boolean wasSale = countsAsSale(previousStatus);
+        boolean isSale = countsAsSale(order.getStatus());
+        if (wasSale == isSale || order.getItems().isEmpty()) {
+            return;
+        }
+        long sign = isSale ? 1 : -1;
+
+        // Agrupado y ordenado por producto: mismo orden de bloqueo de filas entre transacciones
+        Map<Long, Long> units = new TreeMap<>();
+        Map<Long, BigDecimal> revenues = new TreeMap<>();
+        for (OrderItem item : order.getItems()) {
+            Long productId = item.getProducto().getId();
+            units.merge(productId, sign * item.getQuantity(), Long::sum);
+            revenues.merge(productId, item.getSubtotal().multiply(BigDecimal.valueOf(sign)), BigDecimal::add);
+        }
+        Long[] productIds = units.keySet().toArray(Long[]::new);
+        Long[] unitDeltas = units.values().toArray(Long[]::new);
+        BigDecimal[] revenueDeltas = revenues.values().toArray(BigDecimal[]::new);
+
+        productoSalesStatsRepository.applyTotals(productIds, unitDeltas, revenueDeltas);
+        productoSalesStatsRepository.applyDaily(order.getOrderDate().toLocalDate(), productIds, unitDeltas, revenueDeltas);
+        log.debug("Rollup de ventas actualizado por la orden {} ({} productos, signo {})",
+                order.getId(), productIds.length, sign);
+    }
+
+    /**
+     * Aplica al rollup un cambio de estado masivo: todas las órdenes pasan de previousStatus a newStatus.
+     * Las ventas se agregan en la base de datos desde order_items, sin cargar las órdenes.
+     */
+    public void onBulkStatusChange(Collection<Long> orderIds, Order.OrderStatus previousStatus,
+                                   Order.OrderStatus newStatus) {
+        boolean wasSale = countsAsSale(previousStatus);
+        boolean isSale = countsAsSale(newStatus);
+        if (wasSale == isSale || orderIds.isEmpty()) {
+            return;
+        }
+        int sign = isSale ? 1 : -1;
+        Long[] ids = orderIds.toArray(Long[]::new);
+        int products = productoSalesStatsRepository.applyTotalsForOrders(ids, sign);
+        productoSalesStatsRepository.applyDailyForOrders(ids, sign);
+        log.debug("Rollup de ventas actualizado por {} órdenes ({} productos, signo {})",
+                ids.length, products, sign);
+    }
+
+    /**
+     * Recalcula el rollup completo desde order_items. Debe ejecutarse en una transacción: las tablas del
+     * rollup quedan bloqueadas para que ninguna orden aplique su delta entre el DELETE y el INSERT…SELECT
+     * (se perdería o se contaría dos veces); esas órdenes esperan y lo aplican sobre el rollup recalculado.
+     *
+     * @return Número de productos con ventas
+     */
+    public int rebuild() {
+        productoSalesStatsRepository.lockForRebuild();
+        productoSalesStatsRepository.deleteAllDaily();
+        productoSalesStatsRepository.deleteAllTotals();
+        productoSalesStatsRepository.rebuildDaily();
+        int products = productoSalesStatsRepository.rebuildTotals();
+        log.info("Rollup de ventas recalculado. Productos con ventas: {}", products);
+        return products;
+    }
+}
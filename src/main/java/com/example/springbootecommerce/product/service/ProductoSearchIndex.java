@@ -0,0 +1,642 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.FacetValueDTO;
+import com.example.springbootecommerce.product.dto.ProductoSearchCriteria;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoSearchProjection;
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido en memoria del catálogo activo (app.product.search.mode = INDEX).
+ * Cada producto es un documento con un ID interno denso; los términos de nombre, marca y descripción
+ * apuntan a listas ordenadas de esos IDs y precio, marca, categoría y stock se guardan en arrays
+ * paralelos (doc values) para filtrar, ordenar y contar facetas sin consultar la base de datos.
+ * <p>
+ * Las modificaciones marcan el documento anterior como eliminado y agregan uno nuevo al final, de modo
+ * que las listas de postings siguen ordenadas; la reconstrucción periódica compacta los eliminados.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductoSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+
+    private final ProductoRepository productoRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.product.search.mode:FULL_TEXT}")
+    private ProductoSearchMode searchMode;
+
+    private volatile Segment segment;
+    private volatile boolean rebuilding = false;
+
+    // Productos modificados mientras se construye un segmento nuevo: se recargan tras el cambio de segmento
+    private final Set<Long> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public boolean isEnabled() {
+        return searchMode == ProductoSearchMode.INDEX;
+    }
+
+    /**
+     * Indica si el índice terminó su primera construcción y puede responder búsquedas
+     */
+    public boolean isReady() {
+        return segment != null;
+    }
+
+    /**
+     * Construye un segmento nuevo desde la base de datos y lo publica en lugar del actual
+     */
+    public synchronized void rebuild() {
+        if (!isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        Segment fresh = new Segment();
+        try {
+            readOnlyTransaction().executeWithoutResult(status -> {
+                try (Stream<ProductoSearchProjection> documents = productoRepository.streamSearchDocuments()) {
+                    documents.forEach(fresh::add);
+                }
+            });
+            segment = fresh;
+        } finally {
+            rebuilding = false;
+        }
+
+        if (!changedDuringRebuild.isEmpty()) {
+            List<Long> changed = List.copyOf(changedDuringRebuild);
+            changedDuringRebuild.removeAll(changed);
+            refresh(changed);
+        }
+        log.info("Índice de búsqueda construido con {} productos en {} ms",
+                fresh.liveCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Indica si el segmento actual acumula suficientes documentos eliminados como para reconstruirlo
+     */
+    public boolean needsCompaction(double maxDeletedRatio) {
+        Segment current = segment;
+        return current != null && current.deletedRatio() > maxDeletedRatio;
+    }
+
+    // ========================================================================
+    // ACTUALIZACIÓN INCREMENTAL
+    // ========================================================================
+
+    /**
+     * Vuelve a indexar productos creados, editados o desactivados. Se aplica al confirmar la transacción actual.
+     */
+    public void onProductsChanged(Collection<Long> productIds) {
+        if (!isEnabled() || productIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(productIds);
+        afterCommit(() -> refresh(ids));
+    }
+
+    /**
+     * Aplica variaciones de stock (negativas en ventas, positivas en reposiciones) al confirmar la transacción
+     */
+    public void onStockChanged(Map<Long, Integer> deltas) {
+        if (!isEnabled() || deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> copy = Map.copyOf(deltas);
+        afterCommit(() -> {
+            Segment current = segment;
+            if (current != null) {
+                copy.forEach(current::adjustStock);
+            }
+            if (rebuilding) {
+                changedDuringRebuild.addAll(copy.keySet());
+            }
+        });
+    }
+
+    private void refresh(Collection<Long> productIds) {
+        if (rebuilding) {
+            changedDuringRebuild.addAll(productIds);
+        }
+        Segment current = segment;
+        if (current == null) {
+            return;
+        }
+        TransactionTemplate template = readOnlyTransaction();
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<ProductoSearchProjection> documents = template.execute(status ->
+                productoRepository.findSearchDocumentsByIds(productIds));
+
+        Set<Long> found = new HashSet<>();
+        for (ProductoSearchProjection document : documents) {
+            found.add(document.getId());
+            if (Boolean.TRUE.equals(document.getActive())) {
+                current.add(document);
+            } else {
+                current.remove(document.getId());
+            }
+        }
+        productIds.stream().filter(id -> !found.contains(id)).forEach(current::remove);
+    }
+
+    // ========================================================================
+    // BÚSQUEDA
+    // ========================================================================
+
+    /**
+     * Resuelve una búsqueda con filtros, orden y paginación, y cuenta las facetas del resultado completo.
+     *
+     * @param categoryIds Categorías admitidas (la del criterio y, si se pidió, sus descendientes); null sin filtro
+     * @return Resultado, o null si el índice aún no está construido
+     */
+    public SearchResult search(ProductoSearchCriteria criteria, Collection<Long> categoryIds) {
+        Segment current = segment;
+        if (current == null) {
+            return null;
+        }
+        return current.search(criteria, categoryIds);
+    }
+
+    /**
+     * Página de IDs de producto en el orden solicitado, total de coincidencias y facetas
+     */
+    public record SearchResult(List<Long> productIds,
+                               long total,
+                               List<FacetValueDTO> brands,
+                               List<FacetValueDTO> categories,
+                               long inStockCount) {
+    }
+
+    // ========================================================================
+    // MÉTODOS PRIVADOS
+    // ========================================================================
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (!StringUtils.hasText(text)) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(
+                Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() >= 2) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // ========================================================================
+    // SEGMENTO
+    // ========================================================================
+
+    /**
+     * Lista de IDs de documento ordenada de forma ascendente (los documentos nuevos siempre tienen el ID mayor)
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int size;
+
+        void add(int doc) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+    }
+
+    /**
+     * Diccionario de valores repetidos (marcas, categorías) a ordinales compactos; la etiqueta es la del
+     * último documento indexado, de modo que reindexar los productos de una categoría renombrada la actualiza
+     */
+    private static final class Dictionary<K> {
+        private final Map<K, Integer> ordinals = new HashMap<>();
+        private final List<K> keys = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+
+        int ordinalOf(K key, String label) {
+            Integer ordinal = ordinals.get(key);
+            if (ordinal == null) {
+                ordinal = keys.size();
+                ordinals.put(key, ordinal);
+                keys.add(key);
+                labels.add(label);
+            } else if (!Objects.equals(labels.get(ordinal), label)) {
+                labels.set(ordinal, label);
+            }
+            return ordinal;
+        }
+
+        int size() {
+            return keys.size();
+        }
+    }
+
+    private static final class Segment {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<String, Postings> namePostings = new HashMap<>();
+        private final Map<Long, Integer> docByProductId = new HashMap<>();
+        private final Dictionary<String> brands = new Dictionary<>();
+        private final Dictionary<Long> categories = new Dictionary<>();
+        private final BitSet deleted = new BitSet();
+
+        // Doc values: una posición por documento
+        private long[] productIds = new long[1024];
+        private long[] priceCents = new long[1024];
+        private int[] stock = new int[1024];
+        private int[] brandOrd = new int[1024];
+        private int[] categoryOrd = new int[1024];
+        private long[] createdAt = new long[1024];
+        private float[] rating = new float[1024];
+        private String[] sortNames = new String[1024];
+
+        private int docCount;
+        private int deletedCount;
+
+        void add(ProductoSearchProjection document) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(document.getId());
+                int doc = docCount++;
+                ensureCapacity(docCount);
+
+                productIds[doc] = document.getId();
+                priceCents[doc] = toCents(document.getPrice());
+                stock[doc] = document.getStockQuantity() != null ? document.getStockQuantity() : 0;
+                brandOrd[doc] = document.getBrand() != null
+                        ? brands.ordinalOf(document.getBrand().toLowerCase(Locale.ROOT), document.getBrand())
+                        : -1;
+                categoryOrd[doc] = categories.ordinalOf(document.getCategoryId(), document.getCategoryName());
+                createdAt[doc] = document.getCreatedAt() != null
+                        ? document.getCreatedAt().toEpochSecond(ZoneOffset.UTC)
+                        : 0L;
+                rating[doc] = document.getRatingAverage() != null ? document.getRatingAverage().floatValue() : 0f;
+                sortNames[doc] = document.getName().toLowerCase(Locale.ROOT);
+                docByProductId.put(document.getId(), doc);
+
+                Set<String> nameTokens = tokenize(document.getName());
+                Set<String> allTokens = new LinkedHashSet<>(nameTokens);
+                allTokens.addAll(tokenize(document.getBrand()));
+                allTokens.addAll(tokenize(document.getDescription()));
+                nameTokens.forEach(token -> namePostings.computeIfAbsent(token, t -> new Postings()).add(doc));
+                allTokens.forEach(token -> postings.computeIfAbsent(token, t -> new Postings()).add(doc));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(Long productId) {
+            lock.writeLock().lock();
+            try {
+                removeInternal(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void adjustStock(Long productId, int delta) {
+            lock.writeLock().lock();
+            try {
+                Integer doc = docByProductId.get(productId);
+                if (doc != null) {
+                    stock[doc] = Math.max(0, stock[doc] + delta);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int liveCount() {
+            return docCount - deletedCount;
+        }
+
+        double deletedRatio() {
+            return docCount == 0 ? 0 : (double) deletedCount / docCount;
+        }
+
+        SearchResult search(ProductoSearchCriteria criteria, Collection<Long> categoryIds) {
+            lock.readLock().lock();
+            try {
+                return searchInternal(criteria, categoryIds);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private SearchResult searchInternal(ProductoSearchCriteria criteria, Collection<Long> categoryIds) {
+            Set<String> terms = tokenize(criteria.getSearchTerm());
+            int[] candidates = candidates(terms);
+
+            // Filtros resueltos una vez por consulta sobre los diccionarios
+            boolean[] categoryAllowed = null;
+            if (categoryIds != null) {
+                categoryAllowed = new boolean[categories.size()];
+                boolean any = false;
+                for (Long categoryId : categoryIds) {
+                    Integer ordinal = categories.ordinals.get(categoryId);
+                    if (ordinal != null) {
+                        categoryAllowed[ordinal] = true;
+                        any = true;
+                    }
+                }
+                if (!any) {
+                    return emptyResult();
+                }
+            }
+            boolean[] brandAllowed = null;
+            if (StringUtils.hasText(criteria.getBrand())) {
+                String brand = criteria.getBrand().toLowerCase(Locale.ROOT);
+                brandAllowed = new boolean[brands.size()];
+                for (int ordinal = 0; ordinal < brands.size(); ordinal++) {
+                    brandAllowed[ordinal] = brands.keys.get(ordinal).contains(brand);
+                }
+            }
+            long minPrice = criteria.getMinPrice() != null ? toCents(criteria.getMinPrice()) : Long.MIN_VALUE;
+            long maxPrice = criteria.getMaxPrice() != null ? toCents(criteria.getMaxPrice()) : Long.MAX_VALUE;
+            boolean inStockOnly = Boolean.TRUE.equals(criteria.getInStock());
+
+            int[] brandCounts = new int[brands.size()];
+            int[] categoryCounts = new int[categories.size()];
+            int inStockCount = 0;
+            int total = 0;
+            int[] matches = new int[Math.min(candidates.length, 1024)];
+
+            for (int doc : candidates) {
+                if (deleted.get(doc)
+                        || (categoryAllowed != null && (categoryOrd[doc] < 0 || !categoryAllowed[categoryOrd[doc]]))
+                        || (brandAllowed != null && (brandOrd[doc] < 0 || !brandAllowed[brandOrd[doc]]))
+                        || priceCents[doc] < minPrice || priceCents[doc] > maxPrice
+                        || (inStockOnly && stock[doc] <= 0)) {
+                    continue;
+                }
+                if (total == matches.length) {
+                    matches = Arrays.copyOf(matches, total * 2);
+                }
+                matches[total++] = doc;
+                if (brandOrd[doc] >= 0) {
+                    brandCounts[brandOrd[doc]]++;
+                }
+                categoryCounts[categoryOrd[doc]]++;
+                if (stock[doc] > 0) {
+                    inStockCount++;
+                }
+            }
+
+            int page = criteria.getPage() != null ? criteria.getPage() : 0;
+            int size = criteria.getSize() != null ? criteria.getSize() : 20;
+            List<Long> pageIds = topDocuments(matches, total, comparator(criteria, terms), page, size);
+
+            return new SearchResult(pageIds, total,
+                    facets(brands, brandCounts, false),
+                    facets(categories, categoryCounts, true),
+                    inStockCount);
+        }
+
+        /**
+         * Intersección de las postings de todos los términos, empezando por la más corta
+         */
+        private int[] candidates(Set<String> terms) {
+            if (terms.isEmpty()) {
+                int[] all = new int[docCount];
+                for (int doc = 0; doc < docCount; doc++) {
+                    all[doc] = doc;
+                }
+                return all;
+            }
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            Postings smallest = lists.get(0);
+            int[] result = Arrays.copyOf(smallest.docs, smallest.size);
+            int length = result.length;
+            for (int i = 1; i < lists.size() && length > 0; i++) {
+                Postings other = lists.get(i);
+                int kept = 0;
+                for (int j = 0; j < length; j++) {
+                    if (other.contains(result[j])) {
+                        result[kept++] = result[j];
+                    }
+                }
+                length = kept;
+            }
+            return Arrays.copyOf(result, length);
+        }
+
+        private IntBinaryOperator comparator(ProductoSearchCriteria criteria, Set<String> terms) {
+            boolean descending = "desc".equalsIgnoreCase(criteria.getSortDirection());
+            String sortBy = criteria.getSortBy() != null ? criteria.getSortBy() : "relevance";
+            IntBinaryOperator byField = switch (sortBy) {
+                case "relevance" -> terms.isEmpty()
+                        ? (a, b) -> sortNames[a].compareTo(sortNames[b])
+                        // Más términos presentes en el nombre primero
+                        : (a, b) -> Integer.compare(nameScore(b, terms), nameScore(a, terms));
+                case "name" -> (a, b) -> sortNames[a].compareTo(sortNames[b]);
+                case "price" -> (a, b) -> Long.compare(priceCents[a], priceCents[b]);
+                case "createdAt" -> (a, b) -> Long.compare(createdAt[a], createdAt[b]);
+                case "rating" -> (a, b) -> Float.compare(rating[a], rating[b]);
+                default -> throw new BusinessException("Campo de ordenamiento no válido: " + sortBy);
+            };
+            boolean reverse = descending && !"relevance".equals(sortBy);
+            return (a, b) -> {
+                int result = reverse ? byField.applyAsInt(b, a) : byField.applyAsInt(a, b);
+                return result != 0 ? result : Long.compare(productIds[a], productIds[b]);
+            };
+        }
+
+        private int nameScore(int doc, Set<String> terms) {
+            int score = 0;
+            for (String term : terms) {
+                Postings list = namePostings.get(term);
+                if (list != null && list.contains(doc)) {
+                    score++;
+                }
+            }
+            return score;
+        }
+
+        /**
+         * Selecciona solo los primeros (page + 1) * size documentos con un heap acotado sobre int[]
+         * (sin boxing por candidato): la raíz es el peor documento retenido y se reemplaza cuando llega
+         * uno mejor. Al final el heap se ordena en el mismo arreglo (heapsort).
+         */
+        private List<Long> topDocuments(int[] matches, int total, IntBinaryOperator order, int page, int size) {
+            long limit = (long) (page + 1) * size;
+            int offset = page * size;
+            if (offset >= total) {
+                return List.of();
+            }
+            int keep = (int) Math.min(limit, total);
+            int[] heap = new int[keep];
+            int heapSize = 0;
+            for (int i = 0; i < total; i++) {
+                int doc = matches[i];
+                if (heapSize < keep) {
+                    heap[heapSize] = doc;
+                    siftUp(heap, heapSize++, order);
+                } else if (order.applyAsInt(doc, heap[0]) < 0) {
+                    heap[0] = doc;
+                    siftDown(heap, 0, heapSize, order);
+                }
+            }
+            for (int last = heapSize - 1; last > 0; last--) {
+                int worst = heap[0];
+                heap[0] = heap[last];
+                heap[last] = worst;
+                siftDown(heap, 0, last, order);
+            }
+
+            List<Long> pageIds = new ArrayList<>(size);
+            for (int i = offset; i < heapSize; i++) {
+                pageIds.add(productIds[heap[i]]);
+            }
+            return pageIds;
+        }
+
+        // Heap de máximos según order: cada padre va detrás (o igual) que sus hijos en el orden final
+        private static void siftUp(int[] heap, int index, IntBinaryOperator order) {
+            int doc = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (order.applyAsInt(doc, heap[parent]) <= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = doc;
+        }
+
+        private static void siftDown(int[] heap, int index, int heapSize, IntBinaryOperator order) {
+            int doc = heap[index];
+            int half = heapSize >>> 1;
+            while (index < half) {
+                int child = 2 * index + 1;
+                int right = child + 1;
+                if (right < heapSize && order.applyAsInt(heap[right], heap[child]) > 0) {
+                    child = right;
+                }
+                if (order.applyAsInt(doc, heap[child]) >= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = doc;
+        }
+
+        private List<FacetValueDTO> facets(Dictionary<?> dictionary, int[] counts, boolean withId) {
+            List<FacetValueDTO> facets = new ArrayList<>();
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                if (counts[ordinal] > 0) {
+                    Long id = withId ? (Long) dictionary.keys.get(ordinal) : null;
+                    facets.add(new FacetValueDTO(id, dictionary.labels.get(ordinal), (long) counts[ordinal]));
+                }
+            }
+            facets.sort(Comparator.comparing(FacetValueDTO::getCount).reversed()
+                    .thenComparing(FacetValueDTO::getName));
+            return facets;
+        }
+
+        private SearchResult emptyResult() {
+            return new SearchResult(List.of(), 0, List.of(), List.of(), 0);
+        }
+
+        private void removeInternal(Long productId) {
+            Integer doc = docByProductId.remove(productId);
+            if (doc != null) {
+                deleted.set(doc);
+                deletedCount++;
+            }
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= productIds.length) {
+                return;
+            }
+            int capacity = Math.max(required, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            stock = Arrays.copyOf(stock, capacity);
+            brandOrd = Arrays.copyOf(brandOrd, capacity);
+            categoryOrd = Arrays.copyOf(categoryOrd, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            rating = Arrays.copyOf(rating, capacity);
+            sortNames = Arrays.copyOf(sortNames, capacity);
+        }
+
+        private static long toCents(BigDecimal price) {
+            return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.springbootecommerce.product.service;
+
+/**
+ * Estrategia usada por la búsqueda de productos cuando se indica un término.
+ * Se configura con la propiedad app.product.search.mode.
+ */
+public enum ProductoSearchMode {
+
+    /**
+     * lower(name) LIKE '%término%': no usa índices, recorre toda la tabla.
+     */
+    LIKE,
+
+    /**
+     * to_tsvector/plainto_tsquery sobre nombre, marca y descripción ordenado por ts_rank,
+     * con similitud por trigramas sobre el nombre cuando no hay coincidencias (errores de tipeo).
+     */
+    FULL_TEXT,
+
+    /**
+     * Índice invertido en memoria (ProductoSearchIndex) con conteo de facetas.
+     * Mientras el índice no está construido se usa FULL_TEXT.
+     */
+    INDEX
+}
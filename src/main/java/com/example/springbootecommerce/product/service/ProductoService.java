@@ -1,6 +1,7 @@
 package com.example.springbootecommerce.product.service;
 
 import com.example.springbootecommerce.product.dto.*;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
 import org.springframework.data.domain.Page;
@@ -25,6 +26,26 @@ public interface ProductoService {
      */
     Page<ProductoSummaryDTO> searchProducts(ProductoSearchCriteria criteria);
 
+    /**
+     * Busca productos en el índice en memoria y cuenta las facetas (marca, categoría, stock) del resultado.
+     * Si el índice no está disponible, responde desde la base de datos sin facetas.
+     *
+     * @param criteria Criterios de búsqueda
+     * @return Página de resúmenes de productos con facetas
+     */
+    ProductoFacetedSearchDTO searchProductsWithFacets(ProductoSearchCriteria criteria);
+
+    /**
+     * Lista productos con paginación por cursor (keyset), sin OFFSET ni COUNT(*).
+     * Admite ordenar por name, price, createdAt y rating (relevance se ordena por name).
+     *
+     * @param criteria     Criterios de búsqueda (page se ignora)
+     * @param cursor       Cursor devuelto por la página anterior (null para la primera)
+     * @param includeTotal Si es true se calcula también el total de coincidencias
+     * @return Porción de resúmenes de productos con el cursor de la siguiente página
+     */
+    SliceResponse<ProductoSummaryDTO> scrollProducts(ProductoSearchCriteria criteria, String cursor, boolean includeTotal);
+
     /**
      * Obtiene un producto por su ID.
      *
@@ -68,23 +89,39 @@ public interface ProductoService {
     Page<ProductoSummaryDTO> getActiveProducts(int page, int size, String sortBy, String sortDirection);
 
     /**
-     * Obtiene productos relacionados a uno dado.
+     * Obtiene productos relacionados a uno dado: primero los comprados juntos con más frecuencia
+     * y después vecinos de la misma categoría, desde el top-K precalculado.
      *
      * @param productId ID del producto base
-     * @param limit     Límite de productos relacionados
+     * @param limit     Límite de productos relacionados (como máximo el top-K configurado)
      * @return Lista de resúmenes de productos relacionados
      * @throws ResourceNotFoundException si el producto no existe
      */
     List<ProductoSummaryDTO> getRelatedProducts(Long productId, int limit);
 
     /**
-     * Obtiene los productos más vendidos.
+     * Reinicia el grafo de productos relacionados; el job lo reconstruye desde todo el historial de órdenes.
+     */
+    void rebuildRelatedProducts();
+
+    /**
+     * Obtiene los productos más vendidos desde el rollup de ventas.
      *
-     * @param page Página solicitada
-     * @param size Tamaño de página
+     * @param categoryId Categoría (incluye sus subcategorías); null para todo el catálogo
+     * @param days       Últimos días a considerar; null para todo el historial
+     * @param page       Página solicitada
+     * @param size       Tamaño de página
      * @return Página de resúmenes de productos
+     * @throws BusinessException si days no es mayor a 0
      */
-    Page<ProductoSummaryDTO> getBestSellingProducts(int page, int size);
+    Page<ProductoSummaryDTO> getBestSellingProducts(Long categoryId, Integer days, int page, int size);
+
+    /**
+     * Recalcula desde cero el rollup de ventas por producto a partir del historial de órdenes.
+     *
+     * @return Número de productos con ventas
+     */
+    int rebuildSalesStats();
 
     /**
      * Obtiene los productos mejor valorados.
@@ -174,4 +211,11 @@ public interface ProductoService {
      * @return Lista de resúmenes de productos
      */
     List<ProductoSummaryDTO> getProductsNeedingRestock(int threshold);
+
+    /**
+     * Obtiene las estadísticas de la caché de productos (aciertos, fallos, evicciones).
+     *
+     * @return Estadísticas acumuladas desde el arranque
+     */
+    ProductoCacheStatsDTO getCacheStats();
 }
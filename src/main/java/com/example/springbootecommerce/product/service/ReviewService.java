@@ -0,0 +1,77 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.CreateReviewDTO;
+import com.example.springbootecommerce.product.dto.RatingDistributionDTO;
+import com.example.springbootecommerce.product.dto.ReviewDTO;
+import com.example.springbootecommerce.product.dto.UpdateReviewDTO;
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import org.springframework.data.domain.Page;
+
+/**
+ * Interfaz del servicio de reseñas.
+ * Cada alta, edición o baja de una reseña actualiza en la misma transacción los agregados
+ * de calificación del producto (suma, total e histograma por estrellas).
+ */
+public interface ReviewService {
+
+    /**
+     * Obtiene las reseñas de un producto, de la más reciente a la más antigua.
+     *
+     * @param productId ID del producto
+     * @param page      Página solicitada
+     * @param size      Tamaño de página
+     * @return Página de reseñas
+     */
+    Page<ReviewDTO> getProductReviews(Long productId, int page, int size);
+
+    /**
+     * Obtiene el promedio y la distribución de calificaciones de un producto.
+     *
+     * @param productId ID del producto
+     * @return Distribución de calificaciones
+     * @throws ResourceNotFoundException si el producto no existe
+     */
+    RatingDistributionDTO getRatingDistribution(Long productId);
+
+    /**
+     * Crea la reseña de un usuario sobre un producto.
+     *
+     * @param userId          ID del usuario autor
+     * @param createReviewDTO Datos de la reseña
+     * @return Reseña creada
+     * @throws ResourceNotFoundException si el producto no existe o no está activo
+     * @throws BusinessException         si el usuario ya reseñó el producto
+     */
+    ReviewDTO createReview(Long userId, CreateReviewDTO createReviewDTO);
+
+    /**
+     * Actualiza una reseña propia.
+     *
+     * @param userId          ID del usuario autor
+     * @param reviewId        ID de la reseña
+     * @param updateReviewDTO Datos a actualizar
+     * @return Reseña actualizada
+     * @throws ResourceNotFoundException si la reseña no existe
+     * @throws BusinessException         si la reseña no pertenece al usuario
+     */
+    ReviewDTO updateReview(Long userId, Long reviewId, UpdateReviewDTO updateReviewDTO);
+
+    /**
+     * Elimina una reseña propia.
+     *
+     * @param userId   ID del usuario autor
+     * @param reviewId ID de la reseña
+     * @throws ResourceNotFoundException si la reseña no existe
+     * @throws BusinessException         si la reseña no pertenece al usuario
+     */
+    void deleteReview(Long userId, Long reviewId);
+
+    /**
+     * Recalcula los agregados de calificación de todos los productos desde la tabla reviews.
+     * Pensado para ejecutarse una vez tras la migración o para corregir desviaciones.
+     *
+     * @return Número de productos corregidos
+     */
+    int rebuildRatingAggregates();
+}
@@ -1,20 +1,28 @@
 package com.example.springbootecommerce.product.service.impl;
 
+import com.example.springbootecommerce.product.dto.CategoriaBreadcrumbDTO;
 import com.example.springbootecommerce.product.dto.CategoriaDTO;
 import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
 import com.example.springbootecommerce.product.dto.CreateCategoriaDTO;
 import com.example.springbootecommerce.product.entity.Categoria;
 import com.example.springbootecommerce.product.mapper.CategoriaMapper;
+import com.example.springbootecommerce.product.repository.CategoriaBreadcrumbProjection;
+import com.example.springbootecommerce.product.repository.CategoriaClosureRepository;
 import com.example.springbootecommerce.product.repository.CategoriaRepository;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
 import com.example.springbootecommerce.product.service.CategoriaService;
+import com.example.springbootecommerce.product.service.CategoriaTreeSnapshot;
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
 import com.example.springbootecommerce.shared.exception.BusinessException;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -23,6 +31,10 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     private final CategoriaMapper categoriaMapper;
     private final CategoriaRepository categoriaRepository;
+    private final CategoriaClosureRepository categoriaClosureRepository;
+    private final CategoriaTreeSnapshot categoriaTreeSnapshot;
+    private final ProductoRepository productoRepository;
+    private final ProductoSearchIndex productoSearchIndex;
 
 
     @Override
@@ -45,13 +57,12 @@ public class CategoriaServiceImpl implements CategoriaService {
                 .toList();
     }
 
+    // SUPPORTS: con la instantánea vigente no se abre transacción ni se toma conexión del pool
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CategoriaTreeDTO> getCategoryTree() {
         log.debug("Obteniendo tree de categories");
-        List<Categoria> categories = categoriaRepository.findRootCategories()   ;
-        return categories.stream()
-                .map(this::buildCategoryTree)
-                .toList();
+        return categoriaTreeSnapshot.getTree();
     }
 
     @Override
@@ -77,6 +88,17 @@ public class CategoriaServiceImpl implements CategoriaService {
                 .toList();
     }
 
+    @Override
+    public List<CategoriaBreadcrumbDTO> getBreadcrumb(Long id) {
+        log.debug("Obteniendo breadcrumb de category con id {}", id);
+
+        List<CategoriaBreadcrumbProjection> path = categoriaClosureRepository.findBreadcrumb(id);
+        if (path.isEmpty()) {
+            throw new ResourceNotFoundException("No existe categoria con id: " + id);
+        }
+        return categoriaMapper.toBreadcrumbDTOs(path);
+    }
+
     @Override
     public List<CategoriaDTO> searchCategories(String searchTerm) {
         log.debug("Buscando categories con termino: {}", searchTerm);
@@ -109,6 +131,8 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
         categoria.setIsActive(true);
         Categoria savedCategoria = categoriaRepository.save(categoria);
+        categoriaClosureRepository.insertCategory(savedCategoria.getId(), createCategoriaDTO.getParentId());
+        categoriaTreeSnapshot.invalidate();
 
         log.info("Categoria creada con ID: {}", savedCategoria.getId());
 
@@ -130,11 +154,13 @@ public class CategoriaServiceImpl implements CategoriaService {
                     }
                 });
         // Actualizar los datos
+        boolean renamed = !Objects.equals(categoria.getName(), updateCategoriaDTO.getName());
         categoria.setName(updateCategoriaDTO.getName());
         categoria.setDescription(updateCategoriaDTO.getDescription());
         categoria.setDisplayOrder(updateCategoriaDTO.getDisplayOrder());
 
         // Actualizar la categoria padre si es necesario
+        Long previousParentId = categoria.getParent() != null ? categoria.getParent().getId() : null;
         if (updateCategoriaDTO.getParentId() != null) {
             if (updateCategoriaDTO.getParentId().equals(id)){
                 throw new BusinessException("No se puede modificar la categoria con id: " + id +
@@ -143,8 +169,8 @@ public class CategoriaServiceImpl implements CategoriaService {
             Categoria parent = categoriaRepository.findById(updateCategoriaDTO.getParentId())
                     .orElseThrow(() -> new ResourceNotFoundException("No existe categoria padre con id: " + updateCategoriaDTO.getParentId()));
 
-            // Verificar que no se haya creado un ciclo
-            if (wouldCreateCycle(categoria, parent)) {
+            // Verificar que no se haya creado un ciclo: el nuevo padre no puede estar en el subárbol
+            if (categoriaClosureRepository.existsByAncestorIdAndDescendantId(id, parent.getId())) {
                 throw new BusinessException("No se puede modificar la categoria con id: " + id +
                         " a la categoria padre con id: " + updateCategoriaDTO.getParentId() +
                         " porque crea un ciclo.");
@@ -155,6 +181,14 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
 
         Categoria updateCategoria = categoriaRepository.save(categoria);
+        boolean moved = !Objects.equals(previousParentId, updateCategoriaDTO.getParentId());
+        if (moved) {
+            moveInHierarchy(id, updateCategoriaDTO.getParentId());
+        }
+        categoriaTreeSnapshot.invalidate();
+        if (renamed || moved) {
+            reindexProducts(moved ? categoriaClosureRepository.findDescendantIds(id) : List.of(id));
+        }
         log.info("Categoria actualizada con ID: {}", updateCategoria.getId());
         return categoriaMapper.toCategoriaDTO(updateCategoria);
     }
@@ -186,6 +220,7 @@ public class CategoriaServiceImpl implements CategoriaService {
         }
         categoria.setIsActive(false);
         categoriaRepository.save(categoria);
+        categoriaTreeSnapshot.invalidate();
         log.info("Categoria marcada como inactiva ");
     }
 
@@ -193,25 +228,25 @@ public class CategoriaServiceImpl implements CategoriaService {
     // MÉTODOS PRIVADOS DE UTILIDAD
     // ========================================================================
 
-    private CategoriaTreeDTO buildCategoryTree(Categoria categoria) {
-        CategoriaTreeDTO treeDTO = categoriaMapper.toCategoriaTreeDTO(categoria);
-
-        List<CategoriaTreeDTO> subcategoriesTree = categoria.getSubcategories().stream()
-                .filter(subcat -> Boolean.TRUE.equals(subcat.getIsActive()))
-                .map(this::buildCategoryTree)
-                .toList();
-        treeDTO.setSubcategories(subcategoriesTree);
-        return treeDTO;
+    /**
+     * Mueve la categoría y todo su subárbol bajo el nuevo padre en la tabla de clausura
+     */
+    private void moveInHierarchy(Long categoryId, Long newParentId) {
+        categoriaClosureRepository.detachSubtree(categoryId);
+        if (newParentId != null) {
+            categoriaClosureRepository.attachSubtree(categoryId, newParentId);
+        }
+        log.debug("Categoria {} movida bajo el padre {}", categoryId, newParentId);
     }
 
-    private boolean wouldCreateCycle(Categoria categoria, Categoria potentialParent) {
-        Categoria current = potentialParent;
-        while (current != null) {
-            if (current.equals(categoria)) {
-                return true;
-            }
-            current = current.getParent();
+    /**
+     * Reindexa los productos activos de las categorías para que las facetas del índice de búsqueda
+     * muestren el nombre y la jerarquía actuales
+     */
+    private void reindexProducts(List<Long> categoryIds) {
+        if (!productoSearchIndex.isEnabled()) {
+            return;
         }
-        return false;
+        productoSearchIndex.onProductsChanged(productoRepository.findActiveIdsByCategoryIds(categoryIds));
     }
 }
@@ -1,27 +1,52 @@
 package com.example.springbootecommerce.product.service.impl;
 
+import com.example.springbootecommerce.inventory.service.InventoryService;
+import com.example.springbootecommerce.inventory.service.StockLockMode;
 import com.example.springbootecommerce.product.dto.*;
 import com.example.springbootecommerce.product.entity.Categoria;
 import com.example.springbootecommerce.product.entity.Producto;
 import com.example.springbootecommerce.product.mapper.ProductoMapper;
+import com.example.springbootecommerce.product.repository.CategoriaClosureRepository;
 import com.example.springbootecommerce.product.repository.CategoriaRepository;
+import com.example.springbootecommerce.product.repository.ProductoRelatedRepository;
 import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoSummaryRow;
 import com.example.springbootecommerce.product.repository.specification.ProductoSpecification;
+import com.example.springbootecommerce.product.service.CategoriaTreeSnapshot;
+import com.example.springbootecommerce.product.service.ProductoCache;
+import com.example.springbootecommerce.product.service.ProductoRelatedGraph;
+import com.example.springbootecommerce.product.service.ProductoSalesStatsManager;
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
+import com.example.springbootecommerce.product.service.ProductoSearchMode;
 import com.example.springbootecommerce.product.service.ProductoService;
 import com.example.springbootecommerce.shared.exception.BusinessException;
+import com.example.springbootecommerce.shared.dto.PageResponse;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import com.example.springbootecommerce.shared.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,37 +57,107 @@ public class ProductoServiceImpl implements ProductoService {
     private final ProductoRepository productoRepository;
     private final ProductoMapper productoMapper;
     private final CategoriaRepository categoriaRepository;
+    private final CategoriaClosureRepository categoriaClosureRepository;
+    private final InventoryService inventoryService;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final CategoriaTreeSnapshot categoriaTreeSnapshot;
+    private final ProductoSalesStatsManager productoSalesStatsManager;
+    private final ProductoRelatedRepository productoRelatedRepository;
+    private final ProductoRelatedGraph productoRelatedGraph;
+
+    @Value("${app.inventory.stock-lock-mode:PESSIMISTIC}")
+    private StockLockMode stockLockMode;
+
+    private static final String RELEVANCE_SORT = "relevance";
+
+    @Value("${app.product.search.mode:FULL_TEXT}")
+    private ProductoSearchMode searchMode;
 
 
     @Override
     public Page<ProductoSummaryDTO> searchProducts(ProductoSearchCriteria criteria) {
         log.debug("Buscando productos con criterios: {}", criteria);
 
+        if (searchMode == ProductoSearchMode.INDEX && productoSearchIndex.isReady()) {
+            return toPage(productoSearchIndex.search(criteria, categoryScope(criteria)), criteria);
+        }
+        if (searchMode != ProductoSearchMode.LIKE && StringUtils.hasText(criteria.getSearchTerm())) {
+            return fullTextSearch(criteria);
+        }
+
         Specification<Producto> spec = createProductSpecification(criteria);
         Pageable pageable = createPage(criteria);
 
-        Page<Producto> productos = productoRepository.findAll(spec, pageable);
+        Page<ProductoSummaryRow> productos = productoRepository.findSummaries(spec, pageable);
         return productos.map(productoMapper::toSummaryDTO);
     }
 
     @Override
+    public ProductoFacetedSearchDTO searchProductsWithFacets(ProductoSearchCriteria criteria) {
+        ProductoSearchIndex.SearchResult result = productoSearchIndex.search(criteria, categoryScope(criteria));
+        if (result == null) {
+            // Índice sin construir (o modo distinto de INDEX): resultados desde la base de datos, sin facetas
+            return ProductoFacetedSearchDTO.builder()
+                    .productos(PageResponse.of(searchProducts(criteria)))
+                    .brands(List.of())
+                    .categories(List.of())
+                    .indexed(false)
+                    .build();
+        }
+        return ProductoFacetedSearchDTO.builder()
+                .productos(PageResponse.of(toPage(result, criteria)))
+                .brands(result.brands())
+                .categories(result.categories())
+                .inStockCount(result.inStockCount())
+                .indexed(true)
+                .build();
+    }
+
+    @Override
+    public SliceResponse<ProductoSummaryDTO> scrollProducts(ProductoSearchCriteria criteria, String cursor, boolean includeTotal) {
+        log.debug("Listando productos por cursor con criterios: {}", criteria);
+
+        Sort.Direction direction = Sort.Direction.fromString(criteria.getSortDirection());
+        // La relevancia no es una clave estable para keyset: se ordena por nombre
+        String sortBy = RELEVANCE_SORT.equals(criteria.getSortBy()) ? "name" : criteria.getSortBy();
+        int size = criteria.getSize();
+
+        Specification<Producto> filters = createProductSpecification(criteria);
+        Specification<Producto> seek = seekAfter(cursor, sortBy, direction);
+        List<ProductoSummaryRow> productos = productoRepository.findSummaries(filters.and(seek),
+                KeysetCursor.sort(sortAttribute(sortBy), direction), size + 1);
+
+        String nextCursor = null;
+        if (productos.size() > size) {
+            productos = productos.subList(0, size);
+            ProductoSummaryRow last = productos.get(size - 1);
+            nextCursor = KeysetCursor.encode(sortBy, direction, sortValue(last, sortBy), last.id());
+        }
+        Long total = includeTotal ? productoRepository.count(filters) : null;
+
+        return SliceResponse.of(productos.stream().map(productoMapper::toSummaryDTO).toList(), size, nextCursor, total);
+    }
+
+    // SUPPORTS: un acierto en caché no abre transacción ni toma conexión del pool;
+    // en un fallo el EntityManager sigue abierto durante el método para el mapeo de relaciones lazy
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoDTO getProductById(Long id) {
         log.debug("Obteniendo producto con ID: {}", id);
 
-        Producto producto = productoRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + id));
-
-        return productoMapper.toProductoDTO(producto);
+        return productoCache.getById(id, this::loadProductoDTO);
     }
 
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductoDTO getProductBySku(String sku) {
         log.debug("Obteniendo producto con SKU: {}", sku);
 
-        Producto producto = productoRepository.findBySku(sku)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con SKU: " + sku));
-
-        return productoMapper.toProductoDTO(producto);
+        return productoCache.getBySku(sku,
+                productSku -> productoRepository.findIdBySku(productSku)
+                        .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con SKU: " + productSku)),
+                this::loadProductoDTO);
     }
 
     @Override
@@ -77,7 +172,7 @@ public class ProductoServiceImpl implements ProductoService {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Producto> productos = productoRepository.findAll(ProductoSpecification.categoryId(categoryId), pageable);
+        Page<ProductoSummaryRow> productos = productoRepository.findSummaries(ProductoSpecification.categoryId(categoryId), pageable);
         return productos.map(productoMapper::toSummaryDTO);
     }
 
@@ -86,35 +181,57 @@ public class ProductoServiceImpl implements ProductoService {
         Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
         Pageable pageable = PageRequest.of(page, size, sort);
 
-        Page<Producto> productos = productoRepository.findAll(ProductoSpecification.isActive(), pageable);
+        Page<ProductoSummaryRow> productos = productoRepository.findSummaries(ProductoSpecification.isActive(), pageable);
         return productos.map(productoMapper::toSummaryDTO);
     }
 
     @Override
     public List<ProductoSummaryDTO> getRelatedProducts(Long productId, int limit) {
-        Producto producto = productoRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+        if (limit <= 0) {
+            throw new BusinessException("El límite debe ser mayor a 0");
+        }
+        List<Long> relatedIds = productoRelatedGraph.getRelatedIds(productId, this::loadRelatedIds);
+        List<Long> ids = relatedIds.subList(0, Math.min(limit, relatedIds.size()));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
-        Pageable pageable = PageRequest.of(0, limit);
-        List<Producto> relatedProducts = productoRepository.findRelatedProducts(
-                producto.getCategoria().getId(), productId, pageable);
+        // Una sola consulta para el top-K; los desactivados desde que se cargó la caché se omiten
+        return inOrder(ids, productoRepository.findActiveSummariesByIdIn(ids));
+    }
 
-        return relatedProducts.stream()
-                .map(productoMapper::toSummaryDTO)
-                .toList();
+    @Override
+    @Transactional
+    public void rebuildRelatedProducts() {
+        productoRelatedGraph.reset();
     }
 
     @Override
-    public Page<ProductoSummaryDTO> getBestSellingProducts(int page, int size) {
+    public Page<ProductoSummaryDTO> getBestSellingProducts(Long categoryId, Integer days, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Producto> productos = productoRepository.findBestSellingProducts(pageable);
+        Page<ProductoSummaryRow> productos;
+        if (days != null) {
+            if (days <= 0) {
+                throw new BusinessException("El número de días debe ser mayor a 0");
+            }
+            productos = productoRepository.findBestSellingSummariesSince(
+                    LocalDate.now().minusDays(days - 1L), categoryId, pageable);
+        } else {
+            productos = productoRepository.findBestSellingSummaries(categoryId, pageable);
+        }
         return productos.map(productoMapper::toSummaryDTO);
     }
 
+    @Override
+    @Transactional
+    public int rebuildSalesStats() {
+        return productoSalesStatsManager.rebuild();
+    }
+
     @Override
     public Page<ProductoSummaryDTO> getTopRatedProducts(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Producto> productos = productoRepository.findTopRatedProducts(pageable);
+        Page<ProductoSummaryRow> productos = productoRepository.findTopRatedProducts(pageable);
         return productos.map(productoMapper::toSummaryDTO);
     }
 
@@ -141,6 +258,8 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setIsActive(true);
 
         Producto saveProducto = productoRepository.save(producto);
+        productoSearchIndex.onProductsChanged(List.of(saveProducto.getId()));
+        categoriaTreeSnapshot.invalidate();
 
         log.info("Producto creado con ID: {}", saveProducto.getId());
         return productoMapper.toProductoDTO(saveProducto);
@@ -169,6 +288,15 @@ public class ProductoServiceImpl implements ProductoService {
         if (updateProductDTO.getIsActive() != null) producto.setIsActive(updateProductDTO.getIsActive());
 
         Producto updateProducto = productoRepository.save(producto);
+        if (updateProductDTO.getStockQuantity() != null) {
+            inventoryService.resync(id, updateProducto.getStockQuantity());
+        }
+        productoCache.evict(id);
+        productoSearchIndex.onProductsChanged(List.of(id));
+        if (updateProductDTO.getCategoryId() != null || updateProductDTO.getIsActive() != null) {
+            // Cambia el conteo de productos activos de alguna categoría
+            categoriaTreeSnapshot.invalidate();
+        }
         log.info("Producto actualizado con ID: {}", updateProducto.getId());
         return productoMapper.toProductoDTO(updateProducto);
     }
@@ -182,6 +310,9 @@ public class ProductoServiceImpl implements ProductoService {
 
         producto.setIsActive(false);
         productoRepository.save(producto);
+        productoCache.evict(id);
+        productoSearchIndex.onProductsChanged(List.of(id));
+        categoriaTreeSnapshot.invalidate();
         log.info("Producto eliminado con ID: {}", id);
     }
 
@@ -192,6 +323,19 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     public void updateStock(Long productId, Integer quantity) {
         log.info("Actualizando stock de producto con ID: {}. Nueva cantidad: {}", productId, quantity);
+        productoCache.evict(productId);
+
+        if (inventoryService.isEnabled()) {
+            if (quantity < 0) {
+                throw new BusinessException("La cantidad debe ser mayor o igual a 0.");
+            }
+            if (quantity > 0) {
+                inventoryService.release(productId, quantity);
+            }
+            productoSearchIndex.onStockChanged(Map.of(productId, quantity));
+            log.info("Stock actualizado de producto con ID: {}", productId);
+            return;
+        }
 
         Producto producto = productoRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
@@ -202,12 +346,41 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setStockQuantity(producto.getStockQuantity() + quantity);
         productoRepository.save(producto);
 
+        productoSearchIndex.onStockChanged(Map.of(productId, quantity));
         log.info("Stock actualizado de producto con ID: {}", productId);
     }
 
     @Transactional
     public void reduceStock(Long productId, Integer quantity) {
         log.info("Reduciendo stock de producto con ID: {}. Cantidad a reducir: {}", productId, quantity);
+        productoCache.evict(productId);
+
+        if (inventoryService.isEnabled()) {
+            // Reserva en el ledger en memoria, la escritura en products es diferida
+            Map<Long, Integer> shortfalls = inventoryService.reserve(Map.of(productId, quantity));
+            if (!shortfalls.isEmpty()) {
+                throw new BusinessException(
+                        String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
+                                shortfalls.get(productId), quantity));
+            }
+            productoSearchIndex.onStockChanged(Map.of(productId, -quantity));
+            log.info("Stock reducido de producto con ID: {}", productId);
+            return;
+        }
+
+        if (stockLockMode == StockLockMode.CONDITIONAL) {
+            // UPDATE atómico condicional, sin bloquear la fila antes de decidir
+            if (productoRepository.decrementStockIfAvailable(productId, quantity) == 0) {
+                Producto producto = productoRepository.findById(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+                throw new BusinessException(
+                        String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
+                                producto.getStockQuantity(), quantity));
+            }
+            productoSearchIndex.onStockChanged(Map.of(productId, -quantity));
+            log.info("Stock reducido de producto con ID: {}", productId);
+            return;
+        }
 
         //Usar bloqueo pesimista para manejo de concurrencia
         Producto producto = productoRepository.findByIdWithLock(productId)
@@ -222,12 +395,33 @@ public class ProductoServiceImpl implements ProductoService {
         producto.reduceStock(quantity);
         productoRepository.save(producto);
 
+        productoSearchIndex.onStockChanged(Map.of(productId, -quantity));
         log.info("Stock reducido de producto con ID: {}", productId);
     }
 
     @Transactional
     public void increaseStock(Long productId, Integer quantity) {
         log.info("Aumentando stock de producto con ID: {}. Cantidad a aumentar: {}", productId, quantity);
+        productoCache.evict(productId);
+
+        if (inventoryService.isEnabled()) {
+            inventoryService.release(productId, quantity);
+            productoSearchIndex.onStockChanged(Map.of(productId, quantity));
+            log.info("Stock aumentado de producto con ID: {}", productId);
+            return;
+        }
+
+        if (stockLockMode == StockLockMode.CONDITIONAL) {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("La cantidad a aumentar debe ser mayor a 0");
+            }
+            if (productoRepository.incrementStock(productId, quantity) == 0) {
+                throw new ResourceNotFoundException("Producto no encontrado");
+            }
+            productoSearchIndex.onStockChanged(Map.of(productId, quantity));
+            log.info("Stock aumentado de producto con ID: {}", productId);
+            return;
+        }
 
         Producto producto = productoRepository.findByIdWithLock(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
@@ -235,13 +429,19 @@ public class ProductoServiceImpl implements ProductoService {
         producto.increaseStock(quantity);
         productoRepository.save(producto);
 
+        productoSearchIndex.onStockChanged(Map.of(productId, quantity));
         log.info("Stock aumentado de producto con ID: {}", productId);
 
     }
 
+    @Override
+    public ProductoCacheStatsDTO getCacheStats() {
+        return productoCache.getStats();
+    }
+
     @Override
     public List<ProductoSummaryDTO> getLowStockProducts() {
-        List<Producto> lowStockProducts = productoRepository.findLowStockProducts();
+        List<ProductoSummaryRow> lowStockProducts = productoRepository.findLowStockProducts();
         return lowStockProducts.stream()
                 .map(productoMapper::toSummaryDTO)
                 .toList();
@@ -249,7 +449,7 @@ public class ProductoServiceImpl implements ProductoService {
 
     @Override
     public List<ProductoSummaryDTO> getProductsNeedingRestock(int threshold) {
-        List<Producto> productsNeedingRestock = productoRepository.findProductsNeedingRestock(threshold);
+        List<ProductoSummaryRow> productsNeedingRestock = productoRepository.findProductsNeedingRestock(threshold);
         return productsNeedingRestock.stream()
                 .map(productoMapper::toSummaryDTO)
                 .toList();
@@ -258,6 +458,13 @@ public class ProductoServiceImpl implements ProductoService {
     // MÉTODOS PRIVADOS DE UTILIDAD
     // ========================================================================
 
+    // Carga del producto por ID para la caché (getProductById y getProductBySku)
+    private ProductoDTO loadProductoDTO(Long productId) {
+        Producto producto = productoRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+        return productoMapper.toProductoDTO(producto);
+    }
+
     private Specification<Producto> createProductSpecification(ProductoSearchCriteria criteria) {
         Specification<Producto> spec = ProductoSpecification.isActive();
 
@@ -266,7 +473,9 @@ public class ProductoServiceImpl implements ProductoService {
             // Si quieres buscar también en descripción
         }
         if (criteria.getCategoryId() != null) {
-            spec = spec.and(ProductoSpecification.categoryId(criteria.getCategoryId()));
+            spec = spec.and(Boolean.TRUE.equals(criteria.getIncludeSubcategories())
+                    ? ProductoSpecification.categoryOrDescendants(criteria.getCategoryId())
+                    : ProductoSpecification.categoryId(criteria.getCategoryId()));
         }
         if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null) {
             spec = spec.and(ProductoSpecification.priceBetween(criteria.getMinPrice(), criteria.getMaxPrice()));
@@ -284,9 +493,101 @@ public class ProductoServiceImpl implements ProductoService {
         return spec;
     }
 
+    /**
+     * Categorías admitidas por el filtro del índice en memoria (null si no se filtra por categoría)
+     */
+    private Collection<Long> categoryScope(ProductoSearchCriteria criteria) {
+        if (criteria.getCategoryId() == null) {
+            return null;
+        }
+        if (Boolean.TRUE.equals(criteria.getIncludeSubcategories())) {
+            return categoriaClosureRepository.findDescendantIds(criteria.getCategoryId());
+        }
+        return List.of(criteria.getCategoryId());
+    }
+
+    /**
+     * Top-K precalculado del producto o, si aún no tiene (producto nuevo o job pendiente),
+     * los productos activos mejor valorados de su categoría
+     */
+    private List<Long> loadRelatedIds(Long productId) {
+        List<Long> relatedIds = productoRelatedRepository.findRelatedIds(productId);
+        if (!relatedIds.isEmpty()) {
+            return relatedIds;
+        }
+        Producto producto = productoRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+        return productoRepository.findRelatedProductIds(producto.getCategoria().getId(), productId,
+                PageRequest.of(0, productoRelatedGraph.getTopK()));
+    }
+
+    /**
+     * Carga en una sola consulta los productos de la página resuelta por el índice, respetando su orden
+     */
+    private Page<ProductoSummaryDTO> toPage(ProductoSearchIndex.SearchResult result, ProductoSearchCriteria criteria) {
+        List<ProductoSummaryDTO> content = inOrder(result.productIds(),
+                productoRepository.findActiveSummariesByIdIn(result.productIds()));
+        return new PageImpl<>(content, PageRequest.of(criteria.getPage(), criteria.getSize()), result.total());
+    }
+
+    /**
+     * Filas resumen en el orden de ids (el IN no conserva el orden); los IDs sin fila se omiten
+     */
+    private List<ProductoSummaryDTO> inOrder(List<Long> ids, List<ProductoSummaryRow> rows) {
+        Map<Long, ProductoSummaryRow> byId = rows.stream()
+                .collect(Collectors.toMap(ProductoSummaryRow::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(productoMapper::toSummaryDTO)
+                .toList();
+    }
+
+    private Specification<Producto> seekAfter(String cursor, String sortBy, Sort.Direction direction) {
+        return switch (sortBy) {
+            case "name" -> KeysetCursor.after(cursor, sortBy, direction, "name", Function.identity());
+            case "price" -> KeysetCursor.after(cursor, sortBy, direction, "price", BigDecimal::new);
+            case "createdAt" -> KeysetCursor.after(cursor, sortBy, direction, "createdAt", LocalDateTime::parse);
+            case "rating" -> KeysetCursor.after(cursor, sortBy, direction, "ratingAverage", BigDecimal::new);
+            default -> throw new BusinessException("Campo de ordenamiento no válido para paginación por cursor: " + sortBy);
+        };
+    }
+
+    private String sortAttribute(String sortBy) {
+        return "rating".equals(sortBy) ? "ratingAverage" : sortBy;
+    }
+
+    private Object sortValue(ProductoSummaryRow producto, String sortBy) {
+        return switch (sortBy) {
+            case "price" -> producto.price();
+            case "createdAt" -> producto.createdAt();
+            case "rating" -> producto.ratingAverage();
+            default -> producto.name();
+        };
+    }
+
     private Pageable createPage(ProductoSearchCriteria criteria) {
         Sort.Direction direction = Sort.Direction.fromString(criteria.getSortDirection());
-        Sort sort = Sort.by(direction, criteria.getSortBy());
+        // Sin búsqueda de texto completo no hay relevancia que ordenar
+        String sortBy = RELEVANCE_SORT.equals(criteria.getSortBy()) ? "name" : criteria.getSortBy();
+        Sort sort = Sort.by(direction, sortBy);
         return PageRequest.of(criteria.getPage(), criteria.getSize(), sort);
     }
+
+    /**
+     * Búsqueda por texto completo ordenada por ts_rank; si no hay ninguna coincidencia
+     * (por ejemplo, un error de tipeo) se repite por similitud de trigramas sobre el nombre
+     */
+    private Page<ProductoSummaryDTO> fullTextSearch(ProductoSearchCriteria criteria) {
+        Pageable pageable = RELEVANCE_SORT.equals(criteria.getSortBy())
+                ? PageRequest.of(criteria.getPage(), criteria.getSize())
+                : createPage(criteria);
+
+        Page<ProductoSummaryRow> productos = productoRepository.fullTextSearch(criteria, pageable);
+        if (productos.getTotalElements() == 0) {
+            log.debug("Sin coincidencias de texto completo para '{}', buscando por similitud", criteria.getSearchTerm());
+            productos = productoRepository.trigramSearch(criteria, pageable);
+        }
+        return productos.map(productoMapper::toSummaryDTO);
+    }
 }
@@ -0,0 +1,176 @@
+package com.example.springbootecommerce.product.service.impl;
+
+import com.example.springbootecommerce.product.dto.CreateReviewDTO;
+import com.example.springbootecommerce.product.dto.RatingDistributionDTO;
+import com.example.springbootecommerce.product.dto.ReviewDTO;
+import com.example.springbootecommerce.product.dto.UpdateReviewDTO;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.entity.Review;
+import com.example.springbootecommerce.product.mapper.ReviewMapper;
+import com.example.springbootecommerce.product.repository.ProductoRatingProjection;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ReviewRepository;
+import com.example.springbootecommerce.product.service.ProductoCache;
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
+import com.example.springbootecommerce.product.service.ReviewService;
+import com.example.springbootecommerce.shared.exception.DuplicateResourceException;
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import com.example.springbootecommerce.shared.exception.UnauthorizedOperationException;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ReviewServiceImpl implements ReviewService {
+
+    private final ReviewRepository reviewRepository;
+    private final ProductoRepository productoRepository;
+    private final UserRepository userRepository;
+    private final ReviewMapper reviewMapper;
+    private final ProductoCache productoCache;
+    private final ProductoSearchIndex productoSearchIndex;
+
+    // ========================================================================
+    // OPERACIONES DE CONSULTA
+    // ========================================================================
+
+    @Override
+    public Page<ReviewDTO> getProductReviews(Long productId, int page, int size) {
+        return reviewRepository.findByProductId(productId, PageRequest.of(page, size))
+                .map(reviewMapper::toReviewDTO);
+    }
+
+    @Override
+    public RatingDistributionDTO getRatingDistribution(Long productId) {
+        ProductoRatingProjection rating = reviewRepository.getRatingDistributionByProductId(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        distribution.put(5, rating.getRating5Count());
+        distribution.put(4, rating.getRating4Count());
+        distribution.put(3, rating.getRating3Count());
+        distribution.put(2, rating.getRating2Count());
+        distribution.put(1, rating.getRating1Count());
+
+        return RatingDistributionDTO.builder()
+                .productId(productId)
+                .averageRating(rating.getRatingCount() > 0
+                        ? (double) rating.getRatingSum() / rating.getRatingCount()
+                        : 0.0)
+                .totalReviews(rating.getRatingCount())
+                .distribution(distribution)
+                .build();
+    }
+
+    // ========================================================================
+    // OPERACIONES DE MODIFICACIÓN
+    // ========================================================================
+
+    @Override
+    @Transactional
+    public ReviewDTO createReview(Long userId, CreateReviewDTO createReviewDTO) {
+        Long productId = createReviewDTO.getProductId();
+        log.info("Creando reseña del usuario {} para el producto {}", userId, productId);
+
+        Producto producto = productoRepository.findById(productId)
+                .filter(Producto::getIsActive)
+                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con ID: " + productId));
+        if (reviewRepository.existsByProductoIdAndUserId(productId, userId)) {
+            throw new DuplicateResourceException("Ya existe una reseña de este usuario para el producto");
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + userId));
+
+        Review review = Review.builder()
+                .producto(producto)
+                .user(user)
+                .rating(createReviewDTO.getRating())
+                .title(createReviewDTO.getTitle())
+                .comment(createReviewDTO.getComment())
+                .build();
+        Review saved = reviewRepository.save(review);
+
+        productoRepository.applyRatingChange(productId, 0, saved.getRating());
+        productoCache.evict(productId);
+        // El orden por calificación del índice de búsqueda usa rating_average
+        productoSearchIndex.onProductsChanged(List.of(productId));
+
+        log.info("Reseña creada con ID: {}", saved.getId());
+        return reviewMapper.toReviewDTO(saved);
+    }
+
+    @Override
+    @Transactional
+    public ReviewDTO updateReview(Long userId, Long reviewId, UpdateReviewDTO updateReviewDTO) {
+        log.info("Actualizando reseña con ID: {}", reviewId);
+
+        Review review = findOwnReview(userId, reviewId);
+        int previousRating = review.getRating();
+
+        if (updateReviewDTO.getRating() != null) review.setRating(updateReviewDTO.getRating());
+        if (updateReviewDTO.getTitle() != null) review.setTitle(updateReviewDTO.getTitle());
+        if (updateReviewDTO.getComment() != null) review.setComment(updateReviewDTO.getComment());
+        Review saved = reviewRepository.save(review);
+
+        Long productId = saved.getProducto().getId();
+        if (saved.getRating() != previousRating) {
+            productoRepository.applyRatingChange(productId, previousRating, saved.getRating());
+        }
+        productoCache.evict(productId);
+        productoSearchIndex.onProductsChanged(List.of(productId));
+
+        return reviewMapper.toReviewDTO(saved);
+    }
+
+    @Override
+    @Transactional
+    public void deleteReview(Long userId, Long reviewId) {
+        log.info("Eliminando reseña con ID: {}", reviewId);
+
+        Review review = findOwnReview(userId, reviewId);
+        Long productId = review.getProducto().getId();
+
+        reviewRepository.delete(review);
+        productoRepository.applyRatingChange(productId, review.getRating(), 0);
+        productoCache.evict(productId);
+        productoSearchIndex.onProductsChanged(List.of(productId));
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRatingAggregates() {
+        int corrected = productoRepository.rebuildRatingAggregates();
+        productoCache.clear();
+        log.info("Agregados de calificación recalculados. Productos corregidos: {}", corrected);
+        return corrected;
+    }
+
+    // ========================================================================
+    // MÉTODOS PRIVADOS
+    // ========================================================================
+
+    /**
+     * Reseña del usuario bloqueada hasta el fin de la transacción: dos ediciones concurrentes no aplican
+     * sobre rating_sum un delta calculado desde el mismo rating anterior
+     */
+    private Review findOwnReview(Long userId, Long reviewId) {
+        Review review = reviewRepository.findByIdWithLock(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Reseña no encontrada con ID: " + reviewId));
+        if (!review.getUser().getId().equals(userId)) {
+            throw new UnauthorizedOperationException("La reseña no pertenece al usuario autenticado");
+        }
+        return review;
+    }
+}
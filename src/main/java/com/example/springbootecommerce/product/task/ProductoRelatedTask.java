@@ -0,0 +1,61 @@
+package com.example.springbootecommerce.product.task;
+
+import com.example.springbootecommerce.product.service.ProductoRelatedGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductoRelatedTask {
+
+    private final ProductoRelatedGraph productoRelatedGraph;
+
+    @Value("${app.product.related.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.product.related.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    /**
+     * Incorpora al grafo las órdenes nuevas; cada lote es una transacción corta
+     */
+    @Scheduled(fixedDelayString = "${app.product.related.interval-ms:300000}")
+    public void processNewOrders() {
+        int batches = 0;
+        try {
+            while (batches < maxBatchesPerRun && productoRelatedGraph.processNewOrders(batchSize)) {
+                batches++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Error actualizando el grafo de productos relacionados: {}", e.getMessage(), e);
+        }
+        if (batches > 0) {
+            log.info("Grafo de productos relacionados actualizado: {} lotes de órdenes procesados", batches);
+        }
+    }
+
+    /**
+     * Recalcula el top-K de todo el catálogo (productos nuevos, cambios de categoría o de actividad)
+     */
+    @Scheduled(fixedDelayString = "${app.product.related.refresh-interval-ms:86400000}",
+            initialDelayString = "${app.product.related.refresh-initial-delay-ms:60000}")
+    public void refreshAll() {
+        long lastId = 0;
+        int batches = 0;
+        try {
+            Long next;
+            while ((next = productoRelatedGraph.refreshBatch(lastId, batchSize)) != null) {
+                lastId = next;
+                batches++;
+            }
+        } catch (RuntimeException e) {
+            log.error("Error recalculando los productos relacionados (último ID {}): {}", lastId, e.getMessage(), e);
+            return;
+        }
+        log.info("Productos relacionados recalculados para todo el catálogo ({} lotes)", batches);
+    }
+}
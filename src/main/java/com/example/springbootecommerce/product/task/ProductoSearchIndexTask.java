@@ -0,0 +1,63 @@
+package com.example.springbootecommerce.product.task;
+
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductoSearchIndexTask {
+
+    private final ProductoSearchIndex productoSearchIndex;
+
+    @Value("${app.product.search.index.max-deleted-ratio:0.2}")
+    private double maxDeletedRatio;
+
+    @Value("${app.product.search.index.full-rebuild-interval-ms:3600000}")
+    private long fullRebuildIntervalMs;
+
+    private volatile long lastRebuild;
+
+    /**
+     * Construye el índice en segundo plano al arrancar; hasta entonces las búsquedas usan la base de datos
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruye el índice cuando acumula demasiados documentos eliminados o cuando vence el intervalo
+     * de reconstrucción completa (corrige cualquier desviación del stock indexado)
+     */
+    @Scheduled(fixedDelayString = "${app.product.search.index.check-interval-ms:60000}")
+    public void compact() {
+        if (!productoSearchIndex.isReady()) {
+            return;
+        }
+        boolean expired = System.currentTimeMillis() - lastRebuild > fullRebuildIntervalMs;
+        if (expired || productoSearchIndex.needsCompaction(maxDeletedRatio)) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        if (!productoSearchIndex.isEnabled()) {
+            return;
+        }
+        try {
+            productoSearchIndex.rebuild();
+            lastRebuild = System.currentTimeMillis();
+        } catch (RuntimeException e) {
+            log.error("Error construyendo el índice de búsqueda de productos: {}", e.getMessage(), e);
+        }
+    }
+}
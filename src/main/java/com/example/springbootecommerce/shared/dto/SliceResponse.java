@@ -0,0 +1,34 @@
+package com.example.springbootecommerce.shared.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Respuesta de listados paginados por cursor (keyset).
+ * No incluye el total de elementos salvo que se solicite explícitamente, para evitar el COUNT(*).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SliceResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+    private boolean empty;
+
+    public static <T> SliceResponse<T> of(List<T> content, int size, String nextCursor, Long totalElements){
+        return new SliceResponse<>(
+                content,
+                size,
+                nextCursor != null,
+                nextCursor,
+                totalElements,
+                content.isEmpty()
+        );
+    }
+}
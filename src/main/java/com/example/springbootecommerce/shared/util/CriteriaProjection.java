@@ -0,0 +1,108 @@
+package com.example.springbootecommerce.shared.util;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de listado que aplican una Specification pero seleccionan solo las columnas de una
+ * fila resumen (constructor expression) en lugar de la entidad completa. Las filas no pasan por
+ * el contexto de persistencia: no hay snapshots de dirty checking ni relaciones lazy que cargar.
+ */
+public final class CriteriaProjection {
+
+    private CriteriaProjection() {
+    }
+
+    /**
+     * Selección de la fila resumen sobre la raíz de la consulta (joins incluidos)
+     */
+    @FunctionalInterface
+    public interface Selector<T, R> {
+        Selection<? extends R> select(Root<T> root, CriteriaQuery<R> query, CriteriaBuilder cb);
+    }
+
+    /**
+     * Página de filas con el COUNT(*) solo cuando hace falta (misma semántica que findAll(spec, pageable))
+     */
+    public static <T, R> Page<R> findPage(EntityManager entityManager, Class<T> domainClass, Class<R> rowClass,
+                                          Specification<T> spec, Pageable pageable, Selector<T, R> selector) {
+        TypedQuery<R> query = createQuery(entityManager, domainClass, rowClass, spec, pageable.getSort(), selector);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<R> content = query.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(entityManager, domainClass, spec));
+    }
+
+    /**
+     * Primeras limit filas en el orden indicado (paginación por cursor)
+     */
+    public static <T, R> List<R> findList(EntityManager entityManager, Class<T> domainClass, Class<R> rowClass,
+                                          Specification<T> spec, Sort sort, int limit, Selector<T, R> selector) {
+        return createQuery(entityManager, domainClass, rowClass, spec, sort, selector)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Todas las filas en el orden indicado, leídas con un cursor de solo avance de fetchSize filas.
+     * Las filas no son entidades administradas, así que el contexto de persistencia no crece mientras
+     * se recorre el resultado. Debe consumirse dentro de una transacción (PostgreSQL solo usa cursor
+     * sin autocommit) y cerrarse al terminar.
+     */
+    public static <T, R> Stream<R> stream(EntityManager entityManager, Class<T> domainClass, Class<R> rowClass,
+                                          Specification<T> spec, Sort sort, int fetchSize, Selector<T, R> selector) {
+        return createQuery(entityManager, domainClass, rowClass, spec, sort, selector)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private static <T, R> TypedQuery<R> createQuery(EntityManager entityManager, Class<T> domainClass,
+                                                    Class<R> rowClass, Specification<T> spec, Sort sort,
+                                                    Selector<T, R> selector) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(rowClass);
+        Root<T> root = query.from(domainClass);
+        query.select(selector.select(root, query, cb));
+        if (spec != null) {
+            var predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> domainClass, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainClass);
+        if (spec != null) {
+            var predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
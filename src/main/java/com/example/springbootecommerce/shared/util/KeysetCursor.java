@@ -0,0 +1,98 @@
+package com.example.springbootecommerce.shared.util;
+
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Cursor opaco para paginación keyset (seek).
+ * Codifica el campo de ordenamiento, la dirección y los valores de la última fila entregada
+ * (clave de orden + id como desempate), de modo que la siguiente página se obtiene con
+ * "WHERE (clave, id) > (valor, último id)" en lugar de OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Orden estable para keyset: la clave solicitada y el id en la misma dirección
+     */
+    public static Sort sort(String attribute, Sort.Direction direction) {
+        return Sort.by(direction, attribute).and(Sort.by(direction, "id"));
+    }
+
+    /**
+     * Genera el cursor que apunta a la fila indicada
+     */
+    public static String encode(String sortBy, Sort.Direction direction, Object value, Long id) {
+        String raw = sortBy + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + format(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Condición para continuar después del cursor, o null si no hay cursor (primera página).
+     *
+     * @throws BusinessException si el cursor es inválido o se generó con otro ordenamiento
+     */
+    public static <T, Y extends Comparable<? super Y>> Specification<T> after(String cursor, String sortBy,
+                                                                               Sort.Direction direction,
+                                                                               String attribute,
+                                                                               Function<String, Y> parser) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor);
+        if (!parts[0].equals(sortBy) || !parts[1].equals(direction.name())) {
+            throw new BusinessException("El cursor no corresponde al ordenamiento solicitado");
+        }
+        Long lastId;
+        Y lastValue;
+        try {
+            lastId = Long.valueOf(parts[2]);
+            lastValue = parser.apply(parts[3]);
+        } catch (RuntimeException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+
+        return (root, query, cb) -> {
+            Path<Y> key = root.get(attribute);
+            Path<Long> id = root.get("id");
+            if (direction.isAscending()) {
+                return cb.or(cb.greaterThan(key, lastValue),
+                        cb.and(cb.equal(key, lastValue), cb.greaterThan(id, lastId)));
+            }
+            return cb.or(cb.lessThan(key, lastValue),
+                    cb.and(cb.equal(key, lastValue), cb.lessThan(id, lastId)));
+        };
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // El valor va al final: puede contener el separador
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new BusinessException("Cursor de paginación inválido");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+    }
+
+    private static String format(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return String.valueOf(value);
+    }
+}
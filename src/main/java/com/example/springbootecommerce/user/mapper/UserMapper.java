@@ -6,6 +6,7 @@ import com.example.springbootecommerce.user.dto.UserDTO;
 import com.example.springbootecommerce.user.entity.Address;
 import com.example.springbootecommerce.user.entity.Role;
 import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserSummaryRow;
 import org.mapstruct.*;
 
 import java.util.List;
@@ -53,6 +54,14 @@ public interface UserMapper {
     @Mapping(target = "orderCount", ignore = true)
     UserDTO.UserSummaryDTO toUserSummaryDTO(User user);
 
+    /**
+     * Convierte una fila resumen de listado (sin entidad) a UserSummaryDTO
+     */
+    @Mapping(target = "fullName", expression = "java(row.firstName() + \" \" + row.lastName())")
+    @Mapping(target = "registrationDate", source = "createdAt")
+    @Mapping(target = "orderCount", ignore = true)
+    UserDTO.UserSummaryDTO toUserSummaryDTO(UserSummaryRow row);
+
     /**
      * Convierte User a PublicUserDTO (información mínima)
      */
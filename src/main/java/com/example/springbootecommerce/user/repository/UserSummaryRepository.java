@@ -0,0 +1,15 @@
+package com.example.springbootecommerce.user.repository;
+
+import com.example.springbootecommerce.user.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Listados de usuarios como filas resumen: mismas Specifications que findAll,
+ * pero sin hidratar entidades User ni sus roles.
+ */
+public interface UserSummaryRepository {
+
+    Page<UserSummaryRow> findSummaries(Specification<User> spec, Pageable pageable);
+}
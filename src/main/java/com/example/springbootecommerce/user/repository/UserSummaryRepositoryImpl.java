@@ -0,0 +1,37 @@
+package com.example.springbootecommerce.user.repository;
+
+import com.example.springbootecommerce.shared.util.CriteriaProjection;
+import com.example.springbootecommerce.user.entity.Role;
+import com.example.springbootecommerce.user.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+public class UserSummaryRepositoryImpl implements UserSummaryRepository {
+
+    private static final CriteriaProjection.Selector<User, UserSummaryRow> SUMMARY = (root, query, cb) -> {
+        // Rol principal: el primero en orden alfabético (mismo criterio que UserMapper.getPrimaryRole)
+        Subquery<String> primaryRole = query.subquery(String.class);
+        Root<User> user = primaryRole.correlate(root);
+        Join<User, Role> roles = user.join("roles");
+        primaryRole.select(cb.least(roles.<String>get("name")));
+
+        return cb.construct(UserSummaryRow.class,
+                root.get("id"), root.get("firstName"), root.get("lastName"), root.get("email"),
+                root.get("isActive"), root.get("createdAt"), primaryRole);
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<UserSummaryRow> findSummaries(Specification<User> spec, Pageable pageable) {
+        return CriteriaProjection.findPage(entityManager, User.class, UserSummaryRow.class,
+                spec, pageable, SUMMARY);
+    }
+}
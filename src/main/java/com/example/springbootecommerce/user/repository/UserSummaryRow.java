@@ -0,0 +1,18 @@
+package com.example.springbootecommerce.user.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columnas de un usuario en los listados administrativos, con el rol principal resuelto en la
+ * misma consulta (sin cargar la colección roles). Se construye directamente desde la consulta.
+ */
+public record UserSummaryRow(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        Boolean isActive,
+        LocalDateTime createdAt,
+        String primaryRole
+) {
+}
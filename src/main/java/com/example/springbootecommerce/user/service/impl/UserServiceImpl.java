@@ -15,6 +15,7 @@ import com.example.springbootecommerce.user.entity.User;
 import com.example.springbootecommerce.user.mapper.AddressMapper;
 import com.example.springbootecommerce.user.mapper.UserMapper;
 import com.example.springbootecommerce.user.repository.UserRepository;
+import com.example.springbootecommerce.user.repository.UserSummaryRow;
 import com.example.springbootecommerce.user.service.UserService;
 import com.example.springbootecommerce.user.repository.specification.UserSpecification;
 import lombok.RequiredArgsConstructor;
@@ -194,7 +195,7 @@ public class UserServiceImpl implements UserService {
             spec = spec.and(UserSpecification.nameContains(search.trim()));
         }
 
-        Page<User> userPage = userRepository.findAll(spec, pageable);
+        Page<UserSummaryRow> userPage = userRepository.findSummaries(spec, pageable);
         List<UserDTO.UserSummaryDTO> userSummaries = userPage.getContent()
                 .stream()
                 .map(userMapper::toUserSummaryDTO)
@@ -0,0 +1,28 @@
+-- V10__Add_Category_Closure_Table.sql
+-- Tabla de clausura de la jerarquía de categorías: una fila por cada par (ancestro, descendiente),
+-- incluida la propia categoría con depth = 0. Permite resolver descendientes, ancestros (breadcrumb)
+-- y la detección de ciclos con una sola consulta indexada en lugar de recorrer parent_id.
+
+CREATE TABLE category_closure (
+    ancestor_id   BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    descendant_id BIGINT NOT NULL REFERENCES categories(id) ON DELETE CASCADE,
+    depth         INT    NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id)
+);
+
+-- La PK cubre "descendientes de X"; este índice cubre "ancestros de X" (breadcrumb)
+CREATE INDEX idx_category_closure_descendant ON category_closure(descendant_id, depth);
+
+-- Backfill desde la jerarquía actual
+INSERT INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree AS (
+    SELECT id AS ancestor_id, id AS descendant_id, 0 AS depth
+    FROM categories
+    UNION ALL
+    SELECT t.ancestor_id, c.id, t.depth + 1
+    FROM tree t
+    JOIN categories c ON c.parent_id = t.descendant_id
+)
+SELECT ancestor_id, descendant_id, depth FROM tree;
+
+COMMENT ON TABLE category_closure IS 'Clausura transitiva de categories.parent_id (ancestro, descendiente, distancia)';
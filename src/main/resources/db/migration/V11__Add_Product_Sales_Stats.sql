@@ -0,0 +1,40 @@
+-- V11__Add_Product_Sales_Stats.sql
+-- Rollup de ventas por producto: los más vendidos se leen como un top-N indexado en lugar de
+-- agrupar order_items de todo el historial en cada consulta. Una venta cuenta mientras la orden
+-- esté SHIPPED o DELIVERED; se suma al enviarla y se descuenta si sale de esos estados.
+
+CREATE TABLE product_sales_stats (
+    product_id BIGINT PRIMARY KEY REFERENCES products(id) ON DELETE CASCADE,
+    units_sold BIGINT         NOT NULL DEFAULT 0,
+    revenue    DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP      NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_product_sales_stats_units ON product_sales_stats(units_sold DESC, product_id);
+
+-- Mismo rollup por día de la orden, para rankings de un período reciente
+CREATE TABLE product_sales_daily (
+    sales_date DATE           NOT NULL,
+    product_id BIGINT         NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    units_sold BIGINT         NOT NULL DEFAULT 0,
+    revenue    DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, product_id)
+);
+
+-- Backfill desde el historial actual
+INSERT INTO product_sales_stats (product_id, units_sold, revenue)
+SELECT oi.product_id, SUM(oi.quantity), SUM(oi.subtotal)
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+WHERE o.status IN ('SHIPPED', 'DELIVERED')
+GROUP BY oi.product_id;
+
+INSERT INTO product_sales_daily (sales_date, product_id, units_sold, revenue)
+SELECT CAST(o.order_date AS DATE), oi.product_id, SUM(oi.quantity), SUM(oi.subtotal)
+FROM order_items oi
+JOIN orders o ON o.id = oi.order_id
+WHERE o.status IN ('SHIPPED', 'DELIVERED')
+GROUP BY CAST(o.order_date AS DATE), oi.product_id;
+
+COMMENT ON TABLE product_sales_stats IS 'Unidades e ingresos acumulados por producto (órdenes SHIPPED/DELIVERED)';
+COMMENT ON TABLE product_sales_daily IS 'Unidades e ingresos por producto y día de la orden (órdenes SHIPPED/DELIVERED)';
@@ -0,0 +1,34 @@
+-- V12__Add_Product_Related_Graph.sql
+-- Grafo de productos relacionados precalculado. product_copurchase acumula en cuántas órdenes
+-- aparecieron juntos dos productos (en ambos sentidos) y product_related guarda el top-K ya
+-- ordenado de cada producto: primero los comprados juntos y, para completar, vecinos de la misma
+-- categoría. Un job procesa solo las órdenes posteriores al checkpoint y recalcula el top-K de los
+-- productos afectados; el historial existente se procesa en las primeras ejecuciones del job.
+
+CREATE TABLE product_copurchase (
+    product_id  BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    related_id  BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    order_count INT    NOT NULL,
+    PRIMARY KEY (product_id, related_id)
+);
+
+CREATE TABLE product_related (
+    product_id BIGINT      NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    ranking    SMALLINT    NOT NULL,
+    related_id BIGINT      NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    score      BIGINT      NOT NULL,
+    source     VARCHAR(20) NOT NULL,
+    PRIMARY KEY (product_id, ranking)
+);
+
+CREATE TABLE product_related_checkpoint (
+    id            SMALLINT PRIMARY KEY CHECK (id = 1),
+    last_order_id BIGINT    NOT NULL,
+    updated_at    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO product_related_checkpoint (id, last_order_id) VALUES (1, 0);
+
+COMMENT ON TABLE product_copurchase IS 'Número de órdenes (no canceladas) en las que product_id y related_id se compraron juntos';
+COMMENT ON TABLE product_related IS 'Top-K de productos relacionados por producto; score = órdenes juntos (CO_PURCHASE) o unidades vendidas (SAME_CATEGORY)';
+COMMENT ON TABLE product_related_checkpoint IS 'Órdenes con id <= last_order_id ya están contabilizadas en product_copurchase';
@@ -0,0 +1,16 @@
+-- V13__Add_Total_Items_To_Orders.sql
+-- Unidades totales de la orden desnormalizadas en orders: los items no cambian después de crear
+-- la orden, así que el listado de órdenes no necesita agregar order_items por cada fila.
+
+ALTER TABLE orders ADD COLUMN total_items INT NOT NULL DEFAULT 0;
+
+UPDATE orders o
+SET total_items = s.units
+FROM (
+    SELECT order_id, SUM(quantity) AS units
+    FROM order_items
+    GROUP BY order_id
+) s
+WHERE s.order_id = o.id;
+
+COMMENT ON COLUMN orders.total_items IS 'Suma de order_items.quantity, fijada al crear la orden';
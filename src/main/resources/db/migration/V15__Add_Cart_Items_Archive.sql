@@ -0,0 +1,20 @@
+-- V15__Add_Cart_Items_Archive.sql
+-- Archivo compacto de las líneas de carritos abandonados (sin cambios durante app.cart.archive.idle-days).
+-- El job de archivado copia aquí las líneas y elimina el carrito; sin claves foráneas para que el
+-- archivo sobreviva al borrado de usuarios o productos.
+
+CREATE TABLE cart_items_archive (
+    cart_id     BIGINT    NOT NULL,
+    user_id     BIGINT    NOT NULL,
+    product_id  BIGINT    NOT NULL,
+    quantity    INT       NOT NULL,
+    added_at    TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_cart_items_archive_user_id ON cart_items_archive(user_id);
+
+-- Búsqueda de carritos inactivos por última actividad (los carritos sin updated_at usan created_at)
+CREATE INDEX idx_carts_last_activity ON carts ((COALESCE(updated_at, created_at)));
+
+COMMENT ON TABLE cart_items_archive IS 'Líneas de carritos abandonados archivadas por el job de archivado';
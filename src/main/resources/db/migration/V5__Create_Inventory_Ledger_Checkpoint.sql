@@ -0,0 +1,13 @@
+-- V5__Create_Inventory_Ledger_Checkpoint.sql
+-- Punto de control del ledger de inventario en memoria (modo LEDGER)
+-- Guarda el último segmento del journal cuyos deltas ya se aplicaron a products.stock_quantity
+
+CREATE TABLE inventory_ledger_checkpoint (
+    id SMALLINT PRIMARY KEY,
+    last_segment BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO inventory_ledger_checkpoint (id, last_segment) VALUES (1, 0);
+
+COMMENT ON TABLE inventory_ledger_checkpoint IS 'Checkpoint del journal de inventario: segmentos <= last_segment ya están aplicados en products';
@@ -0,0 +1,19 @@
+-- V6__Create_Stock_Reservations_Table.sql
+-- Reservas temporales de stock mientras una orden no llega a CONFIRMED
+-- Una fila existe solo mientras la reserva está vigente: se elimina al confirmar, cancelar o expirar
+
+CREATE TABLE stock_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- El barrido de expiradas recorre este índice en orden de expiración
+CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations(expires_at);
+CREATE INDEX idx_stock_reservations_order_id ON stock_reservations(order_id);
+
+COMMENT ON TABLE stock_reservations IS 'Stock retenido para órdenes pendientes de pago, liberado automáticamente al expirar';
+COMMENT ON COLUMN stock_reservations.expires_at IS 'Momento a partir del cual el barrido libera el stock y cancela la orden si sigue PENDING';
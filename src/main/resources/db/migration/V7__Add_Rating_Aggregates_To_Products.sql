@@ -0,0 +1,48 @@
+-- V7__Add_Rating_Aggregates_To_Products.sql
+-- Agregados de calificación desnormalizados en products, mantenidos al crear, editar o eliminar reseñas
+-- rating_average es una columna generada: el ranking de mejor calificados se resuelve con un índice
+
+ALTER TABLE products
+    ADD COLUMN rating_sum BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN rating_count INT NOT NULL DEFAULT 0 CHECK (rating_count >= 0),
+    ADD COLUMN rating_1_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN rating_2_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN rating_3_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN rating_4_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN rating_5_count INT NOT NULL DEFAULT 0;
+
+ALTER TABLE products
+    ADD COLUMN rating_average DECIMAL(3,2) GENERATED ALWAYS AS (
+        CASE WHEN rating_count > 0 THEN ROUND(rating_sum::numeric / rating_count, 2) ELSE 0 END
+    ) STORED;
+
+-- Backfill único desde las reseñas existentes
+UPDATE products p
+SET rating_sum     = r.rating_sum,
+    rating_count   = r.rating_count,
+    rating_1_count = r.rating_1_count,
+    rating_2_count = r.rating_2_count,
+    rating_3_count = r.rating_3_count,
+    rating_4_count = r.rating_4_count,
+    rating_5_count = r.rating_5_count
+FROM (
+    SELECT product_id,
+           SUM(rating) AS rating_sum,
+           COUNT(*) AS rating_count,
+           COUNT(*) FILTER (WHERE rating = 1) AS rating_1_count,
+           COUNT(*) FILTER (WHERE rating = 2) AS rating_2_count,
+           COUNT(*) FILTER (WHERE rating = 3) AS rating_3_count,
+           COUNT(*) FILTER (WHERE rating = 4) AS rating_4_count,
+           COUNT(*) FILTER (WHERE rating = 5) AS rating_5_count
+    FROM reviews
+    GROUP BY product_id
+) r
+WHERE p.id = r.product_id;
+
+-- Ranking de mejor calificados: solo productos activos con reseñas
+CREATE INDEX idx_products_top_rated ON products(rating_average DESC, rating_count DESC, id)
+    WHERE is_active = true AND rating_count > 0;
+
+COMMENT ON COLUMN products.rating_sum IS 'Suma de las calificaciones de las reseñas del producto';
+COMMENT ON COLUMN products.rating_count IS 'Número de reseñas del producto';
+COMMENT ON COLUMN products.rating_average IS 'Promedio de calificación (generado a partir de rating_sum y rating_count)';
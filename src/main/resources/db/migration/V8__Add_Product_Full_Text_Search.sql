@@ -0,0 +1,20 @@
+-- V8__Add_Product_Full_Text_Search.sql
+-- Búsqueda de texto completo sobre nombre, marca y descripción, con trigramas como respaldo ante errores de tipeo
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Pesos: el nombre pesa más que la marca y ésta más que la descripción en ts_rank
+ALTER TABLE products
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector('spanish', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('spanish', coalesce(brand, '')), 'B') ||
+        setweight(to_tsvector('spanish', coalesce(description, '')), 'C')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING gin(search_vector);
+CREATE INDEX idx_products_name_trgm ON products USING gin(name gin_trgm_ops);
+
+-- Reemplazado por idx_products_search_vector
+DROP INDEX IF EXISTS idx_products_name_gin;
+
+COMMENT ON COLUMN products.search_vector IS 'Documento de búsqueda (name, brand, description) para plainto_tsquery/ts_rank';
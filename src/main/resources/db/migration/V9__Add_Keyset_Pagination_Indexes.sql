@@ -0,0 +1,15 @@
+-- V9__Add_Keyset_Pagination_Indexes.sql
+-- Índices compuestos (clave de orden, id) para la paginación por cursor: cada página es un
+-- rango del índice a partir de la última fila entregada, sin OFFSET. Un mismo índice sirve
+-- para ASC y DESC (recorrido inverso) porque el id se ordena en la misma dirección que la clave.
+
+CREATE INDEX idx_products_keyset_name ON products(name, id) WHERE is_active = true;
+CREATE INDEX idx_products_keyset_price ON products(price, id) WHERE is_active = true;
+CREATE INDEX idx_products_keyset_created_at ON products(created_at, id) WHERE is_active = true;
+CREATE INDEX idx_products_keyset_rating ON products(rating_average, id) WHERE is_active = true;
+
+CREATE INDEX idx_orders_keyset_order_date ON orders(order_date, id);
+CREATE INDEX idx_orders_keyset_total_amount ON orders(total_amount, id);
+
+-- Reemplazado por idx_orders_keyset_order_date
+DROP INDEX IF EXISTS idx_orders_date;
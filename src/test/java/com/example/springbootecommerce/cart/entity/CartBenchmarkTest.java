@@ -0,0 +1,100 @@
+package com.example.springbootecommerce.cart.entity;
+
+import com.example.springbootecommerce.product.entity.Producto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Nanosegundos por operación de carrito (agregar, actualizar cantidad, leer totales) según el número de líneas.
+ * Con el índice por producto y los totales acumulados el coste por operación no debe crecer con el carrito.
+ * Ejecutar con: mvn test -Dbenchmarks=true -Dtest=CartBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CartBenchmarkTest {
+
+    private static final int[] CART_SIZES = {10, 100, 1000};
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    private static volatile Object sink;
+
+    @Test
+    void cartOperations() {
+        List<double[]> results = new ArrayList<>();
+        for (int lines : CART_SIZES) {
+            List<Producto> productos = productos(lines);
+            Cart cart = cart(productos);
+            assertEquals(lines, cart.getTotalUniqueItems());
+            assertEquals(lines, cart.getTotalItems());
+
+            measure(productos, WARMUP_ROUNDS);
+            double[] nanos = measure(productos, MEASURED_ROUNDS);
+            results.add(nanos);
+            System.out.printf("%5d líneas | agregar: %,8.0f ns | actualizar: %,8.0f ns | totales: %,8.0f ns%n",
+                    lines, nanos[0], nanos[1], nanos[2]);
+        }
+
+        // Un recorrido lineal multiplicaría el coste por 100 entre 10 y 1000 líneas
+        double[] small = results.get(0);
+        double[] large = results.get(results.size() - 1);
+        for (int op = 0; op < small.length; op++) {
+            assertTrue(large[op] < small[op] * 20 + 1_000,
+                    "El coste por operación no debería crecer con el número de líneas");
+        }
+    }
+
+    /**
+     * Tiempo medio de cada operación sobre un carrito nuevo por ronda: agregar a una línea existente,
+     * actualizar su cantidad y leer los dos totales
+     */
+    private double[] measure(List<Producto> productos, int rounds) {
+        long add = 0;
+        long update = 0;
+        long totals = 0;
+        for (int round = 0; round < rounds; round++) {
+            Cart cart = cart(productos);
+            Producto producto = productos.get(round % productos.size());
+
+            long start = System.nanoTime();
+            cart.addItem(new CartItem(producto, 1));
+            long added = System.nanoTime();
+            cart.updateItemQuantity(producto.getId(), 3);
+            long updated = System.nanoTime();
+            sink = cart.getTotalMount().add(BigDecimal.valueOf(cart.getTotalItems()));
+            long read = System.nanoTime();
+
+            add += added - start;
+            update += updated - added;
+            totals += read - updated;
+        }
+        return new double[]{(double) add / rounds, (double) update / rounds, (double) totals / rounds};
+    }
+
+    private Cart cart(List<Producto> productos) {
+        Cart cart = new Cart();
+        productos.forEach(producto -> cart.addItem(new CartItem(producto, 1)));
+        // Primer cálculo de totales fuera de la medición (equivale a la carga del carrito)
+        sink = cart.getTotalMount();
+        return cart;
+    }
+
+    private List<Producto> productos(int count) {
+        List<Producto> productos = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            productos.add(Producto.builder()
+                    .id(id)
+                    .name("Producto " + id)
+                    .price(new BigDecimal("19.99"))
+                    .stockQuantity(1000)
+                    .build());
+        }
+        return productos;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.springbootecommerce.cart.entity;
+
+import com.example.springbootecommerce.product.entity.Producto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartTest {
+
+    private final Producto teclado = producto(1L, "25.00");
+    private final Producto mouse = producto(2L, "10.50");
+    private final Producto monitor = producto(3L, "199.99");
+
+    @Test
+    void totals_ShouldBeBuiltFromItems_WhenCartLoadedWithLines() {
+        Cart cart = Cart.builder()
+                .items(new ArrayList<>(List.of(new CartItem(teclado, 2), new CartItem(mouse, 3))))
+                .build();
+
+        assertEquals(5, cart.getTotalItems());
+        assertEquals(new BigDecimal("35.50"), cart.getTotalMount());
+        assertTrue(cart.hasItems(2L));
+        assertFalse(cart.hasItems(3L));
+    }
+
+    @Test
+    void addItem_ShouldMergeQuantity_WhenProductAlreadyInCart() {
+        Cart cart = new Cart();
+        cart.addItem(new CartItem(teclado, 1));
+        CartItem line = cart.findItemByProductId(1L);
+
+        cart.addItem(new CartItem(teclado, 4));
+        cart.addItem(new CartItem(mouse, 1));
+
+        assertSame(line, cart.findItemByProductId(1L));
+        assertEquals(5, line.getQuantity());
+        assertSame(cart, line.getCart());
+        assertEquals(2, cart.getTotalUniqueItems());
+        assertEquals(6, cart.getTotalItems());
+        assertEquals(new BigDecimal("35.50"), cart.getTotalMount());
+    }
+
+    @Test
+    void removeItem_ShouldDropLineFromIndexAndTotals() {
+        Cart cart = new Cart();
+        cart.addItem(new CartItem(teclado, 2));
+        cart.addItem(new CartItem(mouse, 3));
+        CartItem line = cart.findItemByProductId(1L);
+
+        cart.removeItem(line);
+
+        assertNull(cart.findItemByProductId(1L));
+        assertNull(line.getCart());
+        assertEquals(3, cart.getTotalItems());
+        assertEquals(new BigDecimal("10.50"), cart.getTotalMount());
+
+        cart.removeItemByProductId(2L);
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getTotalItems());
+        assertEquals(0, BigDecimal.ZERO.compareTo(cart.getTotalMount()));
+    }
+
+    @Test
+    void updateItemQuantity_ShouldAdjustTotals_AndRemoveLine_WhenQuantityIsZero() {
+        Cart cart = new Cart();
+        cart.addItem(new CartItem(teclado, 2));
+        cart.addItem(new CartItem(mouse, 3));
+
+        cart.updateItemQuantity(1L, 7);
+        assertEquals(10, cart.getTotalItems());
+        assertEquals(7, cart.findItemByProductId(1L).getQuantity());
+
+        cart.updateItemQuantity(2L, 0);
+        assertFalse(cart.hasItems(2L));
+        assertEquals(7, cart.getTotalItems());
+        assertEquals(new BigDecimal("25.00"), cart.getTotalMount());
+
+        // Producto que no está en el carrito: sin cambios
+        cart.updateItemQuantity(3L, 5);
+        assertEquals(1, cart.getTotalUniqueItems());
+    }
+
+    @Test
+    void clear_ShouldResetIndexAndTotals() {
+        Cart cart = new Cart();
+        cart.addItem(new CartItem(teclado, 2));
+        cart.clear();
+
+        assertTrue(cart.isEmpty());
+        assertFalse(cart.hasItems(1L));
+        assertEquals(0, cart.getTotalItems());
+
+        cart.addItem(new CartItem(monitor, 1));
+        assertEquals(1, cart.getTotalItems());
+        assertEquals(new BigDecimal("199.99"), cart.getTotalMount());
+    }
+
+    @Test
+    void setItems_ShouldRebuildIndexFromNewLines() {
+        Cart cart = new Cart();
+        cart.addItem(new CartItem(teclado, 2));
+        assertTrue(cart.hasItems(1L));
+
+        cart.setItems(new ArrayList<>(List.of(new CartItem(monitor, 4))));
+
+        assertFalse(cart.hasItems(1L));
+        assertTrue(cart.hasItems(3L));
+        assertEquals(4, cart.getTotalItems());
+        assertEquals(new BigDecimal("199.99"), cart.getTotalMount());
+    }
+
+    private static Producto producto(Long id, String price) {
+        return Producto.builder()
+                .id(id)
+                .name("Producto " + id)
+                .price(new BigDecimal(price))
+                .stockQuantity(100)
+                .build();
+    }
+}
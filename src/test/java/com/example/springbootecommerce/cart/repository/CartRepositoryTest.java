@@ -0,0 +1,127 @@
+package com.example.springbootecommerce.cart.repository;
+
+import com.example.springbootecommerce.cart.entity.Cart;
+import com.example.springbootecommerce.cart.entity.CartItem;
+import com.example.springbootecommerce.cart.service.CartStore;
+import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.repository.CategoriaRepository;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Carga de carritos persistidos sin transacción alrededor, como la hace CartStore desde CartServiceImpl
+ * (open-in-view desactivado): todo lo que usa la carga debe venir en la misma consulta.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartRepositoryTest {
+
+    private static final LocalDateTime ADDED_AT = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .firstName("Ana")
+                .lastName("García")
+                .email("ana@mail.com")
+                .passwordHash("hash")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+        Categoria categoria = categoriaRepository.save(Categoria.builder()
+                .name("Accesorios")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+        producto = productoRepository.save(Producto.builder()
+                .name("Cable USB-C")
+                .sku("CABLE-01")
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(10)
+                .categoria(categoria)
+                .imageUrl("cable.png")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Cart cart = Cart.builder().user(user).build();
+            cart.setCreatedBy("SYSTEM");
+            cart.setCreatedAt(LocalDateTime.now());
+            CartItem item = new CartItem(producto, 3);
+            item.setAddedAt(ADDED_AT);
+            cart.addItem(item);
+            cartRepository.save(cart);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.deleteAll();
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findByUserIdWithItems_ShouldFetchUserAndItems_WhenCalledOutsideTransaction() {
+        Cart cart = cartRepository.findByUserIdWithItems(user.getId()).orElseThrow();
+
+        assertEquals("ana@mail.com", cart.getUser().getEmail());
+        assertEquals(1, cart.getItems().size());
+        assertEquals(producto.getId(), cart.getItems().get(0).getProducto().getId());
+    }
+
+    @Test
+    void cartStoreGet_ShouldLoadPersistedCart_WhenNotInMemory() {
+        CartStore cartStore = new CartStore(cartRepository, cartItemRepository, userRepository,
+                transactionManager, 100, 30);
+
+        CartStore.CartState state = cartStore.get(user.getId());
+
+        assertEquals("ana@mail.com", state.getUserEmail());
+        assertEquals(3, state.findByProductId(producto.getId()).quantity());
+        assertEquals(ADDED_AT, state.findByProductId(producto.getId()).addedAt());
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.springbootecommerce.cart.service;
+
+import com.example.springbootecommerce.cart.entity.Cart;
+import com.example.springbootecommerce.cart.entity.CartItem;
+import com.example.springbootecommerce.cart.repository.CartItemRepository;
+import com.example.springbootecommerce.cart.repository.CartRepository;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Carritos en memoria con los repositorios simulados. Las transacciones del llamador se simulan con
+ * TransactionSynchronizationManager para decidir commit o rollback.
+ */
+class CartStoreTest {
+
+    private static final long USER_ID = 1L;
+    private static final long OTHER_USER_ID = 2L;
+    private static final long CART_ID = 10L;
+    private static final long NEW_CART_ID = 20L;
+    private static final LocalDateTime ADDED_AT = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private CartRepository cartRepository;
+    private CartItemRepository cartItemRepository;
+    private UserRepository userRepository;
+    private CartStore cartStore;
+    private final AtomicLong itemIds = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = Mockito.mock(CartRepository.class);
+        cartItemRepository = Mockito.mock(CartItemRepository.class);
+        userRepository = Mockito.mock(UserRepository.class);
+        when(cartRepository.findByUserIdWithItems(USER_ID)).thenReturn(Optional.of(persistedCart()));
+        when(cartRepository.findByUserIdWithItems(OTHER_USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.findById(OTHER_USER_ID)).thenReturn(Optional.of(user(OTHER_USER_ID)));
+        when(userRepository.getReferenceById(OTHER_USER_ID)).thenReturn(user(OTHER_USER_ID));
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> {
+            Cart cart = invocation.getArgument(0);
+            cart.setId(NEW_CART_ID);
+            return cart;
+        });
+        cartStore = newStore(1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadCartOnce_WhenCalledRepeatedly() {
+        CartStore.CartState first = cartStore.get(USER_ID);
+        CartStore.CartState second = cartStore.get(USER_ID);
+
+        assertSame(first, second);
+        assertEquals(CART_ID, first.getCartId());
+        assertEquals(3, first.findByProductId(5L).quantity());
+        assertFalse(first.isDirty());
+        verify(cartRepository, times(1)).findByUserIdWithItems(USER_ID);
+    }
+
+    @Test
+    void flushDirty_ShouldUpsertLinesAndMarkFlushed_WhenCartChanged() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 4);
+        Long newItemId = cart.addQuantity(6L, 1, itemIds::incrementAndGet).itemId();
+
+        assertEquals(1, cartStore.flushDirty());
+
+        verify(cartItemRepository).deleteLinesNotIn(aryEq(new Long[]{CART_ID}), aryEq(new Long[]{50L, newItemId}));
+        verify(cartItemRepository).upsertLines(aryEq(new Long[]{50L, newItemId}), aryEq(new Long[]{CART_ID, CART_ID}),
+                aryEq(new Long[]{5L, 6L}), aryEq(new Integer[]{4, 1}),
+                aryEq(new LocalDateTime[]{ADDED_AT, cart.findByItemId(newItemId).addedAt()}));
+        verify(cartRepository).touch(aryEq(new Long[]{CART_ID}));
+        assertFalse(cart.isDirty());
+        assertEquals(0, cartStore.flushDirty());
+    }
+
+    @Test
+    void flushDirty_ShouldCreateCart_WhenUserHadNoCart() {
+        CartStore.CartState cart = cartStore.get(OTHER_USER_ID);
+        assertNull(cart.getCartId());
+        cart.addQuantity(7L, 2, itemIds::incrementAndGet);
+
+        assertEquals(1, cartStore.flushDirty());
+
+        verify(cartRepository).save(any(Cart.class));
+        assertEquals(NEW_CART_ID, cart.getCartId());
+        assertFalse(cart.isDirty());
+    }
+
+    @Test
+    void flushDirty_ShouldKeepCartDirty_WhenPersistFails() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.removeItem(50L);
+        doThrow(new IllegalStateException("db down")).when(cartRepository).touch(any());
+
+        assertEquals(0, cartStore.flushDirty());
+        assertTrue(cart.isDirty());
+
+        Mockito.reset(cartRepository);
+        assertEquals(1, cartStore.flushDirty());
+        assertFalse(cart.isDirty());
+    }
+
+    @Test
+    void flush_ShouldMarkFlushedOnlyAfterCommit_WhenCallerHasTransaction() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 9);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.flush(USER_ID);
+        verify(cartItemRepository).upsertLines(any(), any(), any(), any(), any());
+        assertTrue(cart.isDirty());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(cart.isDirty());
+    }
+
+    @Test
+    void flush_ShouldKeepCartDirty_WhenCallerTransactionRollsBack() {
+        CartStore.CartState cart = cartStore.get(OTHER_USER_ID);
+        cart.addQuantity(7L, 2, itemIds::incrementAndGet);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.flush(OTHER_USER_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // El carrito creado en la transacción revertida no existe: el siguiente volcado lo vuelve a crear
+        assertTrue(cart.isDirty());
+        assertNull(cart.getCartId());
+        assertEquals(1, cartStore.flushDirty());
+        verify(cartRepository, times(2)).save(any(Cart.class));
+    }
+
+    @Test
+    void get_ShouldRecoverParkedCart_WhenEvictedWithPendingChanges() {
+        cartStore = newStore(1);
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 8);
+
+        cartStore.get(OTHER_USER_ID);
+        cleanUp();
+
+        // Expulsado con cambios: vuelve el mismo estado sin consultar la base de datos
+        assertSame(cart, cartStore.get(USER_ID));
+        assertEquals(8, cart.findByItemId(50L).quantity());
+        verify(cartRepository, times(1)).findByUserIdWithItems(USER_ID);
+    }
+
+    @Test
+    void flushDirty_ShouldPersistParkedCart_WhenEvictedWithPendingChanges() {
+        cartStore = newStore(1);
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 8);
+
+        cartStore.get(OTHER_USER_ID);
+        cleanUp();
+
+        assertEquals(1, cartStore.flushDirty());
+        assertFalse(cart.isDirty());
+        verify(cartItemRepository).upsertLines(aryEq(new Long[]{50L}), aryEq(new Long[]{CART_ID}),
+                aryEq(new Long[]{5L}), aryEq(new Integer[]{8}), aryEq(new LocalDateTime[]{ADDED_AT}));
+    }
+
+    @Test
+    void update_ShouldApplyMutationToCachedCart_WhenCleanCartWasEvicted() {
+        cartStore = newStore(1);
+        CartStore.CartState evicted = cartStore.get(USER_ID);
+        cartStore.get(OTHER_USER_ID);
+        cleanUp();
+
+        // Expulsado sin cambios no queda en cola: la mutación no puede caer en ese estado huérfano
+        CartStore.CartState updated = cartStore.update(USER_ID, state -> {
+            state.setQuantity(50L, 8);
+            return state;
+        });
+
+        assertNotSame(evicted, updated);
+        assertFalse(evicted.isDirty());
+        assertEquals(1, cartStore.flushDirty());
+        verify(cartItemRepository).upsertLines(aryEq(new Long[]{50L}), aryEq(new Long[]{CART_ID}),
+                aryEq(new Long[]{5L}), aryEq(new Integer[]{8}), aryEq(new LocalDateTime[]{ADDED_AT}));
+    }
+
+    @Test
+    void update_ShouldKeepParkedCart_WhenMutationFails() {
+        cartStore = newStore(1);
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 8);
+        cartStore.get(OTHER_USER_ID);
+        cleanUp();
+
+        assertThrows(IllegalStateException.class, () -> cartStore.update(USER_ID, state -> {
+            throw new IllegalStateException("validación");
+        }));
+
+        assertSame(cart, cartStore.get(USER_ID));
+        verify(cartRepository, times(1)).findByUserIdWithItems(USER_ID);
+    }
+
+    @Test
+    void onCartsArchived_ShouldRecreateCart_WhenUserStillActive() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.onCartsArchived(List.of(USER_ID));
+        assertFalse(cart.isDirty());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(cart.isDirty());
+        assertNull(cart.getCartId());
+        when(userRepository.getReferenceById(USER_ID)).thenReturn(user(USER_ID));
+        assertEquals(1, cartStore.flushDirty());
+        assertEquals(NEW_CART_ID, cart.getCartId());
+        verify(cartItemRepository).upsertLines(aryEq(new Long[]{50L}), aryEq(new Long[]{NEW_CART_ID}),
+                aryEq(new Long[]{5L}), aryEq(new Integer[]{3}), aryEq(new LocalDateTime[]{ADDED_AT}));
+    }
+
+    @Test
+    void invalidateAfterCommit_ShouldKeepCart_WhenTransactionRollsBack() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.invalidateAfterCommit(USER_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertSame(cart, cartStore.get(USER_ID));
+        verify(cartRepository, times(1)).findByUserIdWithItems(USER_ID);
+    }
+
+    @Test
+    void flushDirty_ShouldDropSnapshot_WhenCheckoutClearsCartBeforeFlushAcquiresLock() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 4);
+        // El snapshot ya está tomado cuando el volcado espera el bloqueo; mientras tanto el checkout
+        // borra las líneas y confirma
+        when(cartRepository.lockByIds(any())).thenAnswer(invocation -> {
+            cartStore.invalidateAfterCommit(USER_ID);
+            return List.of(CART_ID);
+        });
+
+        cartStore.flushDirty();
+
+        verify(cartRepository).lockByIds(aryEq(new Long[]{CART_ID}));
+        verify(cartItemRepository, never()).upsertLines(any(), any(), any(), any(), any());
+        verify(cartItemRepository, never()).deleteLinesNotIn(any(), any());
+        assertTrue(cart.isDirty());
+    }
+
+    @Test
+    void flushDirty_ShouldPersistCart_WhenCheckoutRolledBack() {
+        CartStore.CartState cart = cartStore.get(USER_ID);
+        cart.setQuantity(50L, 4);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cartStore.invalidateAfterCommit(USER_ID);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(1, cartStore.flushDirty());
+        verify(cartItemRepository).upsertLines(aryEq(new Long[]{50L}), aryEq(new Long[]{CART_ID}),
+                aryEq(new Long[]{5L}), aryEq(new Integer[]{4}), aryEq(new LocalDateTime[]{ADDED_AT}));
+        assertFalse(cart.isDirty());
+    }
+
+    private CartStore newStore(long maxSize) {
+        CartStore store = new CartStore(cartRepository, cartItemRepository, userRepository,
+                Mockito.mock(PlatformTransactionManager.class), maxSize, 30);
+        ReflectionTestUtils.setField(store, "flushBatchSize", 200);
+        return store;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void cleanUp() {
+        // Caffeine expulsa de forma diferida; se fuerza el mantenimiento para ejecutar el listener
+        ((Cache<Long, CartStore.CartState>) ReflectionTestUtils.getField(cartStore, "carts")).cleanUp();
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+
+    private static User user(long id) {
+        return User.builder().id(id).email("user" + id + "@mail.com").build();
+    }
+
+    private static Cart persistedCart() {
+        CartItem item = new CartItem();
+        item.setId(50L);
+        item.setProducto(Producto.builder().id(5L).build());
+        item.setQuantity(3);
+        item.setAddedAt(ADDED_AT);
+        return Cart.builder().id(CART_ID).user(user(USER_ID)).items(List.of(item)).build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springbootecommerce.inventory.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryJournalTest {
+
+    private static final int THREADS = 8;
+    private static final int APPENDS_PER_THREAD = 200;
+
+    @TempDir
+    Path journalDir;
+
+    private InventoryJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        journal = new InventoryJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(journal, "syncOnWrite", true);
+        journal.open(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    void append_ShouldWriteAllMovementsOfAnOperationWithOneForce() {
+        journal.append(Map.of(1L, -2, 2L, -3, 3L, -1));
+
+        assertEquals(1, journal.getForceCount());
+        assertEquals(Map.of(1L, -2, 2L, -3, 3L, -1), journal.readSegment(1));
+    }
+
+    @Test
+    void append_ShouldKeepEveryMovementAndShareForces_WhenManyThreadsAppend() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long productId = t + 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < APPENDS_PER_THREAD; i++) {
+                    journal.append(productId, -1);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Map<Long, Integer> deltas = journal.readSegment(1);
+        assertEquals(THREADS, deltas.size());
+        deltas.values().forEach(delta -> assertEquals(-APPENDS_PER_THREAD, delta));
+        // Nunca más de un force por escritura; con concurrencia, varios appends comparten el mismo
+        assertTrue(journal.getForceCount() <= (long) THREADS * APPENDS_PER_THREAD);
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.springbootecommerce.inventory.service;
+
+import com.example.springbootecommerce.cart.entity.CartItem;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoStockProjection;
+import com.example.springbootecommerce.product.service.ProductoCache;
+import com.example.springbootecommerce.product.service.ProductoSearchIndex;
+import com.example.springbootecommerce.shared.exception.BusinessException;
+import com.example.springbootecommerce.shared.exception.ResourceNotFoundException;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reserva de stock en modo CONDITIONAL (validación sin bloqueo y UPDATE condicional en lote) contra un
+ * repositorio simulado. La concurrencia del UPDATE condicional se prueba contra la base de datos en
+ * ProductoRepositoryConcurrencyTest.
+ */
+class StockManagerTest {
+
+    private static final long PRODUCT_A = 1L;
+    private static final long PRODUCT_B = 2L;
+
+    private ProductoRepository productoRepository;
+    private EntityManager entityManager;
+    private StockManager stockManager;
+
+    private final Map<Long, Integer> stock = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        productoRepository = Mockito.mock(ProductoRepository.class);
+        InventoryService inventoryService = Mockito.mock(InventoryService.class);
+        stockManager = new StockManager(productoRepository, inventoryService,
+                Mockito.mock(ProductoCache.class), Mockito.mock(ProductoSearchIndex.class),
+                () -> Optional.of("admin@mail.com"));
+        ReflectionTestUtils.setField(stockManager, "stockLockMode", StockLockMode.CONDITIONAL);
+        entityManager = Mockito.mock(EntityManager.class);
+        ReflectionTestUtils.setField(stockManager, "entityManager", entityManager);
+
+        when(productoRepository.findStockByIds(any())).thenAnswer(invocation ->
+                readStock(invocation.getArgument(0)));
+        when(productoRepository.reduceStockBatch(any(), any(), any())).thenAnswer(invocation ->
+                reduceStock(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+
+    @Test
+    void reserveStock_ShouldReduceAllProductsInOneStatement_WhenStockAvailable() {
+        stock.put(PRODUCT_A, 10);
+        stock.put(PRODUCT_B, 10);
+
+        stockManager.reserveStock(List.of(item(PRODUCT_B, 1), item(PRODUCT_A, 2), item(PRODUCT_A, 3)), null);
+
+        // Agrupado por producto y ordenado por ID
+        verify(productoRepository).reduceStockBatch(aryEq(new Long[]{PRODUCT_A, PRODUCT_B}), aryEq(new Integer[]{5, 1}), eq("admin@mail.com"));
+        assertEquals(5, stock.get(PRODUCT_A));
+        assertEquals(9, stock.get(PRODUCT_B));
+    }
+
+    @Test
+    void reserveStock_ShouldRefreshLoadedProducts_AfterBatchUpdate() {
+        stock.put(PRODUCT_A, 10);
+        stock.put(PRODUCT_B, 10);
+        Producto productoA = Producto.builder().id(PRODUCT_A).name("Producto 1").stockQuantity(10).build();
+        Producto productoB = Producto.builder().id(PRODUCT_B).name("Producto 2").stockQuantity(10).build();
+        when(entityManager.contains(any())).thenReturn(true);
+
+        stockManager.reserveStock(List.of(new CartItem(productoA, 2), new CartItem(productoB, 1)),
+                Map.of(PRODUCT_A, productoA, PRODUCT_B, productoB));
+
+        // Checkout de invitado: las entidades cargadas (y bloqueadas) se releen tras el UPDATE nativo
+        verify(entityManager).refresh(productoA);
+        verify(entityManager).refresh(productoB);
+    }
+
+    @Test
+    void reserveStock_ShouldReportEveryShortfall_WithoutUpdating() {
+        stock.put(PRODUCT_A, 1);
+        stock.put(PRODUCT_B, 0);
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                stockManager.reserveStock(List.of(item(PRODUCT_A, 3), item(PRODUCT_B, 1)), null));
+
+        assertEquals("Stock insuficiente para Producto 1. Disponible: 1, Solicitado: 3; "
+                + "Stock insuficiente para Producto 2. Disponible: 0, Solicitado: 1", exception.getMessage());
+        verify(productoRepository, never()).reduceStockBatch(any(), any(), any());
+    }
+
+    @Test
+    void reserveStock_ShouldFail_WhenConcurrentPurchaseLeavesFewerRowsUpdated() {
+        stock.put(PRODUCT_A, 5);
+        stock.put(PRODUCT_B, 5);
+        // Otra compra confirma entre la validación y el UPDATE condicional
+        doReturn(1).when(productoRepository).reduceStockBatch(any(), any(), any());
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                stockManager.reserveStock(List.of(item(PRODUCT_A, 2), item(PRODUCT_B, 2)), null));
+
+        assertEquals("Stock insuficiente por una compra concurrente. Productos actualizados: 1, esperados: 2",
+                exception.getMessage());
+    }
+
+    @Test
+    void reserveStock_ShouldThrowNotFound_WhenProductMissing() {
+        stock.put(PRODUCT_A, 5);
+
+        assertThrows(ResourceNotFoundException.class, () ->
+                stockManager.reserveStock(List.of(item(PRODUCT_A, 1), item(PRODUCT_B, 1)), null));
+        verify(productoRepository, never()).reduceStockBatch(any(), any(), any());
+    }
+
+    // Lectura sin bloqueo: puede quedar desactualizada antes del UPDATE
+    private List<ProductoStockProjection> readStock(Collection<Long> productIds) {
+        List<ProductoStockProjection> rows = new ArrayList<>();
+        for (Long productId : productIds) {
+            Integer quantity = stock.get(productId);
+            if (quantity != null) {
+                rows.add(new StockRow(productId, "Producto " + productId, quantity));
+            }
+        }
+        return rows;
+    }
+
+    // UPDATE ... WHERE stock_quantity >= quantity: solo se descuentan las filas con stock suficiente
+    private int reduceStock(Long[] productIds, Integer[] quantities) {
+        int updated = 0;
+        for (int i = 0; i < productIds.length; i++) {
+            Integer current = stock.get(productIds[i]);
+            if (current != null && current >= quantities[i]) {
+                stock.put(productIds[i], current - quantities[i]);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    private static CartItem item(Long productId, int quantity) {
+        return new CartItem(Producto.builder().id(productId).name("Producto " + productId).build(), quantity);
+    }
+
+    private record StockRow(Long id, String name, Integer stockQuantity) implements ProductoStockProjection {
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getStockQuantity() {
+            return stockQuantity;
+        }
+    }
+}
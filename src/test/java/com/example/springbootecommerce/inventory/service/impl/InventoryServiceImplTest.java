@@ -0,0 +1,254 @@
+package com.example.springbootecommerce.inventory.service.impl;
+
+import com.example.springbootecommerce.inventory.entity.InventoryLedgerCheckpoint;
+import com.example.springbootecommerce.inventory.repository.InventoryLedgerCheckpointRepository;
+import com.example.springbootecommerce.inventory.service.InventoryJournal;
+import com.example.springbootecommerce.inventory.service.StockLockMode;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoStockProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ledger de inventario con el journal real en un directorio temporal y los repositorios simulados.
+ * Las transacciones se simulan con TransactionSynchronizationManager para decidir commit o rollback.
+ */
+class InventoryServiceImplTest {
+
+    private static final long PRODUCT_A = 1L;
+    private static final long PRODUCT_B = 2L;
+
+    @TempDir
+    Path journalDir;
+
+    private ProductoRepository productoRepository;
+    private InventoryLedgerCheckpointRepository checkpointRepository;
+    private InventoryJournal journal;
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository = Mockito.mock(ProductoRepository.class);
+        checkpointRepository = Mockito.mock(InventoryLedgerCheckpointRepository.class);
+        when(productoRepository.findAllStockLevels()).thenReturn(List.of(stock(PRODUCT_A, 10), stock(PRODUCT_B, 1)));
+        when(checkpointRepository.findById(InventoryLedgerCheckpoint.SINGLETON_ID))
+                .thenReturn(Optional.of(checkpoint(0)));
+        inventoryService = newService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        journal.close();
+    }
+
+    @Test
+    void reserve_ShouldJournalMovement_BeforeTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(inventoryService.reserve(Map.of(PRODUCT_A, 3)).isEmpty());
+
+        assertEquals(7, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(Map.of(), journal.readSegment(1));
+
+        beforeCommit();
+        assertEquals(Map.of(PRODUCT_A, -3), journal.readSegment(1));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(7, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(Map.of(PRODUCT_A, -3), journal.readSegment(1));
+    }
+
+    @Test
+    void reserve_ShouldRestoreStockWithoutJournal_WhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(Map.of(PRODUCT_A, 3));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(Map.of(), journal.readSegment(1));
+        assertEquals(0, inventoryService.flushPendingDeltas());
+    }
+
+    @Test
+    void reserve_ShouldJournalCompensation_WhenCommitFailsAfterRecording() {
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(Map.of(PRODUCT_A, 3));
+        beforeCommit();
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // El segmento contiene la reserva y su inversa: el delta neto es cero
+        assertEquals(10, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(Map.of(), journal.readSegment(1));
+        assertEquals(0, inventoryService.flushPendingDeltas());
+    }
+
+    @Test
+    void reserve_ShouldReserveNothing_WhenAnyProductIsShort() {
+        Map<Long, Integer> shortfalls = inventoryService.reserve(Map.of(PRODUCT_A, 3, PRODUCT_B, 5));
+
+        assertEquals(Map.of(PRODUCT_B, 1), shortfalls);
+        assertEquals(10, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(1, inventoryService.getAvailableStock(PRODUCT_B));
+        assertEquals(Map.of(), journal.readSegment(1));
+    }
+
+    @Test
+    void release_ShouldMakeStockAvailable_OnlyWhenTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.release(PRODUCT_A, 4);
+        beforeCommit();
+        assertEquals(10, inventoryService.getAvailableStock(PRODUCT_A));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(14, inventoryService.getAvailableStock(PRODUCT_A));
+        assertEquals(Map.of(PRODUCT_A, 4), journal.readSegment(1));
+    }
+
+    @Test
+    void flushPendingDeltas_ShouldWriteNetDeltasAndAdvanceCheckpoint() {
+        inventoryService.reserve(Map.of(PRODUCT_A, 3));
+        inventoryService.release(PRODUCT_A, 1);
+
+        assertEquals(1, inventoryService.flushPendingDeltas());
+
+        verify(productoRepository).applyStockDeltas(aryEq(new Long[]{PRODUCT_A}), aryEq(new Integer[]{-2}), eq("SYSTEM"));
+        verify(checkpointRepository).advanceTo(1);
+        // El segmento aplicado se elimina y los nuevos movimientos van al siguiente
+        assertEquals(List.of(2L), journal.listSegments());
+        assertEquals(0, inventoryService.flushPendingDeltas());
+    }
+
+    @Test
+    void initialize_ShouldReplaySegmentsAfterCheckpoint() throws IOException {
+        journal.close();
+        Files.writeString(journalDir.resolve("ledger-1.journal"), "1,-5\n");
+        Files.writeString(journalDir.resolve("ledger-2.journal"), "1,-3\n2,1\n1,2\n");
+        when(checkpointRepository.findById(InventoryLedgerCheckpoint.SINGLETON_ID))
+                .thenReturn(Optional.of(checkpoint(1)));
+
+        inventoryService = newService();
+
+        // El segmento 1 ya estaba aplicado según el checkpoint: solo se reaplica el 2, con el delta neto
+        ArgumentCaptor<Long[]> productIds = ArgumentCaptor.forClass(Long[].class);
+        ArgumentCaptor<Integer[]> deltas = ArgumentCaptor.forClass(Integer[].class);
+        verify(productoRepository).applyStockDeltas(productIds.capture(), deltas.capture(), eq("SYSTEM"));
+        Map<Long, Integer> replayed = new HashMap<>();
+        for (int i = 0; i < productIds.getValue().length; i++) {
+            replayed.put(productIds.getValue()[i], deltas.getValue()[i]);
+        }
+        assertEquals(Map.of(PRODUCT_A, -1, PRODUCT_B, 1), replayed);
+        verify(checkpointRepository).advanceTo(2);
+        assertEquals(List.of(3L), journal.listSegments());
+    }
+
+    @Test
+    void initialize_ShouldNotReplayReservation_WhenProcessStoppedBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(Map.of(PRODUCT_A, 3));
+        // Caída antes del commit: la sincronización nunca se completa
+        TransactionSynchronizationManager.clearSynchronization();
+        journal.close();
+
+        inventoryService = newService();
+
+        verify(productoRepository, never()).applyStockDeltas(any(), any(), any());
+        assertEquals(10, inventoryService.getAvailableStock(PRODUCT_A));
+    }
+
+    @Test
+    void initialize_ShouldReplayReservation_WhenProcessStoppedBetweenCommitAndCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        inventoryService.reserve(Map.of(PRODUCT_A, 3));
+        beforeCommit();
+        // Caída justo después del commit en la base de datos: afterCompletion nunca se ejecuta
+        TransactionSynchronizationManager.clearSynchronization();
+        journal.close();
+
+        inventoryService = newService();
+
+        // El pedido confirmado conserva su descuento de stock tras el reinicio
+        verify(productoRepository).applyStockDeltas(aryEq(new Long[]{PRODUCT_A}), aryEq(new Integer[]{-3}), eq("SYSTEM"));
+        verify(checkpointRepository).advanceTo(1);
+    }
+
+    private InventoryServiceImpl newService() {
+        journal = new InventoryJournal();
+        ReflectionTestUtils.setField(journal, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(journal, "syncOnWrite", true);
+        InventoryServiceImpl service = new InventoryServiceImpl(productoRepository, checkpointRepository, journal,
+                Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "stockLockMode", StockLockMode.LEDGER);
+        service.initialize();
+        return service;
+    }
+
+    private void beforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.beforeCommit(false));
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private InventoryLedgerCheckpoint checkpoint(long lastSegment) {
+        return InventoryLedgerCheckpoint.builder()
+                .id(InventoryLedgerCheckpoint.SINGLETON_ID)
+                .lastSegment(lastSegment)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private ProductoStockProjection stock(long id, int quantity) {
+        return new ProductoStockProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return "Producto " + id;
+            }
+
+            @Override
+            public Integer getStockQuantity() {
+                return quantity;
+            }
+        };
+    }
+}
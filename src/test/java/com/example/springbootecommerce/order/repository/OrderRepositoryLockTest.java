@@ -0,0 +1,103 @@
+package com.example.springbootecommerce.order.repository;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// H2 en modo PostgreSQL: admite el FOR UPDATE SKIP LOCKED del barrido de reservas
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:orders;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderRepositoryLockTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long orderId;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .firstName("Ana")
+                .lastName("García")
+                .email("ana@mail.com")
+                .passwordHash("hash")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setGuestEmail(user.getEmail());
+        order.setGuestFirstName(user.getFirstName());
+        order.setGuestLastName(user.getLastName());
+        order.setTotalAmount(new BigDecimal("50.00"));
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setShippingStreet("Calle Mayor 1");
+        order.setShippingCity("Madrid");
+        order.setShippingState("Madrid");
+        order.setShippingPostalCode("28001");
+        order.setShippingCountry("España");
+        order.setOrderDate(LocalDateTime.now());
+        order.setCreatedBy("SYSTEM");
+        order.setCreatedAt(LocalDateTime.now());
+        orderId = orderRepository.save(order).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void lockPendingOrderIds_ShouldSkipOrder_WhenStatusChangeHoldsItsLock() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        List<Long> sweptIds = tx.execute(status -> {
+            // Un cambio de estado tiene la orden bloqueada...
+            Order order = orderRepository.findByIdWithLock(orderId).orElseThrow();
+            assertEquals(Order.OrderStatus.PENDING, order.getStatus());
+
+            // ...y el barrido concurrente de reservas no puede cancelarla mientras tanto
+            return CompletableFuture.supplyAsync(() -> new TransactionTemplate(transactionManager)
+                            .execute(sweep -> orderRepository.lockPendingOrderIds(List.of(orderId))))
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+        });
+
+        assertTrue(sweptIds.isEmpty());
+        assertEquals(List.of(orderId), orderRepository.lockPendingOrderIds(List.of(orderId)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springbootecommerce.product.controller;
 
 import com.example.springbootecommerce.auth.service.TokenBlacklistService;
+import com.example.springbootecommerce.product.dto.CategoriaBreadcrumbDTO;
 import com.example.springbootecommerce.product.dto.CategoriaDTO;
 import com.example.springbootecommerce.product.dto.CategoriaTreeDTO;
 import com.example.springbootecommerce.product.dto.CreateCategoriaDTO;
@@ -116,6 +117,26 @@ class CategoriaControllerTest {
                 .andExpect(jsonPath("$.data[0].name", is("Electronics")));
     }
 
+    @Test
+    void getBreadcrumb_ShouldReturnPathFromRoot() throws Exception {
+        CategoriaBreadcrumbDTO root = new CategoriaBreadcrumbDTO();
+        root.setId(1L);
+        root.setName("Electronics");
+        root.setDepth(1);
+        CategoriaBreadcrumbDTO leaf = new CategoriaBreadcrumbDTO();
+        leaf.setId(2L);
+        leaf.setName("Laptops");
+        leaf.setDepth(0);
+        when(categoriaService.getBreadcrumb(2L)).thenReturn(List.of(root, leaf));
+
+        mockMvc.perform(get("/api/v1/categories/2/breadcrumb"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)))
+                .andExpect(jsonPath("$.data", hasSize(2)))
+                .andExpect(jsonPath("$.data[0].name", is("Electronics")))
+                .andExpect(jsonPath("$.data[1].name", is("Laptops")));
+    }
+
     @Test
     void getCategoriaById_ShouldReturnCategory() throws Exception {
         when(categoriaService.getCategoryById(1L)).thenReturn(categoriaDTO);
@@ -6,6 +6,7 @@ import com.example.springbootecommerce.product.dto.ProductoDTO;
 import com.example.springbootecommerce.product.dto.ProductoSummaryDTO;
 import com.example.springbootecommerce.product.dto.UpdateProductoDTO;
 import com.example.springbootecommerce.product.service.ProductoService;
+import com.example.springbootecommerce.shared.dto.SliceResponse;
 import com.example.springbootecommerce.shared.security.CustomUserDetailService;
 import com.example.springbootecommerce.shared.security.JwtService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,6 +34,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -125,6 +127,20 @@ class ProductoControllerTest {
                 .andExpect(jsonPath("$.data.content[0].name", is(productoSummaryDTO.getName())));
     }
 
+    @Test
+    void scrollProductos_ShouldReturnSliceWithNextCursor() throws Exception {
+        SliceResponse<ProductoSummaryDTO> slice = SliceResponse.of(
+                Collections.singletonList(productoSummaryDTO), 1, "bmV4dA", null);
+        when(productoService.scrollProducts(any(), eq("abc"), eq(false))).thenReturn(slice);
+
+        mockMvc.perform(get("/api/v1/products/scroll").param("cursor", "abc").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)))
+                .andExpect(jsonPath("$.data.content", hasSize(1)))
+                .andExpect(jsonPath("$.data.hasNext", is(true)))
+                .andExpect(jsonPath("$.data.nextCursor", is("bmV4dA")));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void crearProducto_ShouldCreateAndReturnProducto() throws Exception {
@@ -0,0 +1,98 @@
+package com.example.springbootecommerce.product.controller;
+
+import com.example.springbootecommerce.auth.service.TokenBlacklistService;
+import com.example.springbootecommerce.product.dto.RatingDistributionDTO;
+import com.example.springbootecommerce.product.dto.ReviewDTO;
+import com.example.springbootecommerce.product.service.ReviewService;
+import com.example.springbootecommerce.shared.security.CustomUserDetailService;
+import com.example.springbootecommerce.shared.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReviewController.class)
+@Import(ReviewControllerTest.TestConfig.class)
+class ReviewControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    static class TestConfig {
+        @Bean
+        ReviewService reviewService() {
+            return Mockito.mock(ReviewService.class);
+        }
+
+        @Bean
+        public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+            http
+                    .csrf(AbstractHttpConfigurer::disable)
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll());
+            return http.build();
+        }
+
+        @Bean
+        JwtService jwtService() {
+            return Mockito.mock(JwtService.class);
+        }
+
+        @Bean
+        CustomUserDetailService customUserDetailService() {
+            return Mockito.mock(CustomUserDetailService.class);
+        }
+
+        @Bean
+        TokenBlacklistService tokenBlacklistService() {
+            return Mockito.mock(TokenBlacklistService.class);
+        }
+    }
+
+    @Test
+    void getReviewsByProducto_ShouldReturnPage() throws Exception {
+        ReviewDTO review = new ReviewDTO();
+        review.setId(1L);
+        review.setRating(5);
+        when(reviewService.getProductReviews(1L, 0, 10)).thenReturn(new PageImpl<>(Collections.singletonList(review)));
+
+        mockMvc.perform(get("/api/v1/reviews/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success", is(true)))
+                .andExpect(jsonPath("$.data.content[0].rating", is(5)));
+    }
+
+    @Test
+    void getDistribucionCalificaciones_ShouldReturnHistogram() throws Exception {
+        RatingDistributionDTO distribution = RatingDistributionDTO.builder()
+                .productId(1L)
+                .averageRating(4.5)
+                .totalReviews(2)
+                .distribution(Map.of(5, 1, 4, 1, 3, 0, 2, 0, 1, 0))
+                .build();
+        when(reviewService.getRatingDistribution(1L)).thenReturn(distribution);
+
+        mockMvc.perform(get("/api/v1/reviews/product/1/distribucion"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalReviews", is(2)))
+                .andExpect(jsonPath("$.data.distribution.5", is(1)));
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.entity.Producto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// H2 en modo PostgreSQL: admite el UPDATE ... FROM unnest(...) de reduceStockBatch
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:stock;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductoRepositoryConcurrencyTest {
+
+    private static final int INITIAL_STOCK = 50;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Categoria categoria;
+    private Producto producto;
+
+    @BeforeEach
+    void setUp() {
+        categoria = categoriaRepository.save(Categoria.builder()
+                .name("Flash Sale")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        producto = saveProducto("HOT-SKU-01", INITIAL_STOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void decrementStockIfAvailable_ShouldNeverOversell_WhenManyThreadsBuySameSku() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    Integer updated = transactionTemplate.execute(status ->
+                            productoRepository.decrementStockIfAvailable(producto.getId(), 1));
+                    if (updated != null && updated == 1) {
+                        sold.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int remaining = productoRepository.findById(producto.getId()).orElseThrow().getStockQuantity();
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(0, remaining);
+    }
+
+    @Test
+    void reduceStockBatch_ShouldNeverOversell_WhenManyThreadsBuyOverlappingCarts() throws Exception {
+        Producto second = saveProducto("HOT-SKU-02", 30);
+        Producto third = saveProducto("HOT-SKU-03", INITIAL_STOCK);
+        // Carritos con productos en común y los IDs en distinto orden: el bloqueo ordenado del CTE
+        // evita deadlocks aunque el arreglo no llegue ordenado
+        Long[][] carts = {
+                {producto.getId(), second.getId()},
+                {second.getId(), producto.getId(), third.getId()},
+                {third.getId(), second.getId()}
+        };
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicIntegerArray soldByCart = new AtomicIntegerArray(carts.length);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int cartIndex = t % carts.length;
+            Long[] cart = carts[cartIndex];
+            Integer[] quantities = new Integer[cart.length];
+            Arrays.fill(quantities, 1);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    // Todo o nada, como StockManager: si falta stock de alguna línea se revierte el lote
+                    Boolean reserved = transactionTemplate.execute(status -> {
+                        int updated = productoRepository.reduceStockBatch(cart, quantities, "SYSTEM");
+                        if (updated != cart.length) {
+                            status.setRollbackOnly();
+                            return false;
+                        }
+                        return true;
+                    });
+                    if (Boolean.TRUE.equals(reserved)) {
+                        soldByCart.incrementAndGet(cartIndex);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Todos los carritos llevan el segundo producto: se venden exactamente sus 30 unidades, y el
+        // stock de cada producto baja una unidad por cada carrito confirmado que lo contiene
+        assertEquals(30, soldByCart.get(0) + soldByCart.get(1) + soldByCart.get(2));
+        assertEquals(0, stockOf(second));
+        assertEquals(INITIAL_STOCK - soldByCart.get(0) - soldByCart.get(1), stockOf(producto));
+        assertEquals(INITIAL_STOCK - soldByCart.get(1) - soldByCart.get(2), stockOf(third));
+        assertEquals("SYSTEM", productoRepository.findById(second.getId()).orElseThrow().getUpdatedBy());
+    }
+
+    private Producto saveProducto(String sku, int stockQuantity) {
+        return productoRepository.save(Producto.builder()
+                .name("Hot SKU " + sku)
+                .sku(sku)
+                .price(new BigDecimal("9.99"))
+                .stockQuantity(stockQuantity)
+                .categoria(categoria)
+                .imageUrl("hot.png")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private int stockOf(Producto target) {
+        return productoRepository.findById(target.getId()).orElseThrow().getStockQuantity();
+    }
+}
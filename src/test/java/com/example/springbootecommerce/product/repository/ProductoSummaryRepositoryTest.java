@@ -0,0 +1,127 @@
+package com.example.springbootecommerce.product.repository;
+
+import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.entity.CategoriaClosure;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.entity.ProductoSalesStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// H2 en modo PostgreSQL: mismas consultas nativas que en producción
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:summaries;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductoSummaryRepositoryTest {
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private CategoriaClosureRepository categoriaClosureRepository;
+
+    @Autowired
+    private ProductoSalesStatsRepository productoSalesStatsRepository;
+
+    private Categoria audio;
+    private Producto auriculares;
+    private Producto altavoz;
+    private Producto cable;
+
+    @BeforeEach
+    void setUp() {
+        audio = saveCategoria("Audio");
+        Categoria accesorios = saveCategoria("Accesorios");
+        categoriaClosureRepository.save(new CategoriaClosure(audio.getId(), audio.getId(), 0));
+        categoriaClosureRepository.save(new CategoriaClosure(accesorios.getId(), accesorios.getId(), 0));
+
+        auriculares = saveProducto("AUR-01", audio);
+        altavoz = saveProducto("ALT-01", audio);
+        cable = saveProducto("CAB-01", accesorios);
+        saveVentas(auriculares, 5);
+        saveVentas(altavoz, 12);
+        saveVentas(cable, 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productoSalesStatsRepository.deleteAll();
+        productoRepository.deleteAll();
+        categoriaClosureRepository.deleteAll();
+        categoriaRepository.deleteAll();
+    }
+
+    @Test
+    void findBestSellingSummaries_ShouldReturnRowsWithCategoryName_OrderedByUnitsSold() {
+        Page<ProductoSummaryRow> page = productoRepository.findBestSellingSummaries(null, PageRequest.of(0, 2));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(cable.getId(), altavoz.getId()),
+                page.getContent().stream().map(ProductoSummaryRow::id).toList());
+        ProductoSummaryRow row = page.getContent().get(1);
+        assertEquals("Audio", row.categoryName());
+        assertEquals("ALT-01", row.sku());
+        assertEquals(0, new BigDecimal("19.99").compareTo(row.price()));
+        assertEquals(8, row.stockQuantity());
+    }
+
+    @Test
+    void findBestSellingSummaries_ShouldFilterByCategory_WhenCategoryIdGiven() {
+        Page<ProductoSummaryRow> page = productoRepository.findBestSellingSummaries(audio.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(altavoz.getId(), auriculares.getId()),
+                page.getContent().stream().map(ProductoSummaryRow::id).toList());
+    }
+
+    private Categoria saveCategoria(String name) {
+        return categoriaRepository.save(Categoria.builder()
+                .name(name)
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Producto saveProducto(String sku, Categoria categoria) {
+        return productoRepository.save(Producto.builder()
+                .name("Producto " + sku)
+                .sku(sku)
+                .price(new BigDecimal("19.99"))
+                .stockQuantity(8)
+                .categoria(categoria)
+                .imageUrl(sku + ".png")
+                .createdBy("SYSTEM")
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void saveVentas(Producto producto, long units) {
+        productoSalesStatsRepository.save(ProductoSalesStats.builder()
+                .productId(producto.getId())
+                .unitsSold(units)
+                .revenue(new BigDecimal("19.99").multiply(BigDecimal.valueOf(units)))
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+}
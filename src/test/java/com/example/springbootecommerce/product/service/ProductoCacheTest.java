@@ -0,0 +1,99 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.ProductoDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductoCacheTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final String SKU = "SKU-01";
+
+    private ProductoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductoCache(100, 300);
+    }
+
+    @Test
+    void getBySku_ShouldLoadOnce_WhenCalledRepeatedly() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getBySku(SKU, sku -> PRODUCT_ID, id -> {
+            loads.incrementAndGet();
+            return producto(id, SKU, "Original");
+        });
+        ProductoDTO cached = cache.getBySku(SKU, sku -> PRODUCT_ID, id -> producto(id, SKU, "Otro"));
+
+        assertEquals("Original", cached.getName());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getBySku_ShouldDiscardStaleLoad_WhenEvictedWhileLoading() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // La lectura por SKU empieza a cargar la versión anterior a la actualización...
+        CompletableFuture<ProductoDTO> staleRead = CompletableFuture.supplyAsync(() ->
+                cache.getBySku(SKU, sku -> PRODUCT_ID, id -> {
+                    loading.countDown();
+                    await(release);
+                    return producto(id, SKU, "Original");
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // ...y la invalidación afterCommit de la actualización llega mientras la carga sigue en curso
+        Thread eviction = new Thread(() -> cache.evict(PRODUCT_ID));
+        eviction.start();
+        waitUntilBlockedOrDone(eviction);
+        release.countDown();
+        eviction.join(5000);
+        staleRead.get(5, TimeUnit.SECONDS);
+
+        ProductoDTO producto = cache.getBySku(SKU, sku -> PRODUCT_ID, id -> producto(id, SKU, "Actualizado"));
+        assertEquals("Actualizado", producto.getName());
+    }
+
+    @Test
+    void getBySku_ShouldResolveAgain_WhenSkuWasReassigned() {
+        cache.getBySku(SKU, sku -> PRODUCT_ID, id -> producto(id, SKU, "Original"));
+        // El producto 1 cambió de SKU y el SKU pasó al producto 2
+        cache.evict(PRODUCT_ID);
+        Map<Long, String> skus = Map.of(PRODUCT_ID, "SKU-OLD", 2L, SKU);
+
+        ProductoDTO producto = cache.getBySku(SKU, sku -> 2L, id -> producto(id, skus.get(id), "Producto " + id));
+
+        assertEquals(2L, producto.getId());
+    }
+
+    private static void waitUntilBlockedOrDone(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.BLOCKED && thread.getState() != Thread.State.WAITING
+                && thread.isAlive() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ProductoDTO producto(Long id, String sku, String name) {
+        return ProductoDTO.builder().id(id).sku(sku).name(name).build();
+    }
+}
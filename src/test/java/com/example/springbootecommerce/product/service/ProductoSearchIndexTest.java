@@ -0,0 +1,275 @@
+package com.example.springbootecommerce.product.service;
+
+import com.example.springbootecommerce.product.dto.FacetValueDTO;
+import com.example.springbootecommerce.product.dto.ProductoSearchCriteria;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.ProductoSearchProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ProductoSearchIndexTest {
+
+    private static final long PHONES = 10L;
+    private static final long LAPTOPS = 20L;
+
+    private ProductoRepository productoRepository;
+    private ProductoSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productoRepository = Mockito.mock(ProductoRepository.class);
+        index = new ProductoSearchIndex(productoRepository, Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(index, "searchMode", ProductoSearchMode.INDEX);
+        when(productoRepository.streamSearchDocuments()).thenAnswer(invocation -> Stream.of(
+                doc(1L, "Teléfono Galaxy S24", "Samsung", "129.99", 5, PHONES, "Teléfonos", "4.5"),
+                doc(2L, "Teléfono Pixel 8", "Google", "99.50", 0, PHONES, "Teléfonos", "4.8"),
+                doc(3L, "Laptop Galaxy Book", "Samsung", "899.00", 2, LAPTOPS, "Laptops", "4.1"),
+                doc(4L, "Funda para teléfono", "Spigen", "15.00", 40, PHONES, "Teléfonos", "3.9")));
+        index.rebuild();
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseStripAccentsAndDropShortTokens() {
+        assertEquals(Set.of("telefono", "galaxy", "s24"), ProductoSearchIndex.tokenize("Teléfono  GALAXY-S24 a"));
+        assertTrue(ProductoSearchIndex.tokenize("  ").isEmpty());
+        assertTrue(ProductoSearchIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnNull_WhenIndexNotBuilt() {
+        ProductoSearchIndex empty = new ProductoSearchIndex(productoRepository, Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(empty, "searchMode", ProductoSearchMode.INDEX);
+
+        assertFalse(empty.isReady());
+        assertNull(empty.search(new ProductoSearchCriteria(), null));
+    }
+
+    @Test
+    void search_ShouldIntersectTermsAndRankNameMatchesFirst() {
+        ProductoSearchIndex.SearchResult result = index.search(criteria("telefono"), null);
+
+        assertEquals(3, result.total());
+        // Relevancia: empate en el nombre, desempate por ID
+        assertEquals(List.of(1L, 2L, 4L), result.productIds());
+        assertEquals(List.of(1L), index.search(criteria("galaxy telefono"), null).productIds());
+        assertEquals(0, index.search(criteria("galaxy inexistente"), null).total());
+    }
+
+    @Test
+    void search_ShouldCountFacetsOverAllMatches() {
+        ProductoSearchCriteria criteria = criteria(null);
+        criteria.setSize(1);
+
+        ProductoSearchIndex.SearchResult result = index.search(criteria, null);
+
+        assertEquals(4, result.total());
+        assertEquals(1, result.productIds().size());
+        assertEquals(List.of(new FacetValueDTO(null, "Samsung", 2L),
+                new FacetValueDTO(null, "Google", 1L),
+                new FacetValueDTO(null, "Spigen", 1L)), result.brands());
+        assertEquals(List.of(new FacetValueDTO(PHONES, "Teléfonos", 3L),
+                new FacetValueDTO(LAPTOPS, "Laptops", 1L)), result.categories());
+        assertEquals(3, result.inStockCount());
+    }
+
+    @Test
+    void search_ShouldApplyCategoryBrandPriceAndStockFilters() {
+        ProductoSearchCriteria criteria = criteria(null);
+        criteria.setBrand("sams");
+        assertEquals(List.of(1L, 3L), sortedIds(index.search(criteria, null)));
+
+        criteria = criteria(null);
+        criteria.setMinPrice(new BigDecimal("20"));
+        criteria.setMaxPrice(new BigDecimal("130"));
+        criteria.setInStock(true);
+        assertEquals(List.of(1L), index.search(criteria, null).productIds());
+
+        assertEquals(List.of(3L), index.search(criteria(null), List.of(LAPTOPS)).productIds());
+        assertEquals(0, index.search(criteria(null), List.of(99L)).total());
+    }
+
+    @Test
+    void search_ShouldSortAndPageWithTopK() {
+        ProductoSearchCriteria criteria = criteria(null);
+        criteria.setSortBy("price");
+        criteria.setSortDirection("desc");
+        criteria.setSize(2);
+        assertEquals(List.of(3L, 1L), index.search(criteria, null).productIds());
+
+        criteria.setPage(1);
+        assertEquals(List.of(2L, 4L), index.search(criteria, null).productIds());
+
+        criteria.setPage(2);
+        assertTrue(index.search(criteria, null).productIds().isEmpty());
+
+        criteria = criteria(null);
+        criteria.setSortBy("rating");
+        criteria.setSortDirection("desc");
+        assertEquals(List.of(2L, 1L, 3L, 4L), index.search(criteria, null).productIds());
+    }
+
+    @Test
+    void search_ShouldMatchFullSort_WhenPagingThroughManyDocuments() {
+        // Precios repetidos (desempate por ID) y en orden distinto al de inserción
+        List<ProductoSearchProjection> docs = new ArrayList<>();
+        for (long id = 1; id <= 28; id++) {
+            docs.add(doc(id, "Cable " + id, "Marca", String.valueOf((id * 37) % 11), 1, PHONES, "Teléfonos", "4.0"));
+        }
+        when(productoRepository.streamSearchDocuments()).thenAnswer(invocation -> docs.stream());
+        index.rebuild();
+        List<Long> expected = docs.stream()
+                .sorted(Comparator.comparing(ProductoSearchProjection::getPrice).reversed()
+                        .thenComparing(ProductoSearchProjection::getId))
+                .map(ProductoSearchProjection::getId)
+                .toList();
+
+        ProductoSearchCriteria criteria = criteria(null);
+        criteria.setSortBy("price");
+        criteria.setSortDirection("desc");
+        criteria.setSize(5);
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page < 7; page++) {
+            criteria.setPage(page);
+            paged.addAll(index.search(criteria, null).productIds());
+        }
+
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    void onStockChanged_ShouldUpdateStockFilterAndFacet() {
+        index.onStockChanged(Map.of(1L, -5, 2L, 3));
+
+        ProductoSearchCriteria criteria = criteria(null);
+        criteria.setInStock(true);
+        ProductoSearchIndex.SearchResult result = index.search(criteria, null);
+
+        assertEquals(List.of(2L, 3L, 4L), sortedIds(result));
+        assertEquals(3, result.inStockCount());
+    }
+
+    @Test
+    void onProductsChanged_ShouldReindexEditedAndDropInactiveProducts() {
+        when(productoRepository.findSearchDocumentsByIds(any())).thenReturn(List.of(
+                doc(2L, "Teléfono Nexus", "Google", "99.50", 0, PHONES, "Teléfonos", "4.8"),
+                inactive(4L)));
+
+        index.onProductsChanged(List.of(2L, 4L, 99L));
+
+        assertEquals(List.of(2L), index.search(criteria("nexus"), null).productIds());
+        assertEquals(0, index.search(criteria("pixel"), null).total());
+        assertEquals(0, index.search(criteria("funda"), null).total());
+        assertEquals(3, index.search(criteria(null), null).total());
+        assertTrue(index.needsCompaction(0.25));
+    }
+
+    @Test
+    void onProductsChanged_ShouldRelabelCategoryFacet_WhenCategoryRenamed() {
+        when(productoRepository.findSearchDocumentsByIds(any())).thenReturn(List.of(
+                doc(3L, "Laptop Galaxy Book", "Samsung", "899.00", 2, LAPTOPS, "Portátiles", "4.1")));
+
+        index.onProductsChanged(List.of(3L));
+
+        assertEquals(List.of(new FacetValueDTO(LAPTOPS, "Portátiles", 1L)),
+                index.search(criteria(null), List.of(LAPTOPS)).categories());
+    }
+
+    @Test
+    void rebuild_ShouldCompactDeletedDocuments() {
+        when(productoRepository.findSearchDocumentsByIds(any())).thenReturn(List.of(inactive(4L)));
+        index.onProductsChanged(List.of(4L));
+        assertTrue(index.needsCompaction(0.1));
+
+        index.rebuild();
+
+        assertFalse(index.needsCompaction(0.0));
+        assertEquals(4, index.search(criteria(null), null).total());
+    }
+
+    private static ProductoSearchCriteria criteria(String searchTerm) {
+        ProductoSearchCriteria criteria = new ProductoSearchCriteria();
+        criteria.setSearchTerm(searchTerm);
+        return criteria;
+    }
+
+    private static List<Long> sortedIds(ProductoSearchIndex.SearchResult result) {
+        return result.productIds().stream().sorted().toList();
+    }
+
+    private static ProductoSearchProjection inactive(Long id) {
+        return new Document(id, "Inactivo", null, null, "1.00", 0, PHONES, "Teléfonos", null, false);
+    }
+
+    private static ProductoSearchProjection doc(Long id, String name, String brand, String price, int stock,
+                                                Long categoryId, String categoryName, String rating) {
+        return new Document(id, name, name + " de " + brand, brand, price, stock, categoryId, categoryName, rating, true);
+    }
+
+    private record Document(Long id, String name, String description, String brand, String price, int stock,
+                            Long categoryId, String categoryName, String rating, boolean active)
+            implements ProductoSearchProjection {
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public String getBrand() {
+            return brand;
+        }
+
+        public BigDecimal getPrice() {
+            return new BigDecimal(price);
+        }
+
+        public Integer getStockQuantity() {
+            return stock;
+        }
+
+        public Long getCategoryId() {
+            return categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public BigDecimal getRatingAverage() {
+            return rating != null ? new BigDecimal(rating) : null;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return LocalDateTime.of(2024, 1, id.intValue(), 0, 0);
+        }
+
+        public Boolean getActive() {
+            return active;
+        }
+    }
+}
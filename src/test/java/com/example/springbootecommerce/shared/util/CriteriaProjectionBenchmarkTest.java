@@ -0,0 +1,233 @@
+package com.example.springbootecommerce.shared.util;
+
+import com.example.springbootecommerce.order.entity.Order;
+import com.example.springbootecommerce.order.entity.OrderItem;
+import com.example.springbootecommerce.order.mapper.OrderMapper;
+import com.example.springbootecommerce.order.mapper.OrderMapperImpl;
+import com.example.springbootecommerce.order.repository.OrderRepository;
+import com.example.springbootecommerce.product.entity.Categoria;
+import com.example.springbootecommerce.product.entity.Producto;
+import com.example.springbootecommerce.product.mapper.CategoriaMapperImpl;
+import com.example.springbootecommerce.product.mapper.ProductoMapper;
+import com.example.springbootecommerce.product.mapper.ProductoMapperImpl;
+import com.example.springbootecommerce.product.mapper.ReviewMapperImpl;
+import com.example.springbootecommerce.product.repository.CategoriaRepository;
+import com.example.springbootecommerce.product.repository.ProductoRepository;
+import com.example.springbootecommerce.product.repository.specification.ProductoSpecification;
+import com.example.springbootecommerce.user.entity.Role;
+import com.example.springbootecommerce.user.entity.User;
+import com.example.springbootecommerce.user.mapper.AddressMapperImpl;
+import com.example.springbootecommerce.user.mapper.UserMapper;
+import com.example.springbootecommerce.user.mapper.UserMapperImpl;
+import com.example.springbootecommerce.user.repository.RoleRepository;
+import com.example.springbootecommerce.user.repository.UserRepository;
+import com.example.springbootecommerce.user.repository.specification.UserSpecification;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes asignados por página de listado: entidades + mapper frente a filas resumen.
+ * Ejecutar con: mvn test -Dbenchmarks=true -Dtest=CriteriaProjectionBenchmarkTest
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+})
+@Import({ProductoMapperImpl.class, CategoriaMapperImpl.class, ReviewMapperImpl.class,
+        OrderMapperImpl.class, UserMapperImpl.class, AddressMapperImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class CriteriaProjectionBenchmarkTest {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 30;
+    private static final int MEASURED_ITERATIONS = 100;
+    private static final String LONG_TEXT = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(70);
+
+    @Autowired
+    private ProductoRepository productoRepository;
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private ProductoMapper productoMapper;
+    @Autowired
+    private UserMapper userMapper;
+    @Autowired
+    private OrderMapper orderMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    void seed() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Categoria categoria = categoriaRepository.save(Categoria.builder()
+                    .name("Benchmark")
+                    .createdBy("SYSTEM")
+                    .createdAt(LocalDateTime.now())
+                    .build());
+
+            List<Producto> productos = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                productos.add(Producto.builder()
+                        .name("Producto " + i)
+                        .sku("BENCH-" + i)
+                        .description(LONG_TEXT)
+                        .price(new BigDecimal("19.99"))
+                        .stockQuantity(i % 20)
+                        .categoria(categoria)
+                        .brand("Marca " + (i % 10))
+                        .imageUrl("img-" + i + ".png")
+                        .createdBy("SYSTEM")
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            }
+            productos = productoRepository.saveAll(productos);
+
+            Role customer = role("ROLE_USER");
+            Role admin = role("ROLE_ADMIN");
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                User user = User.builder()
+                        .firstName("Nombre" + i)
+                        .lastName("Apellido" + i)
+                        .email("user" + i + "@bench.test")
+                        .passwordHash("x")
+                        .roles(i % 10 == 0 ? Set.of(customer, admin) : Set.of(customer))
+                        .build();
+                user.setCreatedBy("SYSTEM");
+                user.setCreatedAt(LocalDateTime.now());
+                users.add(user);
+            }
+            users = userRepository.saveAll(users);
+
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                User user = users.get(i % users.size());
+                Order order = new Order();
+                order.setUser(user);
+                order.setGuestEmail(user.getEmail());
+                order.setGuestFirstName(user.getFirstName());
+                order.setGuestLastName(user.getLastName());
+                order.setTotalAmount(new BigDecimal("59.97"));
+                order.setShippingStreet("Calle " + i);
+                order.setShippingCity("Lima");
+                order.setShippingState("Lima");
+                order.setShippingPostalCode("15001");
+                order.setShippingCountry("PE");
+                order.setNotes(LONG_TEXT);
+                order.setCreatedBy("SYSTEM");
+                order.setCreatedAt(LocalDateTime.now());
+                for (int j = 0; j < 3; j++) {
+                    order.getItems().add(new OrderItem(order, productos.get((i + j) % productos.size()), j + 1));
+                }
+                orders.add(order);
+            }
+            orderRepository.saveAll(orders);
+        });
+    }
+
+    @Test
+    void productListing() {
+        Pageable pageable = PageRequest.of(2, PAGE_SIZE, Sort.by("name"));
+        long entity = bytesPerPage(() -> productoRepository.findAll(ProductoSpecification.isActive(), pageable)
+                .map(productoMapper::toSummaryDTO).getContent());
+        long projection = bytesPerPage(() -> productoRepository.findSummaries(ProductoSpecification.isActive(), pageable)
+                .map(productoMapper::toSummaryDTO).getContent());
+        report("Productos", entity, projection);
+    }
+
+    @Test
+    void userListing() {
+        Pageable pageable = PageRequest.of(1, PAGE_SIZE, Sort.by("lastName"));
+        long entity = bytesPerPage(() -> userRepository.findAll(UserSpecification.isActive(), pageable)
+                .map(userMapper::toUserSummaryDTO).getContent());
+        long projection = bytesPerPage(() -> userRepository.findSummaries(UserSpecification.isActive(), pageable)
+                .map(userMapper::toUserSummaryDTO).getContent());
+        report("Usuarios", entity, projection);
+    }
+
+    @Test
+    void orderListing() {
+        Pageable pageable = PageRequest.of(3, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "orderDate"));
+        List<?> expected = readOnly.execute(status -> orderRepository.findAll(pageable)
+                .map(orderMapper::toSummaryDTO).getContent());
+        List<?> actual = readOnly.execute(status -> orderRepository.findSummaries(null, pageable)
+                .map(orderMapper::toSummaryDTO).getContent());
+        assertEquals(expected, actual);
+
+        long entity = bytesPerPage(() -> orderRepository.findAll(pageable)
+                .map(orderMapper::toSummaryDTO).getContent());
+        long projection = bytesPerPage(() -> orderRepository.findSummaries(null, pageable)
+                .map(orderMapper::toSummaryDTO).getContent());
+        report("Órdenes", entity, projection);
+    }
+
+    private Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        role.setCreatedBy("SYSTEM");
+        role.setCreatedAt(LocalDateTime.now());
+        return roleRepository.save(role);
+    }
+
+    /**
+     * Promedio de bytes asignados por el hilo actual para obtener y mapear una página,
+     * cada iteración en su propia transacción de solo lectura
+     */
+    private long bytesPerPage(Supplier<List<?>> page) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertEquals(PAGE_SIZE, readOnly.execute(status -> page.get()).size());
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            readOnly.execute(status -> page.get());
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - before) / MEASURED_ITERATIONS;
+    }
+
+    private void report(String listing, long entity, long projection) {
+        System.out.printf("%-10s entidades: %,10d B/página | proyección: %,10d B/página | %.1fx%n",
+                listing, entity, projection, (double) entity / projection);
+        assertTrue(projection < entity, listing + ": la proyección debería asignar menos que las entidades");
+    }
+}